@@ -0,0 +1,159 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замер поиска через {@link CachedTree}.
+ *
+ * <p>{@code find} измеряет среднее время поиска, {@code capacity = 0} —
+ * {@link AVLTree} без кэша. {@code hits} выполняет те же запросы и считает
+ * попадания в кэш: отношение счетчиков {@code hits / lookups} равно доле
+ * попаданий.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class CacheBenchmark {
+
+    /**
+     * Длина потока ключей для поиска.
+     */
+    private static final int LOOKUPS = 1 << 20;
+
+    /**
+     * Зерно генератора случайных чисел.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Количество элементов в кэше или ноль, если кэша нет.
+     */
+    @Param({"0", "1024", "16384"})
+    public int capacity;
+
+    /**
+     * Количество ключей.
+     */
+    @Param({"1000000"})
+    public int size;
+
+    /**
+     * Распределение запросов.
+     */
+    @Param({"RANDOM", "ZIPF", "HOTSPOT"})
+    public KeyDistribution distribution;
+
+    /**
+     * Дерево.
+     */
+    private Tree<Long, Long> tree;
+
+    /**
+     * Дерево с кэшем или {@code null}, если кэша нет.
+     */
+    private CachedTree<Long, Long> cached;
+
+    /**
+     * Поток ключей.
+     */
+    private Long[] keys;
+
+    /**
+     * Позиция в потоке ключей.
+     */
+    private int cursor;
+
+    /**
+     * Заполнение дерева ключами {@code [0, size)} в случайном порядке.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+
+        AVLTree<Long, Long> avl = new AVLTree<>();
+        for (Long key : KeyDistribution.RANDOM.keys(size, size, random)) {
+            avl.insert(key, key);
+        }
+
+        cached = capacity == 0 ? null : new CachedTree<>(avl, capacity);
+        tree = cached == null ? avl : cached;
+        keys = distribution.keys(size, LOOKUPS, random);
+    }
+
+    /**
+     * Попадания в кэш.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Cache {
+
+        /**
+         * Количество попаданий.
+         */
+        public long hits;
+
+        /**
+         * Количество поисков.
+         */
+        public long lookups;
+    }
+
+    /**
+     * Поиск одного ключа.
+     *
+     * @return Найденный элемент.
+     */
+    @Benchmark
+    public Node<Long, Long> find() {
+        return tree.find(next());
+    }
+
+    /**
+     * Поиск одного ключа с подсчетом попаданий в кэш.
+     *
+     * @param cache Попадания в кэш.
+     * @return Найденный элемент.
+     */
+    @Benchmark
+    public Node<Long, Long> hits(final Cache cache) {
+        long before = cached == null ? 0 : cached.getHits();
+        Node<Long, Long> node = tree.find(next());
+
+        cache.hits += (cached == null ? 0 : cached.getHits()) - before;
+        cache.lookups++;
+
+        return node;
+    }
+
+    /**
+     * Следующий ключ потока.
+     *
+     * @return Ключ.
+     */
+    private Long next() {
+        Long key = keys[cursor];
+        cursor = (cursor + 1) & (LOOKUPS - 1);
+
+        return key;
+    }
+}
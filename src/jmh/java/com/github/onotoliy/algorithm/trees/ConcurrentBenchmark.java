@@ -0,0 +1,190 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Масштабирование поиска по ядрам для потокобезопасных деревьев.
+ *
+ * <p>{@code find1}, {@code find4} и {@code findMax} выполняют только поиск
+ * в одном, четырех и во всех доступных потоках. Группа {@code mixed}
+ * выполняет поиск в семи потоках, пока восьмой вставляет и удаляет ключи.
+ * Базовая линия — {@link AVLTree} под глобальной блокировкой.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConcurrentBenchmark {
+
+    /**
+     * Общий индекс.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        /**
+         * Реализация индекса.
+         */
+        @Param({"CONCURRENT_AVL_TREE", "SYNCHRONIZED_AVL_TREE"})
+        public Implementation implementation;
+
+        /**
+         * Количество ключей.
+         */
+        @Param({"1000000"})
+        public int size;
+
+        /**
+         * Индекс.
+         */
+        private Index index;
+
+        /**
+         * Ключи индекса.
+         */
+        private Long[] keys;
+
+        /**
+         * Заполнение индекса ключами в случайном порядке.
+         */
+        @Setup(Level.Trial)
+        public void setUp() {
+            keys = KeyDistribution.RANDOM.keys(size, size, new Random(1));
+
+            index = implementation.create();
+            for (Long key : keys) {
+                index.insert(key, key);
+            }
+        }
+    }
+
+    /**
+     * Позиция потока в массиве ключей.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        /**
+         * Позиция.
+         */
+        private int position;
+
+        /**
+         * Ключ для записи, которого нет среди ключей индекса.
+         */
+        private long writeKey;
+
+        /**
+         * Случайная начальная позиция, чтобы потоки не шли в ногу.
+         *
+         * @param shared Общий индекс.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final Shared shared) {
+            position = ThreadLocalRandom.current().nextInt(shared.size);
+            writeKey = -1;
+        }
+
+        /**
+         * Следующий ключ.
+         *
+         * @param shared Общий индекс.
+         * @return Ключ.
+         */
+        Long next(final Shared shared) {
+            position = position + 1 == shared.size ? 0 : position + 1;
+
+            return shared.keys[position];
+        }
+    }
+
+    /**
+     * Поиск в одном потоке.
+     *
+     * @param shared Общий индекс.
+     * @param cursor Позиция потока.
+     * @return Найденное значение.
+     */
+    @Benchmark
+    @Threads(1)
+    public Long find1(final Shared shared, final Cursor cursor) {
+        return shared.index.find(cursor.next(shared));
+    }
+
+    /**
+     * Поиск в четырех потоках.
+     *
+     * @param shared Общий индекс.
+     * @param cursor Позиция потока.
+     * @return Найденное значение.
+     */
+    @Benchmark
+    @Threads(4)
+    public Long find4(final Shared shared, final Cursor cursor) {
+        return shared.index.find(cursor.next(shared));
+    }
+
+    /**
+     * Поиск во всех доступных потоках.
+     *
+     * @param shared Общий индекс.
+     * @param cursor Позиция потока.
+     * @return Найденное значение.
+     */
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Long findMax(final Shared shared, final Cursor cursor) {
+        return shared.index.find(cursor.next(shared));
+    }
+
+    /**
+     * Поиск при работающем писателе.
+     *
+     * @param shared Общий индекс.
+     * @param cursor Позиция потока.
+     * @return Найденное значение.
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(7)
+    public Long mixedFind(final Shared shared, final Cursor cursor) {
+        return shared.index.find(cursor.next(shared));
+    }
+
+    /**
+     * Вставка и удаление ключа, которого нет среди ключей индекса.
+     *
+     * @param shared Общий индекс.
+     * @param cursor Позиция потока.
+     */
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedWrite(final Shared shared, final Cursor cursor) {
+        Long key = cursor.writeKey--;
+
+        shared.index.insert(key, key);
+        shared.index.remove(key);
+    }
+}
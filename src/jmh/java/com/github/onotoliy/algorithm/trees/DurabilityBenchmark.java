@@ -0,0 +1,207 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замер пропускной способности записи в {@link DurableTree} при разных
+ * политиках сброса журнала.
+ *
+ * <p>Одна операция — удаление ключа и его повторная вставка, то есть две
+ * записи журнала и две фиксации. {@code write1} пишет в одном потоке,
+ * {@code write4} в четырех: при {@link SyncPolicy#GROUP} потоки делят
+ * сбросы на диск. Снимки записываются по мере роста журнала и входят в
+ * результат.
+ *
+ * <p>Дерево создается в каталоге {@code directory} относительно рабочего
+ * каталога. Системный временный каталог часто находится в памяти, где
+ * сброс на диск ничего не стоит, поэтому он не используется.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DurabilityBenchmark {
+
+    /**
+     * Общее дерево.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+
+        /**
+         * Политика сброса журнала.
+         */
+        @Param({"GROUP", "PERIODIC", "NONE"})
+        public SyncPolicy policy;
+
+        /**
+         * Количество ключей.
+         */
+        @Param({"100000"})
+        public int size;
+
+        /**
+         * Каталог для файлов дерева.
+         */
+        @Param({"build"})
+        public String directory;
+
+        /**
+         * Каталог дерева.
+         */
+        private Path home;
+
+        /**
+         * Дерево.
+         */
+        private DurableTree<Long, Long> tree;
+
+        /**
+         * Ключи дерева.
+         */
+        private Long[] keys;
+
+        /**
+         * Создание дерева с ключами {@code [0, size)}.
+         *
+         * @throws IOException Ошибка записи.
+         */
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            Path parent = Paths.get(directory);
+            Files.createDirectories(parent);
+            home = Files.createTempDirectory(parent, "durable");
+
+            keys = KeyDistribution.RANDOM.keys(size, size, new Random(1));
+
+            Map<Long, Long> entries = new TreeMap<>();
+            for (Long key : keys) {
+                entries.put(key, key);
+            }
+
+            tree = new DurableTree<>(home, new AVLTree<>(), Codecs.LONG,
+                Codecs.LONG, policy);
+            tree.insertAll(entries);
+            tree.checkpoint();
+        }
+
+        /**
+         * Закрытие дерева и удаление его файлов.
+         *
+         * @throws IOException Ошибка записи.
+         */
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            tree.close();
+
+            try (Stream<Path> files = Files.walk(home)) {
+                for (Path file : (Iterable<Path>) files
+                    .sorted(Comparator.reverseOrder())::iterator) {
+                    Files.delete(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Позиция потока в массиве ключей.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+
+        /**
+         * Позиция.
+         */
+        private int position;
+
+        /**
+         * Случайная начальная позиция, чтобы потоки не шли в ногу.
+         *
+         * @param shared Общее дерево.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final Shared shared) {
+            position = ThreadLocalRandom.current().nextInt(shared.size);
+        }
+
+        /**
+         * Следующий ключ.
+         *
+         * @param shared Общее дерево.
+         * @return Ключ.
+         */
+        Long next(final Shared shared) {
+            position = position + 1 == shared.size ? 0 : position + 1;
+
+            return shared.keys[position];
+        }
+    }
+
+    /**
+     * Запись в одном потоке.
+     *
+     * @param shared Общее дерево.
+     * @param cursor Позиция потока.
+     * @return Вставленный элемент.
+     */
+    @Benchmark
+    @Threads(1)
+    public Node<Long, Long> write1(final Shared shared, final Cursor cursor) {
+        return replace(shared, cursor.next(shared));
+    }
+
+    /**
+     * Запись в четырех потоках.
+     *
+     * @param shared Общее дерево.
+     * @param cursor Позиция потока.
+     * @return Вставленный элемент.
+     */
+    @Benchmark
+    @Threads(4)
+    public Node<Long, Long> write4(final Shared shared, final Cursor cursor) {
+        return replace(shared, cursor.next(shared));
+    }
+
+    /**
+     * Удаление ключа и его повторная вставка.
+     *
+     * @param shared Общее дерево.
+     * @param key Ключ.
+     * @return Вставленный элемент.
+     */
+    private static Node<Long, Long> replace(final Shared shared,
+                                            final Long key) {
+        shared.tree.remove(key);
+
+        return shared.tree.insert(key, key);
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замер памяти, которую занимает индекс. Ключи и значения создаются заранее
+ * и общие для всех индексов, поэтому счетчик {@code bytesPerKey} показывает
+ * только накладные расходы структуры на один ключ. Время замера включает
+ * сборку мусора и смысла не имеет.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class FootprintBenchmark {
+
+    /**
+     * Реализация индекса.
+     */
+    @Param({"AVL_TREE", "ARRAY_AVL_TREE", "B_PLUS_TREE", "TREE_MAP"})
+    public Implementation implementation;
+
+    /**
+     * Количество ключей.
+     */
+    @Param({"1000000"})
+    public int size;
+
+    /**
+     * Ключи в случайном порядке.
+     */
+    private Long[] keys;
+
+    /**
+     * Генерация ключей.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = KeyDistribution.RANDOM.keys(size, size, new Random(1));
+    }
+
+    /**
+     * Занятая память.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Footprint {
+
+        /**
+         * Байт на ключ.
+         */
+        public long bytesPerKey;
+    }
+
+    /**
+     * Построение индекса и замер памяти, которую он удерживает.
+     *
+     * @param footprint Занятая память.
+     * @return Индекс.
+     */
+    @Benchmark
+    public Index build(final Footprint footprint) {
+        long before = usedHeap();
+
+        Index index = implementation.create();
+        for (Long key : keys) {
+            index.insert(key, key);
+        }
+
+        footprint.bytesPerKey = (usedHeap() - before) / size;
+
+        return index;
+    }
+
+    /**
+     * Занятая память кучи после сборки мусора.
+     *
+     * @return Занятая память, байт.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        System.gc();
+
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замер вычисления высоты дерева. {@link java.util.TreeMap} высоту не
+ * предоставляет, поэтому в замере не участвует.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class HeightBenchmark {
+
+    /**
+     * Реализация дерева.
+     */
+    @Param({"AVL_TREE", "ARRAY_AVL_TREE", "BINARY_TREE", "LONG_AVL_TREE",
+        "OFF_HEAP_LONG_TREE"})
+    public Implementation implementation;
+
+    /**
+     * Количество ключей.
+     */
+    @Param({"1000", "10000", "100000", "1000000", "10000000"})
+    public int size;
+
+    /**
+     * Дерево.
+     */
+    private Index index;
+
+    /**
+     * Заполнение дерева ключами в случайном порядке.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Long[] keys = KeyDistribution.RANDOM.keys(size, size, new Random(1));
+
+        index = implementation.create();
+        for (Long key : keys) {
+            index.insert(key, key);
+        }
+    }
+
+    /**
+     * Вычисление высоты.
+     *
+     * @return Высота.
+     */
+    @Benchmark
+    public int height() {
+        return index.height();
+    }
+}
@@ -0,0 +1,306 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.TreeMap;
+
+/**
+ * Реализации индекса, участвующие в замерах.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public enum Implementation {
+
+    /**
+     * {@link AVLTree}.
+     */
+    AVL_TREE {
+        @Override
+        Index create() {
+            return new TreeIndex(new AVLTree<>());
+        }
+    },
+
+    /**
+     * {@link RedBlackTree}.
+     */
+    RED_BLACK_TREE {
+        @Override
+        Index create() {
+            return new TreeIndex(new RedBlackTree<>());
+        }
+    },
+
+    /**
+     * {@link ArrayAVLTree}.
+     */
+    ARRAY_AVL_TREE {
+        @Override
+        Index create() {
+            return new TreeIndex(new ArrayAVLTree<>());
+        }
+    },
+
+    /**
+     * {@link ConcurrentAVLTree}.
+     */
+    CONCURRENT_AVL_TREE {
+        @Override
+        Index create() {
+            return new TreeIndex(new ConcurrentAVLTree<>());
+        }
+    },
+
+    /**
+     * {@link AVLTree} под глобальной блокировкой.
+     */
+    SYNCHRONIZED_AVL_TREE {
+        @Override
+        Index create() {
+            return new SynchronizedIndex(new TreeIndex(new AVLTree<>()));
+        }
+    },
+
+    /**
+     * {@link BinaryTree}. На последовательных ключах вырождается в список,
+     * поэтому для больших размеров имеет смысл только со случайными ключами.
+     */
+    BINARY_TREE {
+        @Override
+        Index create() {
+            return new TreeIndex(new BinaryTree<>());
+        }
+    },
+
+    /**
+     * {@link LongAVLTree}.
+     */
+    LONG_AVL_TREE {
+        @Override
+        Index create() {
+            return new LongTreeIndex(new LongAVLTree<>());
+        }
+    },
+
+    /**
+     * {@link OffHeapLongTree} со значениями типа {@code long}.
+     */
+    OFF_HEAP_LONG_TREE {
+        @Override
+        Index create() {
+            return new OffHeapIndex();
+        }
+    },
+
+    /**
+     * {@link BPlusTree} порядка 64.
+     */
+    B_PLUS_TREE {
+        @Override
+        Index create() {
+            return new TreeIndex(new BPlusTree<>());
+        }
+    },
+
+    /**
+     * {@link TreeMap}, базовая линия.
+     */
+    TREE_MAP {
+        @Override
+        Index create() {
+            return new TreeMapIndex();
+        }
+    };
+
+    /**
+     * Создает пустой индекс.
+     *
+     * @return Индекс.
+     */
+    abstract Index create();
+
+    /**
+     * Индекс поверх {@link Tree}.
+     */
+    private static final class TreeIndex implements Index {
+
+        /**
+         * Дерево.
+         */
+        private final Tree<Long, Long> tree;
+
+        /**
+         * Конструктор.
+         *
+         * @param aTree Дерево.
+         */
+        private TreeIndex(final Tree<Long, Long> aTree) {
+            this.tree = aTree;
+        }
+
+        @Override
+        public Long find(final Long key) {
+            Node<Long, Long> node = tree.find(key);
+
+            return node == null ? null : node.getValue();
+        }
+
+        @Override
+        public void insert(final Long key, final Long value) {
+            tree.insert(key, value);
+        }
+
+        @Override
+        public void remove(final Long key) {
+            tree.remove(key);
+        }
+
+        @Override
+        public int height() {
+            return tree.height();
+        }
+    }
+
+    /**
+     * Индекс поверх {@link LongTree}.
+     */
+    private static final class LongTreeIndex implements Index {
+
+        /**
+         * Дерево.
+         */
+        private final LongTree<Long> tree;
+
+        /**
+         * Конструктор.
+         *
+         * @param aTree Дерево.
+         */
+        private LongTreeIndex(final LongTree<Long> aTree) {
+            this.tree = aTree;
+        }
+
+        @Override
+        public Long find(final Long key) {
+            return tree.find(key);
+        }
+
+        @Override
+        public void insert(final Long key, final Long value) {
+            tree.insert(key, value);
+        }
+
+        @Override
+        public void remove(final Long key) {
+            tree.remove(key);
+        }
+
+        @Override
+        public int height() {
+            return tree.height();
+        }
+    }
+
+    /**
+     * Индекс поверх {@link OffHeapLongTree}.
+     */
+    private static final class OffHeapIndex implements Index {
+
+        /**
+         * Дерево.
+         */
+        private final OffHeapLongTree tree = new OffHeapLongTree(Long.BYTES);
+
+        @Override
+        public Long find(final Long key) {
+            long value = tree.findLong(key, Long.MIN_VALUE);
+
+            return value == Long.MIN_VALUE ? null : value;
+        }
+
+        @Override
+        public void insert(final Long key, final Long value) {
+            tree.insertLong(key, value);
+        }
+
+        @Override
+        public void remove(final Long key) {
+            tree.removeLong(key, Long.MIN_VALUE);
+        }
+
+        @Override
+        public int height() {
+            return tree.height();
+        }
+    }
+
+    /**
+     * Индекс, все операции которого выполняются под одной блокировкой.
+     */
+    private static final class SynchronizedIndex implements Index {
+
+        /**
+         * Индекс.
+         */
+        private final Index index;
+
+        /**
+         * Конструктор.
+         *
+         * @param aIndex Индекс.
+         */
+        private SynchronizedIndex(final Index aIndex) {
+            this.index = aIndex;
+        }
+
+        @Override
+        public synchronized Long find(final Long key) {
+            return index.find(key);
+        }
+
+        @Override
+        public synchronized void insert(final Long key, final Long value) {
+            index.insert(key, value);
+        }
+
+        @Override
+        public synchronized void remove(final Long key) {
+            index.remove(key);
+        }
+
+        @Override
+        public synchronized int height() {
+            return index.height();
+        }
+    }
+
+    /**
+     * Индекс поверх {@link TreeMap}.
+     */
+    private static final class TreeMapIndex implements Index {
+
+        /**
+         * Красно-черное дерево JDK.
+         */
+        private final TreeMap<Long, Long> map = new TreeMap<>();
+
+        @Override
+        public Long find(final Long key) {
+            return map.get(key);
+        }
+
+        @Override
+        public void insert(final Long key, final Long value) {
+            map.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void remove(final Long key) {
+            map.remove(key);
+        }
+
+        @Override
+        public int height() {
+            throw new UnsupportedOperationException(
+                "TreeMap does not expose its height");
+        }
+    }
+}
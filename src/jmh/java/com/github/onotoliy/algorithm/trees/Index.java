@@ -0,0 +1,40 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Упорядоченный индекс, над которым выполняются замеры. Позволяет сравнивать
+ * реализации {@link Tree} с {@link java.util.TreeMap} одним и тем же кодом.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+interface Index {
+
+    /**
+     * Поиск значения по ключу.
+     *
+     * @param key Ключ.
+     * @return Значение или {@code null}.
+     */
+    Long find(Long key);
+
+    /**
+     * Вставка элемента.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     */
+    void insert(Long key, Long value);
+
+    /**
+     * Удаление элемента.
+     *
+     * @param key Ключ.
+     */
+    void remove(Long key);
+
+    /**
+     * Вычисляет высоту индекса.
+     *
+     * @return Высота.
+     */
+    int height();
+}
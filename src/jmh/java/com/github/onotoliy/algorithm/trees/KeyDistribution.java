@@ -0,0 +1,148 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+
+/**
+ * Распределение ключей в потоке операций. Ключи лежат в диапазоне
+ * {@code [0, size)}.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public enum KeyDistribution {
+
+    /**
+     * Ключи по возрастанию.
+     */
+    SEQUENTIAL {
+        @Override
+        Long[] keys(final int size, final int count, final Random random) {
+            Long[] keys = new Long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = (long) (i % size);
+            }
+
+            return keys;
+        }
+    },
+
+    /**
+     * Случайная перестановка ключей. Если операций больше, чем ключей,
+     * перестановка повторяется.
+     */
+    RANDOM {
+        @Override
+        Long[] keys(final int size, final int count, final Random random) {
+            int[] permutation = permutation(size, random);
+
+            Long[] keys = new Long[count];
+            for (int i = 0; i < count; i++) {
+                keys[i] = (long) permutation[i % size];
+            }
+
+            return keys;
+        }
+    },
+
+    /**
+     * Распределение Ципфа с показателем {@link #ZIPF_EXPONENT}. Популярные
+     * ранги разбросаны по диапазону ключей случайной перестановкой, чтобы
+     * горячие ключи не были соседями.
+     */
+    ZIPF {
+        @Override
+        Long[] keys(final int size, final int count, final Random random) {
+            int[] permutation = permutation(size, random);
+            double power = 1 - ZIPF_EXPONENT;
+            double scale = Math.pow(size, power) - 1;
+
+            Long[] keys = new Long[count];
+            for (int i = 0; i < count; i++) {
+                double rank = Math.pow(scale * random.nextDouble() + 1,
+                                       1 / power);
+                int index = Math.min((int) rank - 1, size - 1);
+
+                keys[i] = (long) permutation[index];
+            }
+
+            return keys;
+        }
+    },
+
+    /**
+     * Горячее множество: {@link #HOT_REQUESTS} процентов запросов
+     * равномерно приходятся на {@link #HOT_KEYS} процент ключей, остальные
+     * равномерно на все ключи. Горячие ключи разбросаны по диапазону
+     * случайной перестановкой.
+     */
+    HOTSPOT {
+        @Override
+        Long[] keys(final int size, final int count, final Random random) {
+            int[] permutation = permutation(size, random);
+            int hot = Math.max(1, size * HOT_KEYS / PERCENT);
+
+            Long[] keys = new Long[count];
+            for (int i = 0; i < count; i++) {
+                int index = random.nextInt(PERCENT) < HOT_REQUESTS
+                    ? random.nextInt(hot)
+                    : random.nextInt(size);
+
+                keys[i] = (long) permutation[index];
+            }
+
+            return keys;
+        }
+    };
+
+    /**
+     * Показатель распределения Ципфа.
+     */
+    private static final double ZIPF_EXPONENT = 0.99;
+
+    /**
+     * Сто процентов.
+     */
+    private static final int PERCENT = 100;
+
+    /**
+     * Доля горячих ключей, процентов.
+     */
+    private static final int HOT_KEYS = 1;
+
+    /**
+     * Доля запросов к горячим ключам, процентов.
+     */
+    private static final int HOT_REQUESTS = 90;
+
+    /**
+     * Формирует поток ключей.
+     *
+     * @param size Количество различных ключей.
+     * @param count Длина потока.
+     * @param random Генератор случайных чисел.
+     * @return Поток ключей.
+     */
+    abstract Long[] keys(int size, int count, Random random);
+
+    /**
+     * Случайная перестановка чисел {@code [0, size)}.
+     *
+     * @param size Размер.
+     * @param random Генератор случайных чисел.
+     * @return Перестановка.
+     */
+    private static int[] permutation(final int size, final Random random) {
+        int[] permutation = new int[size];
+        for (int i = 0; i < size; i++) {
+            permutation[i] = i;
+        }
+
+        for (int i = size - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = permutation[i];
+            permutation[i] = permutation[j];
+            permutation[j] = swap;
+        }
+
+        return permutation;
+    }
+}
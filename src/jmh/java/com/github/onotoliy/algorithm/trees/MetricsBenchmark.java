@@ -0,0 +1,201 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замер стоимости метрик {@link TreeMetrics}.
+ *
+ * <p>{@code DISABLED} — дерево без слушателя, {@code ENABLED} — дерево с
+ * подключенными метриками. {@code find} измеряет один поиск, {@code replace}
+ * удаление случайного ключа и его повторную вставку. Результаты
+ * {@code DISABLED} совпадают с {@link TreeBenchmark} и {@link WriteBenchmark}
+ * на тех же размерах, поэтому сравнение этих замеров до и после появления
+ * слушателя показывает цену выключенных метрик, а сравнение {@code DISABLED}
+ * с {@code ENABLED} — цену включенных.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class MetricsBenchmark {
+
+    /**
+     * Длина потока ключей для поиска.
+     */
+    private static final int LOOKUPS = 1 << 20;
+
+    /**
+     * Зерно генератора случайных чисел.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Реализация дерева.
+     */
+    @Param({"AVL_TREE", "RED_BLACK_TREE"})
+    public Structure structure;
+
+    /**
+     * Сбор метрик.
+     */
+    @Param({"DISABLED", "ENABLED"})
+    public Metrics metrics;
+
+    /**
+     * Количество ключей.
+     */
+    @Param({"1000", "1000000"})
+    public int size;
+
+    /**
+     * Дерево.
+     */
+    private BinaryTree<Long, Long> tree;
+
+    /**
+     * Поток ключей.
+     */
+    private Long[] keys;
+
+    /**
+     * Позиция в потоке ключей.
+     */
+    private int cursor;
+
+    /**
+     * Заполнение дерева ключами {@code [0, size)} в случайном порядке.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Random random = new Random(SEED);
+
+        tree = structure.create();
+        for (Long key : KeyDistribution.RANDOM.keys(size, size, random)) {
+            tree.insert(key, key);
+        }
+
+        tree.setListener(metrics.listener());
+        keys = KeyDistribution.RANDOM.keys(size, LOOKUPS, random);
+        cursor = 0;
+    }
+
+    /**
+     * Поиск одного ключа.
+     *
+     * @return Найденный элемент.
+     */
+    @Benchmark
+    public Node<Long, Long> find() {
+        return tree.find(next());
+    }
+
+    /**
+     * Удаление случайного ключа и его повторная вставка.
+     *
+     * @return Вставленный элемент.
+     */
+    @Benchmark
+    public Node<Long, Long> replace() {
+        Long key = next();
+
+        tree.remove(key);
+
+        return tree.insert(key, key);
+    }
+
+    /**
+     * Следующий ключ потока.
+     *
+     * @return Ключ.
+     */
+    private Long next() {
+        Long key = keys[cursor];
+        cursor = (cursor + 1) & (LOOKUPS - 1);
+
+        return key;
+    }
+
+    /**
+     * Деревья, участвующие в замере.
+     */
+    public enum Structure {
+
+        /**
+         * {@link AVLTree}.
+         */
+        AVL_TREE {
+            @Override
+            BinaryTree<Long, Long> create() {
+                return new AVLTree<>();
+            }
+        },
+
+        /**
+         * {@link RedBlackTree}.
+         */
+        RED_BLACK_TREE {
+            @Override
+            BinaryTree<Long, Long> create() {
+                return new RedBlackTree<>();
+            }
+        };
+
+        /**
+         * Создает пустое дерево.
+         *
+         * @return Дерево.
+         */
+        abstract BinaryTree<Long, Long> create();
+    }
+
+    /**
+     * Режимы сбора метрик.
+     */
+    public enum Metrics {
+
+        /**
+         * Слушатель не подключен.
+         */
+        DISABLED {
+            @Override
+            TreeListener listener() {
+                return null;
+            }
+        },
+
+        /**
+         * Подключен {@link TreeMetrics}.
+         */
+        ENABLED {
+            @Override
+            TreeListener listener() {
+                return new TreeMetrics();
+            }
+        };
+
+        /**
+         * Создает слушателя.
+         *
+         * @return Слушатель или {@code null}.
+         */
+        abstract TreeListener listener();
+    }
+}
@@ -0,0 +1,77 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Сравнение последовательной и параллельной свертки всего дерева. Дерево
+ * загружается методом {@link BinaryTree#load}, поэтому идеально
+ * сбалансировано.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class ParallelBenchmark {
+
+    /**
+     * Количество ключей.
+     */
+    @Param({"1000000", "10000000"})
+    public int size;
+
+    /**
+     * Дерево.
+     */
+    private AVLTree<Long, Long> tree;
+
+    /**
+     * Загрузка дерева.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Long[] keys = new Long[size];
+        for (int i = 0; i < size; i++) {
+            keys[i] = (long) i;
+        }
+
+        tree = new AVLTree<>();
+        tree.load(keys, keys);
+    }
+
+    /**
+     * Сумма значений в одном потоке.
+     *
+     * @return Сумма значений.
+     */
+    @Benchmark
+    public long sequential() {
+        return tree.stream().mapToLong(Node::getValue).sum();
+    }
+
+    /**
+     * Сумма значений в общем пуле fork/join.
+     *
+     * @return Сумма значений.
+     */
+    @Benchmark
+    public long parallel() {
+        return tree.stream().parallel().mapToLong(Node::getValue).sum();
+    }
+}
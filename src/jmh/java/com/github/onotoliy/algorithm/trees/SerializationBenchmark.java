@@ -0,0 +1,127 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замер записи и чтения дампа {@link TreeSerializer}.
+ *
+ * <p>{@code write} записывает дерево в буфер в памяти.
+ * {@code load} собирает {@link AVLTree} из дампа за один линейный проход,
+ * {@code insert} читает тот же дамп потоком и вставляет ключи по одному, как
+ * пришлось бы без загрузки.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SerializationBenchmark {
+
+    /**
+     * Зерно генератора случайных чисел.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Количество ключей.
+     */
+    @Param({"10000", "1000000"})
+    public int size;
+
+    /**
+     * Запись и чтение дампа.
+     */
+    private final TreeSerializer<Long, Long> serializer =
+        new TreeSerializer<>(Codecs.LONG, Codecs.LONG);
+
+    /**
+     * Дерево.
+     */
+    private AVLTree<Long, Long> tree;
+
+    /**
+     * Дамп дерева.
+     */
+    private byte[] dump;
+
+    /**
+     * Буфер записи.
+     */
+    private final ByteArrayOutputStream sink = new ByteArrayOutputStream();
+
+    /**
+     * Заполнение дерева ключами {@code [0, size)} в случайном порядке и
+     * запись дампа.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        tree = new AVLTree<>();
+        for (Long key : KeyDistribution.RANDOM.keys(size, size,
+            new Random(SEED))) {
+            tree.insert(key, key);
+        }
+
+        serializer.write(tree, sink);
+        dump = sink.toByteArray();
+    }
+
+    /**
+     * Запись дампа.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    @Benchmark
+    public void write() throws IOException {
+        sink.reset();
+        serializer.write(tree, sink);
+    }
+
+    /**
+     * Сборка дерева из дампа.
+     *
+     * @return Дерево.
+     * @throws IOException Ошибка чтения.
+     */
+    @Benchmark
+    public AVLTree<Long, Long> load() throws IOException {
+        return serializer.load(new ByteArrayInputStream(dump),
+            new AVLTree<>());
+    }
+
+    /**
+     * Вставка элементов дампа по одному.
+     *
+     * @return Дерево.
+     * @throws IOException Ошибка чтения.
+     */
+    @Benchmark
+    public AVLTree<Long, Long> insert() throws IOException {
+        AVLTree<Long, Long> loaded = new AVLTree<>();
+        serializer.read(new ByteArrayInputStream(dump))
+            .forEach(entry -> loaded.insert(entry.getKey(), entry.getValue()));
+
+        return loaded;
+    }
+}
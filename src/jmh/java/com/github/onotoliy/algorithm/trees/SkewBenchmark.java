@@ -0,0 +1,265 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Comparator;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замер поиска при неравномерном распределении запросов.
+ *
+ * <p>{@code find} измеряет среднее время поиска. {@code depth} выполняет те
+ * же запросы и считает сравнения ключей: все структуры сравнивают ключ с
+ * одним элементом на каждом уровне спуска, поэтому отношение счетчиков
+ * {@code comparisons / lookups} равно средней глубине спуска. Счетчик
+ * сравнений используется во всех замерах и у всех структур, поэтому его
+ * стоимость входит в результаты одинаково.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+public class SkewBenchmark {
+
+    /**
+     * Длина потока ключей для поиска.
+     */
+    private static final int LOOKUPS = 1 << 20;
+
+    /**
+     * Зерно генератора случайных чисел.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Реализация индекса.
+     */
+    @Param({"AVL_TREE", "RED_BLACK_TREE", "SPLAY_TREE", "TREE_MAP"})
+    public Structure structure;
+
+    /**
+     * Количество ключей.
+     */
+    @Param({"100000", "1000000"})
+    public int size;
+
+    /**
+     * Распределение запросов.
+     */
+    @Param({"RANDOM", "ZIPF", "HOTSPOT"})
+    public KeyDistribution distribution;
+
+    /**
+     * Порядок ключей, считающий сравнения.
+     */
+    private CountingComparator comparator;
+
+    /**
+     * Поиск значения по ключу.
+     */
+    private Function<Long, Object> index;
+
+    /**
+     * Поток ключей.
+     */
+    private Long[] keys;
+
+    /**
+     * Позиция в потоке ключей.
+     */
+    private int cursor;
+
+    /**
+     * Заполнение индекса ключами {@code [0, size)} в случайном порядке.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+
+        comparator = new CountingComparator();
+        index = structure.create(comparator,
+            KeyDistribution.RANDOM.keys(size, size, random));
+        keys = distribution.keys(size, LOOKUPS, random);
+    }
+
+    /**
+     * Сравнения ключей.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Descent {
+
+        /**
+         * Количество сравнений.
+         */
+        public long comparisons;
+
+        /**
+         * Количество поисков.
+         */
+        public long lookups;
+    }
+
+    /**
+     * Поиск одного ключа.
+     *
+     * @return Найденное значение.
+     */
+    @Benchmark
+    public Object find() {
+        return index.apply(next());
+    }
+
+    /**
+     * Поиск одного ключа с подсчетом сравнений.
+     *
+     * @param descent Сравнения ключей.
+     * @return Найденное значение.
+     */
+    @Benchmark
+    public Object depth(final Descent descent) {
+        long before = comparator.count;
+        Object value = index.apply(next());
+
+        descent.comparisons += comparator.count - before;
+        descent.lookups++;
+
+        return value;
+    }
+
+    /**
+     * Следующий ключ потока.
+     *
+     * @return Ключ.
+     */
+    private Long next() {
+        Long key = keys[cursor];
+        cursor = (cursor + 1) & (LOOKUPS - 1);
+
+        return key;
+    }
+
+    /**
+     * Структуры, участвующие в замере. Все принимают порядок ключей, поэтому
+     * сравнения считаются одинаково.
+     */
+    public enum Structure {
+
+        /**
+         * {@link AVLTree}.
+         */
+        AVL_TREE {
+            @Override
+            Function<Long, Object> create(final Comparator<Long> order,
+                                          final Long[] keys) {
+                return lookup(new AVLTree<>(order), keys);
+            }
+        },
+
+        /**
+         * {@link RedBlackTree}.
+         */
+        RED_BLACK_TREE {
+            @Override
+            Function<Long, Object> create(final Comparator<Long> order,
+                                          final Long[] keys) {
+                return lookup(new RedBlackTree<>(order), keys);
+            }
+        },
+
+        /**
+         * {@link SplayTree}.
+         */
+        SPLAY_TREE {
+            @Override
+            Function<Long, Object> create(final Comparator<Long> order,
+                                          final Long[] keys) {
+                return lookup(new SplayTree<>(order), keys);
+            }
+        },
+
+        /**
+         * {@link TreeMap}, базовая линия.
+         */
+        TREE_MAP {
+            @Override
+            Function<Long, Object> create(final Comparator<Long> order,
+                                          final Long[] keys) {
+                TreeMap<Long, Long> map = new TreeMap<>(order);
+                for (Long key : keys) {
+                    map.put(key, key);
+                }
+
+                return map::get;
+            }
+        };
+
+        /**
+         * Создает и заполняет индекс.
+         *
+         * @param order Порядок ключей.
+         * @param keys Ключи.
+         * @return Поиск значения по ключу.
+         */
+        abstract Function<Long, Object> create(Comparator<Long> order,
+                                               Long[] keys);
+
+        /**
+         * Заполняет дерево.
+         *
+         * @param tree Дерево.
+         * @param keys Ключи.
+         * @return Поиск значения по ключу.
+         */
+        private static Function<Long, Object> lookup(
+            final Tree<Long, Long> tree, final Long[] keys) {
+            for (Long key : keys) {
+                tree.insert(key, key);
+            }
+
+            return key -> {
+                Node<Long, Long> node = tree.find(key);
+
+                return node == null ? null : node.getValue();
+            };
+        }
+    }
+
+    /**
+     * Естественный порядок ключей со счетчиком сравнений.
+     */
+    private static final class CountingComparator
+        implements Comparator<Long> {
+
+        /**
+         * Количество сравнений.
+         */
+        private long count;
+
+        @Override
+        public int compare(final Long a, final Long b) {
+            count++;
+
+            return a.compareTo(b);
+        }
+    }
+}
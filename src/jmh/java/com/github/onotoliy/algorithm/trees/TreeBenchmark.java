@@ -0,0 +1,248 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замеры поиска, вставки и удаления.
+ *
+ * <p>{@code find} измеряет среднее время одного поиска в заполненном индексе.
+ * {@code insert} и {@code remove} измеряют время полного прохода по потоку из
+ * {@code size} ключей: заполнение пустого индекса и опустошение заполненного.
+ * Время на один ключ равно результату, деленному на {@code size}.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class TreeBenchmark {
+
+    /**
+     * Длина потока ключей для поиска.
+     */
+    private static final int LOOKUPS = 1 << 20;
+
+    /**
+     * Зерно генератора случайных чисел.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Параметры замера.
+     */
+    @State(Scope.Benchmark)
+    public static class Params {
+
+        /**
+         * Реализация индекса.
+         */
+        @Param({"AVL_TREE", "RED_BLACK_TREE", "ARRAY_AVL_TREE",
+            "LONG_AVL_TREE", "OFF_HEAP_LONG_TREE", "B_PLUS_TREE", "TREE_MAP"})
+        public Implementation implementation;
+
+        /**
+         * Количество ключей.
+         */
+        @Param({"1000", "10000", "100000", "1000000", "10000000"})
+        public int size;
+
+        /**
+         * Распределение ключей.
+         */
+        @Param({"SEQUENTIAL", "RANDOM", "ZIPF"})
+        public KeyDistribution distribution;
+
+        /**
+         * Заполняет индекс всеми ключами {@code [0, size)}. Последовательное
+         * распределение заполняет индекс по возрастанию, остальные в
+         * случайном порядке.
+         *
+         * @param random Генератор случайных чисел.
+         * @return Индекс.
+         */
+        Index load(final Random random) {
+            KeyDistribution order = distribution == KeyDistribution.SEQUENTIAL
+                ? KeyDistribution.SEQUENTIAL
+                : KeyDistribution.RANDOM;
+
+            Index index = implementation.create();
+            for (Long key : order.keys(size, size, random)) {
+                index.insert(key, key);
+            }
+
+            return index;
+        }
+    }
+
+    /**
+     * Заполненный индекс и поток ключей для поиска.
+     */
+    @State(Scope.Thread)
+    public static class Lookup {
+
+        /**
+         * Индекс.
+         */
+        private Index index;
+
+        /**
+         * Поток ключей.
+         */
+        private Long[] keys;
+
+        /**
+         * Позиция в потоке ключей.
+         */
+        private int cursor;
+
+        /**
+         * Подготовка.
+         *
+         * @param params Параметры замера.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final Params params) {
+            Random random = new Random(SEED);
+
+            index = params.load(random);
+            keys = params.distribution.keys(params.size, LOOKUPS, random);
+        }
+
+        /**
+         * Следующий ключ потока.
+         *
+         * @return Ключ.
+         */
+        Long next() {
+            Long key = keys[cursor];
+            cursor = (cursor + 1) & (LOOKUPS - 1);
+
+            return key;
+        }
+    }
+
+    /**
+     * Поток ключей для вставки.
+     */
+    @State(Scope.Thread)
+    public static class Insert {
+
+        /**
+         * Поток ключей.
+         */
+        private Long[] keys;
+
+        /**
+         * Подготовка.
+         *
+         * @param params Параметры замера.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final Params params) {
+            keys = params.distribution.keys(params.size, params.size,
+                                            new Random(SEED));
+        }
+    }
+
+    /**
+     * Заполненный индекс и поток ключей для удаления. Индекс заполняется
+     * заново перед каждым вызовом.
+     */
+    @State(Scope.Thread)
+    public static class Remove {
+
+        /**
+         * Индекс.
+         */
+        private Index index;
+
+        /**
+         * Поток ключей.
+         */
+        private Long[] keys;
+
+        /**
+         * Подготовка потока ключей.
+         *
+         * @param params Параметры замера.
+         */
+        @Setup(Level.Trial)
+        public void setUp(final Params params) {
+            keys = params.distribution.keys(params.size, params.size,
+                                            new Random(SEED));
+        }
+
+        /**
+         * Заполнение индекса.
+         *
+         * @param params Параметры замера.
+         */
+        @Setup(Level.Invocation)
+        public void fill(final Params params) {
+            index = params.load(new Random(SEED + 1));
+        }
+    }
+
+    /**
+     * Поиск одного ключа.
+     *
+     * @param state Индекс и поток ключей.
+     * @return Найденное значение.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Long find(final Lookup state) {
+        return state.index.find(state.next());
+    }
+
+    /**
+     * Заполнение пустого индекса.
+     *
+     * @param params Параметры замера.
+     * @param state Поток ключей.
+     * @return Индекс.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Index insert(final Params params, final Insert state) {
+        Index index = params.implementation.create();
+        for (Long key : state.keys) {
+            index.insert(key, key);
+        }
+
+        return index;
+    }
+
+    /**
+     * Опустошение заполненного индекса.
+     *
+     * @param state Индекс и поток ключей.
+     * @return Индекс.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Index remove(final Remove state) {
+        for (Long key : state.keys) {
+            state.index.remove(key);
+        }
+
+        return state.index;
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Замер пропускной способности записи в заполненный индекс постоянного
+ * размера.
+ *
+ * <p>Одна операция — удаление ключа и вставка ключа, поэтому каждая
+ * операция проходит балансировку дважды. {@code replace} удаляет случайный
+ * ключ и сразу вставляет его обратно. {@code slide} сдвигает окно ключей:
+ * удаляет наименьший ключ и вставляет ключ больше наибольшего, что
+ * нагружает балансировку на обеих границах дерева.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+@Fork(value = 1, jvmArgsAppend = {"-Xms6g", "-Xmx6g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class WriteBenchmark {
+
+    /**
+     * Зерно генератора случайных чисел.
+     */
+    private static final long SEED = 42;
+
+    /**
+     * Реализация индекса.
+     */
+    @Param({"AVL_TREE", "RED_BLACK_TREE", "TREE_MAP"})
+    public Implementation implementation;
+
+    /**
+     * Количество ключей.
+     */
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    /**
+     * Индекс.
+     */
+    private Index index;
+
+    /**
+     * Случайная перестановка ключей индекса.
+     */
+    private Long[] keys;
+
+    /**
+     * Позиция в перестановке.
+     */
+    private int cursor;
+
+    /**
+     * Наименьший ключ окна.
+     */
+    private long low;
+
+    /**
+     * Заполнение индекса ключами {@code [0, size)} в случайном порядке.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        keys = KeyDistribution.RANDOM.keys(size, size, new Random(SEED));
+        cursor = 0;
+        low = 0;
+
+        index = implementation.create();
+        for (Long key : keys) {
+            index.insert(key, key);
+        }
+    }
+
+    /**
+     * Удаление случайного ключа и его повторная вставка.
+     *
+     * @return Индекс.
+     */
+    @Benchmark
+    public Index replace() {
+        Long key = keys[cursor];
+        cursor = cursor + 1 == size ? 0 : cursor + 1;
+
+        index.remove(key);
+        index.insert(key, key);
+
+        return index;
+    }
+
+    /**
+     * Сдвиг окна ключей на один ключ.
+     *
+     * @return Индекс.
+     */
+    @Benchmark
+    public Index slide() {
+        index.remove(low);
+        index.insert(low + size, low);
+        low++;
+
+        return index;
+    }
+}
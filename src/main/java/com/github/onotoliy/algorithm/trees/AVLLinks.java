@@ -0,0 +1,382 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Arrays;
+
+/**
+ * Структура AVL дерева, хранимая в массивах.
+ *
+ * <p>Элемент дерева — номер ячейки. Для каждой ячейки хранятся номера левого
+ * и правого поддерева и высота поддерева. Ключи и значения хранит владелец
+ * структуры в собственных массивах с теми же номерами ячеек. Ячейка
+ * {@link #NIL} не используется и обозначает отсутствие элемента.
+ * Освобожденные ячейки связываются в список через массив левых поддеревьев и
+ * переиспользуются.
+ *
+ * <p>Поиск места вставки или удаления выполняет владелец, записывая пройденные
+ * ячейки в путь через {@link #push(int)}. Структура по пути присоединяет или
+ * отсоединяет элемент и восстанавливает баланс.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+final class AVLLinks {
+
+    /**
+     * Отсутствующий элемент.
+     */
+    static final int NIL = 0;
+
+    /**
+     * Начальная емкость.
+     */
+    static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Максимальная высота AVL дерева.
+     */
+    private static final int MAX_HEIGHT = 64;
+
+    /**
+     * Левые поддеревья. Для свободных ячеек — следующая свободная ячейка.
+     */
+    private int[] left;
+
+    /**
+     * Правые поддеревья.
+     */
+    private int[] right;
+
+    /**
+     * Высоты поддеревьев.
+     */
+    private byte[] height;
+
+    /**
+     * Корень дерева.
+     */
+    private int root = NIL;
+
+    /**
+     * Первая свободная ячейка.
+     */
+    private int free = NIL;
+
+    /**
+     * Первая ни разу не использованная ячейка.
+     */
+    private int next = NIL + 1;
+
+    /**
+     * Путь от корня до текущего элемента.
+     */
+    private final int[] path = new int[MAX_HEIGHT];
+
+    /**
+     * Длина пути.
+     */
+    private int depth;
+
+    /**
+     * Конструктор.
+     *
+     * @param capacity Начальная емкость.
+     */
+    AVLLinks(final int capacity) {
+        this.left = new int[Math.max(capacity, 2)];
+        this.right = new int[left.length];
+        this.height = new byte[left.length];
+    }
+
+    /**
+     * Возвращает емкость. Массивы владельца должны быть не меньше.
+     *
+     * @return Емкость.
+     */
+    int capacity() {
+        return left.length;
+    }
+
+    /**
+     * Возвращает корень дерева.
+     *
+     * @return Корень дерева.
+     */
+    int root() {
+        return root;
+    }
+
+    /**
+     * Возвращает левое поддерево.
+     *
+     * @param node Элемент.
+     * @return Левое поддерево.
+     */
+    int left(final int node) {
+        return left[node];
+    }
+
+    /**
+     * Возвращает правое поддерево.
+     *
+     * @param node Элемент.
+     * @return Правое поддерево.
+     */
+    int right(final int node) {
+        return right[node];
+    }
+
+    /**
+     * Возвращает высоту поддерева.
+     *
+     * @param node Элемент.
+     * @return Высота поддерева, для {@link #NIL} — 0.
+     */
+    int height(final int node) {
+        return height[node];
+    }
+
+    /**
+     * Очищает путь.
+     */
+    void reset() {
+        depth = 0;
+    }
+
+    /**
+     * Добавляет элемент в путь.
+     *
+     * @param node Элемент.
+     */
+    void push(final int node) {
+        path[depth++] = node;
+    }
+
+    /**
+     * Выделяет ячейку для нового элемента. Если емкость исчерпана, массивы
+     * увеличиваются вдвое, и владелец должен увеличить свои.
+     *
+     * @return Номер ячейки.
+     */
+    int allocate() {
+        int node = free;
+
+        if (node == NIL) {
+            if (next == left.length) {
+                int capacity = left.length * 2;
+
+                left = Arrays.copyOf(left, capacity);
+                right = Arrays.copyOf(right, capacity);
+                height = Arrays.copyOf(height, capacity);
+            }
+
+            node = next++;
+        } else {
+            free = left[node];
+        }
+
+        left[node] = NIL;
+        right[node] = NIL;
+        height[node] = 1;
+
+        return node;
+    }
+
+    /**
+     * Присоединяет новый элемент к последнему элементу пути и восстанавливает
+     * баланс. Если путь пуст, элемент становится корнем.
+     *
+     * @param node Новый элемент.
+     * @param toLeft Присоединить левым поддеревом.
+     */
+    void attach(final int node, final boolean toLeft) {
+        if (depth == 0) {
+            root = node;
+        } else if (toLeft) {
+            left[path[depth - 1]] = node;
+        } else {
+            right[path[depth - 1]] = node;
+        }
+
+        rebalance();
+    }
+
+    /**
+     * Отсоединяет последний элемент пути, у которого не больше одного
+     * потомка, освобождает его ячейку и восстанавливает баланс.
+     *
+     * @return Освобожденная ячейка.
+     */
+    int detach() {
+        int node = path[--depth];
+        int child = left[node] == NIL ? right[node] : left[node];
+
+        replace(node, child, depth == 0 ? NIL : path[depth - 1]);
+
+        left[node] = free;
+        right[node] = NIL;
+        height[node] = 0;
+        free = node;
+
+        rebalance();
+
+        return node;
+    }
+
+    /**
+     * Проверяет согласованность дерева: сохраненные высоты совпадают с
+     * фактическими, а баланс каждого поддерева лежит в диапазоне [-1, 1].
+     *
+     * @throws IllegalStateException Нарушен инвариант AVL дерева.
+     */
+    void checkConsistency() {
+        checkConsistency(root);
+    }
+
+    /**
+     * Проверяет согласованность поддерева.
+     *
+     * @param node Поддерево.
+     * @return Фактическая высота поддерева.
+     */
+    private int checkConsistency(final int node) {
+        if (node == NIL) {
+            return 0;
+        }
+
+        int leftHeight = checkConsistency(left[node]);
+        int rightHeight = checkConsistency(right[node]);
+        int actual = Math.max(leftHeight, rightHeight) + 1;
+
+        if (height[node] != actual) {
+            throw new IllegalStateException(
+                "Slot " + node + " stores height " + height[node]
+                    + ", actual height " + actual);
+        }
+
+        if (Math.abs(rightHeight - leftHeight) > 1) {
+            throw new IllegalStateException(
+                "Slot " + node + " has balance " + (rightHeight - leftHeight));
+        }
+
+        return actual;
+    }
+
+    /**
+     * Восстанавливает высоты и баланс на пути от последнего элемента до
+     * корня.
+     */
+    private void rebalance() {
+        while (depth > 0) {
+            int node = path[--depth];
+
+            updateHeight(node);
+
+            int top = rotation(node);
+            if (top != node) {
+                replace(node, top, depth == 0 ? NIL : path[depth - 1]);
+            }
+        }
+    }
+
+    /**
+     * Замена поддерева в родительском элементе.
+     *
+     * @param node Заменяемое поддерево.
+     * @param replacement Новое поддерево.
+     * @param parent Родительский элемент или {@link #NIL}, если заменяется
+     *               корень.
+     */
+    private void replace(final int node, final int replacement,
+                         final int parent) {
+        if (parent == NIL) {
+            root = replacement;
+        } else if (left[parent] == node) {
+            left[parent] = replacement;
+        } else {
+            right[parent] = replacement;
+        }
+    }
+
+    /**
+     * Пересчитывает высоту поддерева.
+     *
+     * @param node Элемент.
+     */
+    private void updateHeight(final int node) {
+        height[node] =
+            (byte) (Math.max(height[left[node]], height[right[node]]) + 1);
+    }
+
+    /**
+     * Вычисляет баланс поддерева.
+     *
+     * @param node Элемент.
+     * @return Баланс поддерева.
+     */
+    private int balance(final int node) {
+        return height[right[node]] - height[left[node]];
+    }
+
+    /**
+     * Поворот дерева.
+     *
+     * @param node Дерево.
+     * @return Новый корень поддерева.
+     */
+    private int rotation(final int node) {
+        int balance = balance(node);
+
+        if (balance > 1) {
+            if (balance(right[node]) < 0) {
+                right[node] = rightRotation(right[node]);
+            }
+
+            return leftRotation(node);
+        }
+
+        if (balance < -1) {
+            if (balance(left[node]) > 0) {
+                left[node] = leftRotation(left[node]);
+            }
+
+            return rightRotation(node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Правый поворот дерева.
+     *
+     * @param p Дерево.
+     * @return Новый корень поддерева.
+     */
+    private int rightRotation(final int p) {
+        int q = left[p];
+
+        left[p] = right[q];
+        right[q] = p;
+
+        updateHeight(p);
+        updateHeight(q);
+
+        return q;
+    }
+
+    /**
+     * Левый поворот дерева.
+     *
+     * @param q Дерево.
+     * @return Новый корень поддерева.
+     */
+    private int leftRotation(final int q) {
+        int p = right[q];
+
+        right[q] = left[p];
+        left[p] = q;
+
+        updateHeight(q);
+        updateHeight(p);
+
+        return p;
+    }
+}
@@ -1,12 +1,19 @@
 package com.github.onotoliy.algorithm.trees;
 
+import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * AVL дерево.
  *
+ * <p>Каждый элемент хранит высоту своего поддерева, поэтому после вставки и
+ * удаления балансировка выполняется только на пути от измененного элемента
+ * до корня и стоит O(log n). Повороты перевешивают существующие элементы и
+ * не создают новых, поэтому элемент, возвращенный {@link #insert} или
+ * {@link #find}, всегда сохраняет свои ключ и значение.
+ *
  * @param <K> Тип ключа.
  * @param <V> Тип значения
  * @author Anatoliy Pokhresnyi
@@ -23,6 +30,35 @@ public class AVLTree<K extends Comparable<K>, V> extends BinaryTree<K, V> {
      */
     private static final int LEFT_ROTATION = -2;
 
+    /**
+     * Максимальная высота AVL дерева. Дерево такой высоты содержит не менее
+     * F(66) элементов, что заведомо больше адресуемой памяти.
+     */
+    private static final int MAX_HEIGHT = 64;
+
+    /**
+     * Путь от корня до измененного элемента. Переиспользуется между
+     * операциями, чтобы балансировка не создавала объектов.
+     */
+    @SuppressWarnings("unchecked")
+    private final AVLNode<K, V>[] path = new AVLNode[MAX_HEIGHT];
+
+    /**
+     * Конструктор дерева с естественным порядком ключей.
+     */
+    public AVLTree() {
+        super();
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param comparator Порядок ключей.
+     */
+    public AVLTree(final Comparator<? super K> comparator) {
+        super(comparator);
+    }
+
     @Override
     protected AVLNode<K, V> newNodeInstance(final K key, final V value) {
         return new AVLNode<>(key, value, null, null);
@@ -30,119 +66,242 @@ public class AVLTree<K extends Comparable<K>, V> extends BinaryTree<K, V> {
 
     @Override
     protected void postInsert(final Node<K, V> node) {
-        preRotation(toAVLNode(node));
+        retrace(node.getKey(), stopsRetraceEarly());
+    }
+
+    /**
+     * Можно ли прекращать подъем после вставки, как только высота поддерева
+     * перестала меняться. Наследники, элементы которых хранят другие данные
+     * о поддереве, должны обновлять весь путь до корня.
+     *
+     * @return Можно ли прекращать подъем.
+     */
+    protected boolean stopsRetraceEarly() {
+        return true;
     }
 
     @Override
     protected void postRemove(final Node<K, V> node) {
-        preRotation(toAVLNode(node));
+        if (node.getKey() != null) {
+            retrace(node.getKey(), false);
+        }
     }
 
     /**
-     * Преобразование {@code Node} в {@code AVLNode}.
+     * Вставка группы элементов. Большая группа вливается в дерево слиянием
+     * с одной сборкой за O(n + m), маленькая вставляется по одному
+     * элементу за O(m log n).
      *
-     * @param node Дерево в формате {@code Node}.
-     * @return Дерево в формате {@code AVLNode}.
+     * @param entries Элементы.
+     * @return Вставленные элементы.
      */
-    private AVLNode<K, V> toAVLNode(final Node<K, V> node) {
-        return (AVLNode<K, V>) node;
+    @Override
+    public List<Node<K, V>> insertAll(
+        final Map<? extends K, ? extends V> entries) {
+        return isLargeBatch(entries.size())
+            ? rebuildInserting(entries)
+            : super.insertAll(entries);
     }
 
     /**
-     * Подготовка дерева к вращению.
+     * Удаление группы элементов. Большая группа удаляется слиянием с одной
+     * сборкой за O(n + m), маленькая удаляется по одному элементу за
+     * O(m log n).
      *
-     * @param node Дерево.
+     * @param keys Ключи.
+     * @return Удаленные элементы.
+     */
+    @Override
+    public List<Node<K, V>> removeAll(final Collection<? extends K> keys) {
+        return isLargeBatch(keys.size())
+            ? rebuildRemoving(keys)
+            : super.removeAll(keys);
+    }
+
+    /**
+     * Проверяет, что пересборка дерева дешевле поэлементных операций:
+     * m log n не меньше n.
+     *
+     * @param batch Размер группы.
+     * @return Выгодна ли пересборка.
      */
-    private void preRotation(final AVLNode<K, V> node) {
-        rotation(0, node)
-            .entrySet()
-            .stream()
-            .max(Comparator.comparing(Map.Entry::getKey))
-            .map(Map.Entry::getValue)
-            .map(this::toAVLNode)
-            .ifPresent(this::rotation);
+    private boolean isLargeBatch(final int batch) {
+        int size = size();
+        int log = Integer.SIZE - Integer.numberOfLeadingZeros(size);
+
+        return (long) batch * log >= size;
     }
 
     /**
-     * Поиск поддеревьев с нарушенным балансом.
+     * Проверяет согласованность дерева: сохраненные высоты совпадают с
+     * фактическими, а баланс каждого поддерева лежит в диапазоне [-1, 1].
+     *
+     * @throws IllegalStateException Нарушен инвариант AVL дерева.
+     */
+    public void checkConsistency() {
+        AVLNode<K, V> root = toAVLNode(getRoot());
+
+        if (root.getKey() != null) {
+            checkConsistency(root);
+        }
+    }
+
+    /**
+     * Проверяет согласованность поддерева.
      *
-     * @param level Уровень.
      * @param node Поддерево.
-     * @return Поддревья с нарушенным балансом.
+     * @return Фактическая высота поддерева.
      */
-    private Map<Integer, Node<K, V>> rotation(final int level,
-                                              final AVLNode<K, V> node) {
+    private int checkConsistency(final AVLNode<K, V> node) {
         if (node == null) {
-            return Map.of();
+            return 0;
+        }
+
+        int leftHeight = checkConsistency(toAVLNode(node.getLeft()));
+        int rightHeight = checkConsistency(toAVLNode(node.getRight()));
+        int height = Math.max(leftHeight, rightHeight) + 1;
+
+        if (node.height() != height) {
+            throw new IllegalStateException(
+                "Node " + node.getKey() + " stores height " + node.height()
+                    + ", actual height " + height);
         }
 
-        Map<Integer, Node<K, V>> map = new HashMap<>();
+        if (Math.abs(rightHeight - leftHeight) > 1) {
+            throw new IllegalStateException(
+                "Node " + node.getKey() + " has balance "
+                    + (rightHeight - leftHeight));
+        }
+
+        return height;
+    }
+
+    /**
+     * Преобразование {@code Node} в {@code AVLNode}.
+     *
+     * @param node Дерево в формате {@code Node}.
+     * @return Дерево в формате {@code AVLNode}.
+     */
+    private AVLNode<K, V> toAVLNode(final Node<K, V> node) {
+        return (AVLNode<K, V>) node;
+    }
+
+    /**
+     * Восстанавливает высоты и баланс на пути от корня до элемента с
+     * указанным ключом.
+     *
+     * <p>После вставки подъем прекращается, как только высота поддерева выше
+     * измененного элемента перестает меняться. После удаления путь
+     * проходится до корня: элемент, перенесенный на место удаленного, хранит
+     * высоту со своего прежнего места.
+     *
+     * @param key Ключ измененного элемента.
+     * @param stopEarly Прекращать подъем при неизменной высоте.
+     */
+    private void retrace(final K key, final boolean stopEarly) {
+        int depth = 0;
+        AVLNode<K, V> node = toAVLNode(getRoot());
+
+        while (node != null) {
+            path[depth++] = node;
+
+            int compare = compare(key, node);
+            if (compare == 0) {
+                break;
+            }
 
-        int balance = node.balance();
-        if (balance == RIGHT_ROTATION || balance == LEFT_ROTATION) {
-            map.put(level, node);
+            node = toAVLNode(compare < 0 ? node.getLeft() : node.getRight());
         }
 
-        map.putAll(rotation(level + 1, toAVLNode(node.getLeft())));
-        map.putAll(rotation(level + 1, toAVLNode(node.getRight())));
+        countComparisons(depth);
+
+        int changed = depth - 1;
+        while (depth > 0) {
+            AVLNode<K, V> current = path[--depth];
+            path[depth] = null;
+
+            int height = current.height();
+
+            current.updateHeight();
+
+            AVLNode<K, V> top = rotation(current);
+            if (top != current) {
+                replace(current, top, depth == 0 ? null : path[depth - 1]);
+            }
 
-        return map;
+            if (stopEarly && depth < changed && top.height() == height) {
+                break;
+            }
+        }
+
+        while (depth > 0) {
+            path[--depth] = null;
+        }
     }
 
     /**
      * Поворот дерева.
      *
      * @param node Дерево.
+     * @return Новый корень поддерева.
      */
-    private void rotation(final AVLNode<K, V> node) {
+    private AVLNode<K, V> rotation(final AVLNode<K, V> node) {
         if (node.balance() == RIGHT_ROTATION) {
             if (toAVLNode(node.getRight()).balance() < 0) {
-                rightRotation(node.getRight());
+                node.setRight(rightRotation(node.getRight()));
             }
 
-            leftRotation(node);
+            return leftRotation(node);
         }
 
         if (node.balance() == LEFT_ROTATION) {
             if (toAVLNode(node.getLeft()).balance() > 0) {
-                leftRotation(node.getLeft());
+                node.setLeft(leftRotation(node.getLeft()));
             }
 
-            rightRotation(node);
+            return rightRotation(node);
         }
+
+        return node;
     }
 
     /**
      * Правый поворот дерева.
      *
      * @param node Дерево.
+     * @return Новый корень поддерева.
      */
-    private void rightRotation(final Node<K, V> node) {
+    private AVLNode<K, V> rightRotation(final Node<K, V> node) {
         AVLNode<K, V> p = toAVLNode(node);
         AVLNode<K, V> q = toAVLNode(p.getLeft());
-        AVLNode<K, V> right =
-            new AVLNode<>(p.getKey(), p.getValue(), q.getRight(), p.getRight());
+        countRotation();
+
+        p.setLeft(q.getRight());
+        q.setRight(p);
+
+        p.updateHeight();
+        q.updateHeight();
 
-        p.setKey(q.getKey());
-        p.setValue(q.getValue());
-        p.setLeft(q.getLeft());
-        p.setRight(right);
+        return q;
     }
 
     /**
      * Левый поворот дерева.
      *
      * @param node Дерево.
+     * @return Новый корень поддерева.
      */
-    private void leftRotation(final Node<K, V> node) {
+    private AVLNode<K, V> leftRotation(final Node<K, V> node) {
         AVLNode<K, V> q = toAVLNode(node);
         AVLNode<K, V> p = toAVLNode(q.getRight());
-        AVLNode<K, V> left =
-            new AVLNode<>(q.getKey(), q.getValue(), q.getLeft(), p.getLeft());
+        countRotation();
+
+        q.setRight(p.getLeft());
+        p.setLeft(q);
+
+        q.updateHeight();
+        p.updateHeight();
 
-        q.setKey(p.getKey());
-        q.setValue(p.getValue());
-        q.setLeft(left);
-        q.setRight(p.getRight());
+        return p;
     }
 }
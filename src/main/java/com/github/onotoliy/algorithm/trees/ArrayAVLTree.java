@@ -0,0 +1,368 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * AVL дерево, хранящее элементы в параллельных массивах.
+ *
+ * <p>Ключи, значения и связи {@link AVLLinks} лежат в массивах, индексируемых
+ * номером ячейки, поэтому объект на элемент не создается. Без учета самих
+ * ключей и значений элемент занимает 17 байт против 32 байт у
+ * {@link AVLNode}. Освобожденные ячейки переиспользуются.
+ *
+ * <p>Методы {@link Tree} возвращают {@link Node}, созданный на время вызова.
+ * Ключ и значение в нем зафиксированы в момент создания, а поддеревья и
+ * высота читаются из дерева при обращении.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class ArrayAVLTree<K extends Comparable<K>, V> implements Tree<K, V> {
+
+    /**
+     * Связи элементов.
+     */
+    private final AVLLinks links = new AVLLinks(AVLLinks.INITIAL_CAPACITY);
+
+    /**
+     * Ключи.
+     */
+    private Object[] keys = new Object[links.capacity()];
+
+    /**
+     * Значения.
+     */
+    private Object[] values = new Object[links.capacity()];
+
+    /**
+     * Количество элементов.
+     */
+    private int size;
+
+    @Override
+    public Node<K, V> find(final K key) {
+        int node = links.root();
+
+        while (node != AVLLinks.NIL) {
+            int compare = key.compareTo(key(node));
+            if (compare == 0) {
+                return new SlotNode(node);
+            }
+
+            node = compare < 0 ? links.left(node) : links.right(node);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Node<K, V> insert(final K key, final V value) {
+        links.reset();
+
+        boolean toLeft = false;
+        int node = links.root();
+        while (node != AVLLinks.NIL) {
+            int compare = key.compareTo(key(node));
+            if (compare == 0) {
+                return new SlotNode(node);
+            }
+
+            links.push(node);
+
+            toLeft = compare < 0;
+            node = toLeft ? links.left(node) : links.right(node);
+        }
+
+        node = links.allocate();
+        if (node >= keys.length) {
+            keys = Arrays.copyOf(keys, links.capacity());
+            values = Arrays.copyOf(values, links.capacity());
+        }
+
+        keys[node] = key;
+        values[node] = value;
+
+        links.attach(node, toLeft);
+        size++;
+
+        return new SlotNode(node);
+    }
+
+    @Override
+    public Node<K, V> remove(final K key) {
+        links.reset();
+
+        int node = links.root();
+        while (node != AVLLinks.NIL) {
+            int compare = key.compareTo(key(node));
+            if (compare == 0) {
+                break;
+            }
+
+            links.push(node);
+            node = compare < 0 ? links.left(node) : links.right(node);
+        }
+
+        if (node == AVLLinks.NIL) {
+            return null;
+        }
+
+        SlotNode removed = new SlotNode(key(node), value(node), AVLLinks.NIL);
+        links.push(node);
+        size--;
+
+        if (links.left(node) != AVLLinks.NIL
+            && links.right(node) != AVLLinks.NIL) {
+            int predecessor = links.left(node);
+            while (predecessor != AVLLinks.NIL) {
+                links.push(predecessor);
+                predecessor = links.right(predecessor);
+            }
+
+            predecessor = links.detach();
+
+            keys[node] = keys[predecessor];
+            values[node] = values[predecessor];
+            clear(predecessor);
+        } else {
+            clear(links.detach());
+        }
+
+        return removed;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int height() {
+        return links.height(links.root());
+    }
+
+    /**
+     * Проверяет согласованность дерева: сохраненные высоты совпадают с
+     * фактическими, а баланс каждого поддерева лежит в диапазоне [-1, 1].
+     *
+     * @throws IllegalStateException Нарушен инвариант AVL дерева.
+     */
+    public void checkConsistency() {
+        links.checkConsistency();
+    }
+
+    @Override
+    public Node<K, V> floor(final K key) {
+        return view(nearest(key, true, false));
+    }
+
+    @Override
+    public Node<K, V> ceiling(final K key) {
+        return view(nearest(key, true, true));
+    }
+
+    @Override
+    public Node<K, V> lower(final K key) {
+        return view(nearest(key, false, false));
+    }
+
+    @Override
+    public Node<K, V> higher(final K key) {
+        return view(nearest(key, false, true));
+    }
+
+    @Override
+    public Node<K, V> first() {
+        int node = links.root();
+        while (node != AVLLinks.NIL && links.left(node) != AVLLinks.NIL) {
+            node = links.left(node);
+        }
+
+        return view(node);
+    }
+
+    @Override
+    public Node<K, V> last() {
+        int node = links.root();
+        while (node != AVLLinks.NIL && links.right(node) != AVLLinks.NIL) {
+            node = links.right(node);
+        }
+
+        return view(node);
+    }
+
+    /**
+     * Поиск ближайшего ключа за один спуск.
+     *
+     * @param key Ключ.
+     * @param inclusive Подходит ли элемент с равным ключом.
+     * @param greater Искать ближайший больший ключ, а не меньший.
+     * @return Ячейка элемента или {@link AVLLinks#NIL}, если такого нет.
+     */
+    private int nearest(final K key,
+                        final boolean inclusive,
+                        final boolean greater) {
+        int result = AVLLinks.NIL;
+
+        int node = links.root();
+        while (node != AVLLinks.NIL) {
+            int compare = key.compareTo(key(node));
+            if (compare == 0 && inclusive) {
+                return node;
+            }
+
+            if (greater ? compare < 0 : compare > 0) {
+                result = node;
+            }
+
+            node = compare < 0 || compare == 0 && !greater
+                ? links.left(node)
+                : links.right(node);
+        }
+
+        return result;
+    }
+
+    /**
+     * Представление элемента.
+     *
+     * @param node Ячейка элемента или {@link AVLLinks#NIL}.
+     * @return Элемент или {@code null}.
+     */
+    private Node<K, V> view(final int node) {
+        return node == AVLLinks.NIL ? null : new SlotNode(node);
+    }
+
+    @Override
+    public Iterator<Node<K, V>> iterator(final K from, final K to) {
+        return new NodeIterator<>(view(links.root()), from, to,
+            Comparator.naturalOrder());
+    }
+
+    @Override
+    public String toString() {
+        int root = links.root();
+
+        return root == AVLLinks.NIL
+            ? "b null"
+            : new SlotNode(root).toString();
+    }
+
+    /**
+     * Освобождает ссылки ячейки на ключ и значение.
+     *
+     * @param node Ячейка.
+     */
+    private void clear(final int node) {
+        keys[node] = null;
+        values[node] = null;
+    }
+
+    /**
+     * Возвращает ключ элемента.
+     *
+     * @param node Элемент.
+     * @return Ключ.
+     */
+    @SuppressWarnings("unchecked")
+    private K key(final int node) {
+        return (K) keys[node];
+    }
+
+    /**
+     * Возвращает значение элемента.
+     *
+     * @param node Элемент.
+     * @return Значение.
+     */
+    @SuppressWarnings("unchecked")
+    private V value(final int node) {
+        return (V) values[node];
+    }
+
+    /**
+     * Элемент дерева, представляющий ячейку массивов.
+     */
+    private final class SlotNode implements Node<K, V> {
+
+        /**
+         * Ключ.
+         */
+        private final K key;
+
+        /**
+         * Значение.
+         */
+        private final V value;
+
+        /**
+         * Ячейка. Для удаленного элемента — {@link AVLLinks#NIL}.
+         */
+        private final int slot;
+
+        /**
+         * Конструктор.
+         *
+         * @param aSlot Ячейка.
+         */
+        private SlotNode(final int aSlot) {
+            this(key(aSlot), value(aSlot), aSlot);
+        }
+
+        /**
+         * Конструктор.
+         *
+         * @param aKey Ключ.
+         * @param aValue Значение.
+         * @param aSlot Ячейка.
+         */
+        private SlotNode(final K aKey, final V aValue, final int aSlot) {
+            this.key = aKey;
+            this.value = aValue;
+            this.slot = aSlot;
+        }
+
+        @Override
+        public Node<K, V> getLeft() {
+            return child(links.left(slot));
+        }
+
+        @Override
+        public Node<K, V> getRight() {
+            return child(links.right(slot));
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public int height() {
+            return links.height(slot);
+        }
+
+        @Override
+        public String toString() {
+            return BinaryNode.prettyTree(this);
+        }
+
+        /**
+         * Элемент для поддерева.
+         *
+         * @param child Ячейка поддерева.
+         * @return Элемент или {@code null}.
+         */
+        private Node<K, V> child(final int child) {
+            return child == AVLLinks.NIL ? null : new SlotNode(child);
+        }
+    }
+}
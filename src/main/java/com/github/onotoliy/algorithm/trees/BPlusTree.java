@@ -0,0 +1,1016 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * B+ дерево.
+ *
+ * <p>Ключи хранятся в страницах по {@code order} штук подряд в массиве,
+ * поэтому поиск читает одну страницу на уровень, а высота дерева равна
+ * log_{order/2..order} n вместо log_2 n у бинарных деревьев: при порядке 64
+ * и 100 миллионах ключей это 5 уровней вместо 27. Значения лежат только в
+ * листьях, листья связаны в двусвязный список, поэтому обход диапазона
+ * после спуска идет по листьям без возврата к корню.
+ *
+ * <p>Элементы, которые возвращают методы дерева, — неизменяемые снимки
+ * ключа и значения. Поддеревьев у них нет, {@link Node#getLeft()} и
+ * {@link Node#getRight()} возвращают {@code null}.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class BPlusTree<K extends Comparable<K>, V> implements Tree<K, V> {
+
+    /**
+     * Порядок дерева по умолчанию.
+     */
+    private static final int DEFAULT_ORDER = 64;
+
+    /**
+     * Минимальный порядок дерева.
+     */
+    private static final int MIN_ORDER = 4;
+
+    /**
+     * Начальный размер пути от корня до листа.
+     */
+    private static final int INITIAL_PATH_SIZE = 8;
+
+    /**
+     * Порядок дерева: наибольшее количество элементов листа и потомков
+     * внутренней страницы.
+     */
+    private final int order;
+
+    /**
+     * Наименьшее количество элементов листа и потомков внутренней страницы,
+     * кроме корня.
+     */
+    private final int minimum;
+
+    /**
+     * Корень дерева или {@code null}, если дерево пусто.
+     */
+    private Page root;
+
+    /**
+     * Количество уровней дерева.
+     */
+    private int height;
+
+    /**
+     * Количество элементов.
+     */
+    private int count;
+
+    /**
+     * Внутренние страницы на пути от корня до листа. Переиспользуется между
+     * операциями.
+     */
+    private Page[] pathPages = new Page[INITIAL_PATH_SIZE];
+
+    /**
+     * Номера потомков, выбранных на пути от корня до листа.
+     */
+    private int[] pathIndexes = new int[INITIAL_PATH_SIZE];
+
+    /**
+     * Длина пути.
+     */
+    private int depth;
+
+    /**
+     * Конструктор дерева порядка 64.
+     */
+    public BPlusTree() {
+        this(DEFAULT_ORDER);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param anOrder Порядок дерева, не меньше 4.
+     */
+    public BPlusTree(final int anOrder) {
+        if (anOrder < MIN_ORDER) {
+            throw new IllegalArgumentException(
+                "Order " + anOrder + " is less than " + MIN_ORDER);
+        }
+
+        this.order = anOrder;
+        this.minimum = (anOrder + 1) / 2;
+    }
+
+    @Override
+    public Node<K, V> find(final K key) {
+        if (root == null) {
+            return null;
+        }
+
+        Page page = root;
+        while (!page.isLeaf()) {
+            page = page.children[childIndex(page, key)];
+        }
+
+        int index = search(page, key);
+
+        return index < 0 ? null : entry(page, index);
+    }
+
+    @Override
+    public Node<K, V> insert(final K key, final V value) {
+        if (root == null) {
+            Page leaf = Page.leaf(order);
+            leaf.keys[0] = key;
+            leaf.values[0] = value;
+            leaf.size = 1;
+
+            root = leaf;
+            height = 1;
+            count = 1;
+
+            return entry(leaf, 0);
+        }
+
+        Page leaf = descend(key);
+        int index = search(leaf, key);
+        if (index >= 0) {
+            clearPath();
+
+            return entry(leaf, index);
+        }
+
+        index = -index - 1;
+        shift(leaf.keys, index, leaf.size);
+        shift(leaf.values, index, leaf.size);
+        leaf.keys[index] = key;
+        leaf.values[index] = value;
+        leaf.size++;
+        count++;
+
+        Node<K, V> inserted = entry(leaf, index);
+
+        if (leaf.size > order) {
+            split(leaf);
+        }
+
+        clearPath();
+
+        return inserted;
+    }
+
+    @Override
+    public Node<K, V> remove(final K key) {
+        if (root == null) {
+            return null;
+        }
+
+        Page leaf = descend(key);
+        int index = search(leaf, key);
+        if (index < 0) {
+            clearPath();
+
+            return null;
+        }
+
+        Node<K, V> removed = entry(leaf, index);
+
+        unshift(leaf.keys, index, leaf.size);
+        unshift(leaf.values, index, leaf.size);
+        leaf.size--;
+        count--;
+
+        rebalance(leaf);
+        clearPath();
+
+        return removed;
+    }
+
+    @Override
+    public Node<K, V> floor(final K key) {
+        return floor(key, true);
+    }
+
+    @Override
+    public Node<K, V> ceiling(final K key) {
+        return ceiling(key, true);
+    }
+
+    @Override
+    public Node<K, V> lower(final K key) {
+        return floor(key, false);
+    }
+
+    @Override
+    public Node<K, V> higher(final K key) {
+        return ceiling(key, false);
+    }
+
+    @Override
+    public Node<K, V> first() {
+        Page leaf = edge(true);
+
+        return leaf == null ? null : entry(leaf, 0);
+    }
+
+    @Override
+    public Node<K, V> last() {
+        Page leaf = edge(false);
+
+        return leaf == null ? null : entry(leaf, leaf.size - 1);
+    }
+
+    /**
+     * Обход элементов с ключами в диапазоне [from, to): спуск до листа с
+     * нижней границей и проход по списку листьев.
+     *
+     * @param from Нижняя граница, включительно, или {@code null}.
+     * @param to Верхняя граница, исключительно, или {@code null}.
+     * @return Обход элементов.
+     */
+    @Override
+    public Iterator<Node<K, V>> iterator(final K from, final K to) {
+        if (from == null) {
+            return new LeafIterator(edge(true), 0, to);
+        }
+
+        Page leaf = leaf(from);
+        int index = leaf == null ? 0 : search(leaf, from);
+
+        return new LeafIterator(leaf, index < 0 ? -index - 1 : index, to);
+    }
+
+    @Override
+    public int size() {
+        return count;
+    }
+
+    @Override
+    public int height() {
+        return height;
+    }
+
+    /**
+     * Проверяет согласованность дерева: ключи страниц возрастают и лежат в
+     * границах, заданных родителем, заполнение страниц в допустимых
+     * пределах, все листья на одной глубине и связаны по порядку, а
+     * сохраненное количество элементов совпадает с фактическим.
+     *
+     * @throws IllegalStateException Нарушен инвариант B+ дерева.
+     */
+    public void checkConsistency() {
+        if (root == null) {
+            if (height != 0 || count != 0) {
+                throw new IllegalStateException(
+                    "Empty tree has height " + height + ", size " + count);
+            }
+
+            return;
+        }
+
+        Page[] previous = new Page[1];
+        checkConsistency(root, null, null, 1, previous);
+
+        if (previous[0].next != null) {
+            throw new IllegalStateException("Last leaf has a successor");
+        }
+
+        int actual = 0;
+        for (Page leaf = edge(true); leaf != null; leaf = leaf.next) {
+            actual += leaf.size;
+        }
+
+        if (actual != count) {
+            throw new IllegalStateException(
+                "Tree stores size " + count + ", actual size " + actual);
+        }
+    }
+
+    /**
+     * Проверяет согласованность поддерева.
+     *
+     * @param page Страница.
+     * @param low Нижняя граница ключей, включительно, или {@code null}.
+     * @param high Верхняя граница ключей, исключительно, или {@code null}.
+     * @param level Уровень страницы, корень на уровне 1.
+     * @param previous Последний проверенный лист.
+     */
+    private void checkConsistency(final Page page,
+                                  final K low,
+                                  final K high,
+                                  final int level,
+                                  final Page[] previous) {
+        int keys = page.isLeaf() ? page.size : page.size - 1;
+        int least = page == root ? (page.isLeaf() ? 1 : 2) : minimum;
+
+        if (page.size < least || page.size > order) {
+            throw new IllegalStateException(
+                "Page of size " + page.size + " at level " + level);
+        }
+
+        for (int i = 0; i < keys; i++) {
+            K key = key(page, i);
+            if (i > 0 && key(page, i - 1).compareTo(key) >= 0
+                || low != null && key.compareTo(low) < 0
+                || high != null && key.compareTo(high) >= 0) {
+                throw new IllegalStateException(
+                    "Key " + key + " out of order at level " + level);
+            }
+        }
+
+        if (!page.isLeaf()) {
+            for (int i = 0; i < page.size; i++) {
+                checkConsistency(page.children[i],
+                    i == 0 ? low : key(page, i - 1),
+                    i == page.size - 1 ? high : key(page, i),
+                    level + 1, previous);
+            }
+
+            return;
+        }
+
+        if (level != height) {
+            throw new IllegalStateException(
+                "Leaf at level " + level + ", height " + height);
+        }
+
+        if (page.prev != previous[0]
+            || previous[0] != null && previous[0].next != page) {
+            throw new IllegalStateException(
+                "Broken leaf links at key " + key(page, 0));
+        }
+
+        previous[0] = page;
+    }
+
+    @Override
+    public String toString() {
+        if (root == null) {
+            return "b null";
+        }
+
+        StringBuilder builder = new StringBuilder();
+
+        Page[] pages = new Page[INITIAL_PATH_SIZE];
+        int[] levels = new int[INITIAL_PATH_SIZE];
+        int size = 0;
+
+        pages[size++] = root;
+        while (size > 0) {
+            Page page = pages[--size];
+            int level = levels[size];
+            pages[size] = null;
+
+            if (builder.length() > 0) {
+                builder.append('\n');
+            }
+
+            for (int i = 0; i < level; i++) {
+                builder.append("  ");
+            }
+
+            int keys = page.isLeaf() ? page.size : page.size - 1;
+            builder.append(page.isLeaf() ? "l " : "i ")
+                   .append(Arrays.toString(Arrays.copyOf(page.keys, keys)));
+
+            if (!page.isLeaf()) {
+                if (size + page.size > pages.length) {
+                    pages = Arrays.copyOf(pages, (size + page.size) * 2);
+                    levels = Arrays.copyOf(levels, pages.length);
+                }
+
+                for (int i = page.size - 1; i >= 0; i--) {
+                    pages[size] = page.children[i];
+                    levels[size++] = level + 1;
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    /**
+     * Спуск до листа без запоминания пути.
+     *
+     * @param key Ключ.
+     * @return Лист, в котором должен лежать ключ, или {@code null}, если
+     *         дерево пусто.
+     */
+    private Page leaf(final K key) {
+        if (root == null) {
+            return null;
+        }
+
+        Page page = root;
+        while (!page.isLeaf()) {
+            page = page.children[childIndex(page, key)];
+        }
+
+        return page;
+    }
+
+    /**
+     * Спуск до листа с запоминанием пути. Дерево не пусто.
+     *
+     * @param key Ключ.
+     * @return Лист, в котором должен лежать ключ.
+     */
+    private Page descend(final K key) {
+        Page page = root;
+        while (!page.isLeaf()) {
+            int index = childIndex(page, key);
+
+            if (depth == pathPages.length) {
+                pathPages = Arrays.copyOf(pathPages, depth * 2);
+                pathIndexes = Arrays.copyOf(pathIndexes, depth * 2);
+            }
+
+            pathPages[depth] = page;
+            pathIndexes[depth++] = index;
+
+            page = page.children[index];
+        }
+
+        return page;
+    }
+
+    /**
+     * Очищает путь, чтобы не удерживать страницы.
+     */
+    private void clearPath() {
+        while (depth > 0) {
+            pathPages[--depth] = null;
+        }
+    }
+
+    /**
+     * Крайний лист дерева.
+     *
+     * @param leftmost Самый левый лист, иначе самый правый.
+     * @return Лист или {@code null}, если дерево пусто.
+     */
+    private Page edge(final boolean leftmost) {
+        if (root == null) {
+            return null;
+        }
+
+        Page page = root;
+        while (!page.isLeaf()) {
+            page = page.children[leftmost ? 0 : page.size - 1];
+        }
+
+        return page;
+    }
+
+    /**
+     * Элемент с наибольшим ключом, меньшим указанного (или равным ему).
+     *
+     * @param key Ключ.
+     * @param inclusive Подходит ли элемент с равным ключом.
+     * @return Элемент или {@code null}, если такого нет.
+     */
+    private Node<K, V> floor(final K key, final boolean inclusive) {
+        Page leaf = leaf(key);
+        if (leaf == null) {
+            return null;
+        }
+
+        int index = search(leaf, key);
+        if (index >= 0) {
+            index = inclusive ? index : index - 1;
+        } else {
+            index = -index - 2;
+        }
+
+        if (index < 0) {
+            leaf = leaf.prev;
+            index = leaf == null ? 0 : leaf.size - 1;
+        }
+
+        return leaf == null ? null : entry(leaf, index);
+    }
+
+    /**
+     * Элемент с наименьшим ключом, большим указанного (или равным ему).
+     *
+     * @param key Ключ.
+     * @param inclusive Подходит ли элемент с равным ключом.
+     * @return Элемент или {@code null}, если такого нет.
+     */
+    private Node<K, V> ceiling(final K key, final boolean inclusive) {
+        Page leaf = leaf(key);
+        if (leaf == null) {
+            return null;
+        }
+
+        int index = search(leaf, key);
+        if (index >= 0) {
+            index = inclusive ? index : index + 1;
+        } else {
+            index = -index - 1;
+        }
+
+        if (index == leaf.size) {
+            leaf = leaf.next;
+            index = 0;
+        }
+
+        return leaf == null ? null : entry(leaf, index);
+    }
+
+    /**
+     * Делит переполненный лист пополам и поднимает разделители вверх по
+     * запомненному пути, деля переполненные внутренние страницы.
+     *
+     * @param leaf Переполненный лист.
+     */
+    private void split(final Page leaf) {
+        Page right = Page.leaf(order);
+        int keep = leaf.size / 2;
+        int move = leaf.size - keep;
+
+        System.arraycopy(leaf.keys, keep, right.keys, 0, move);
+        System.arraycopy(leaf.values, keep, right.values, 0, move);
+        Arrays.fill(leaf.keys, keep, leaf.size, null);
+        Arrays.fill(leaf.values, keep, leaf.size, null);
+        leaf.size = keep;
+        right.size = move;
+
+        right.next = leaf.next;
+        if (right.next != null) {
+            right.next.prev = right;
+        }
+
+        right.prev = leaf;
+        leaf.next = right;
+
+        Page left = leaf;
+        Page sibling = right;
+        Object separator = right.keys[0];
+        while (depth > 0) {
+            Page parent = pathPages[--depth];
+            int index = pathIndexes[depth];
+            pathPages[depth] = null;
+
+            shift(parent.keys, index, parent.size - 1);
+            shift(parent.children, index + 1, parent.size);
+            parent.keys[index] = separator;
+            parent.children[index + 1] = sibling;
+            parent.size++;
+
+            if (parent.size <= order) {
+                return;
+            }
+
+            Page upper = Page.inner(order);
+            int children = parent.size / 2;
+            int moved = parent.size - children;
+
+            separator = parent.keys[children - 1];
+            System.arraycopy(parent.children, children, upper.children, 0,
+                moved);
+            System.arraycopy(parent.keys, children, upper.keys, 0, moved - 1);
+            Arrays.fill(parent.children, children, parent.size, null);
+            Arrays.fill(parent.keys, children - 1, parent.size - 1, null);
+            parent.size = children;
+            upper.size = moved;
+
+            left = parent;
+            sibling = upper;
+        }
+
+        Page top = Page.inner(order);
+        top.children[0] = left;
+        top.children[1] = sibling;
+        top.keys[0] = separator;
+        top.size = 2;
+
+        root = top;
+        height++;
+    }
+
+    /**
+     * Восстанавливает заполнение страниц после удаления: недозаполненная
+     * страница занимает элемент у соседа или сливается с ним, и так вверх
+     * по запомненному пути.
+     *
+     * @param leaf Лист, из которого удален элемент.
+     */
+    private void rebalance(final Page leaf) {
+        Page page = leaf;
+        while (depth > 0 && page.size < minimum) {
+            Page parent = pathPages[depth - 1];
+            int index = pathIndexes[depth - 1];
+
+            Page left = index > 0 ? parent.children[index - 1] : null;
+            Page right = index < parent.size - 1
+                ? parent.children[index + 1]
+                : null;
+
+            if (left != null && left.size > minimum) {
+                borrowLeft(parent, index);
+
+                return;
+            }
+
+            if (right != null && right.size > minimum) {
+                borrowRight(parent, index);
+
+                return;
+            }
+
+            merge(parent, left == null ? index : index - 1);
+
+            pathPages[--depth] = null;
+            page = parent;
+        }
+
+        if (page == root) {
+            if (page.size == 0) {
+                root = null;
+                height = 0;
+            } else if (!page.isLeaf() && page.size == 1) {
+                root = page.children[0];
+                height--;
+            }
+        }
+    }
+
+    /**
+     * Переносит последний элемент левого соседа в начало страницы.
+     *
+     * @param parent Родительская страница.
+     * @param index Номер страницы в родителе.
+     */
+    private void borrowLeft(final Page parent, final int index) {
+        Page page = parent.children[index];
+        Page left = parent.children[index - 1];
+
+        if (page.isLeaf()) {
+            shift(page.keys, 0, page.size);
+            shift(page.values, 0, page.size);
+            page.keys[0] = left.keys[left.size - 1];
+            page.values[0] = left.values[left.size - 1];
+            left.keys[left.size - 1] = null;
+            left.values[left.size - 1] = null;
+
+            parent.keys[index - 1] = page.keys[0];
+        } else {
+            shift(page.keys, 0, page.size - 1);
+            shift(page.children, 0, page.size);
+            page.keys[0] = parent.keys[index - 1];
+            page.children[0] = left.children[left.size - 1];
+
+            parent.keys[index - 1] = left.keys[left.size - 2];
+            left.keys[left.size - 2] = null;
+            left.children[left.size - 1] = null;
+        }
+
+        page.size++;
+        left.size--;
+    }
+
+    /**
+     * Переносит первый элемент правого соседа в конец страницы.
+     *
+     * @param parent Родительская страница.
+     * @param index Номер страницы в родителе.
+     */
+    private void borrowRight(final Page parent, final int index) {
+        Page page = parent.children[index];
+        Page right = parent.children[index + 1];
+
+        if (page.isLeaf()) {
+            page.keys[page.size] = right.keys[0];
+            page.values[page.size] = right.values[0];
+            unshift(right.keys, 0, right.size);
+            unshift(right.values, 0, right.size);
+
+            parent.keys[index] = right.keys[0];
+        } else {
+            page.keys[page.size - 1] = parent.keys[index];
+            page.children[page.size] = right.children[0];
+
+            parent.keys[index] = right.keys[0];
+            unshift(right.keys, 0, right.size - 1);
+            unshift(right.children, 0, right.size);
+        }
+
+        page.size++;
+        right.size--;
+    }
+
+    /**
+     * Сливает страницу с правым соседом и удаляет разделитель из родителя.
+     *
+     * @param parent Родительская страница.
+     * @param index Номер левой из сливаемых страниц в родителе.
+     */
+    private void merge(final Page parent, final int index) {
+        Page left = parent.children[index];
+        Page right = parent.children[index + 1];
+
+        if (left.isLeaf()) {
+            System.arraycopy(right.keys, 0, left.keys, left.size, right.size);
+            System.arraycopy(right.values, 0, left.values, left.size,
+                right.size);
+
+            left.next = right.next;
+            if (left.next != null) {
+                left.next.prev = left;
+            }
+        } else {
+            left.keys[left.size - 1] = parent.keys[index];
+            System.arraycopy(right.keys, 0, left.keys, left.size,
+                right.size - 1);
+            System.arraycopy(right.children, 0, left.children, left.size,
+                right.size);
+        }
+
+        left.size = left.size + right.size;
+
+        unshift(parent.keys, index, parent.size - 1);
+        unshift(parent.children, index + 1, parent.size);
+        parent.size--;
+    }
+
+    /**
+     * Номер потомка внутренней страницы, в котором должен лежать ключ.
+     *
+     * @param inner Внутренняя страница.
+     * @param key Ключ.
+     * @return Номер потомка.
+     */
+    private static int childIndex(final Page inner, final Object key) {
+        int index = Arrays.binarySearch(inner.keys, 0, inner.size - 1, key);
+
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    /**
+     * Двоичный поиск ключа в листе.
+     *
+     * @param page Лист.
+     * @param key Ключ.
+     * @return Номер ключа или {@code -(точка вставки) - 1}, если ключа нет.
+     */
+    private static int search(final Page page, final Object key) {
+        return Arrays.binarySearch(page.keys, 0, page.size, key);
+    }
+
+    /**
+     * Сдвигает элементы массива на одну позицию вправо, освобождая ячейку.
+     *
+     * @param array Массив.
+     * @param index Освобождаемая ячейка.
+     * @param size Количество занятых ячеек.
+     */
+    private static void shift(final Object[] array,
+                              final int index,
+                              final int size) {
+        System.arraycopy(array, index, array, index + 1, size - index);
+    }
+
+    /**
+     * Сдвигает элементы массива на одну позицию влево, затирая ячейку.
+     *
+     * @param array Массив.
+     * @param index Затираемая ячейка.
+     * @param size Количество занятых ячеек.
+     */
+    private static void unshift(final Object[] array,
+                                final int index,
+                                final int size) {
+        System.arraycopy(array, index + 1, array, index, size - index - 1);
+        array[size - 1] = null;
+    }
+
+    /**
+     * Ключ страницы.
+     *
+     * @param page Страница.
+     * @param index Номер ключа.
+     * @return Ключ.
+     */
+    @SuppressWarnings("unchecked")
+    private K key(final Page page, final int index) {
+        return (K) page.keys[index];
+    }
+
+    /**
+     * Снимок элемента листа.
+     *
+     * @param leaf Лист.
+     * @param index Номер элемента.
+     * @return Элемент.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V> entry(final Page leaf, final int index) {
+        return new Entry<>((K) leaf.keys[index], (V) leaf.values[index]);
+    }
+
+    /**
+     * Страница дерева: лист или внутренняя страница.
+     *
+     * <p>Лист хранит {@code size} ключей и значений и ссылки на соседние
+     * листья. Внутренняя страница хранит {@code size} потомков и
+     * {@code size - 1} разделителей; в потомке {@code i + 1} лежат ключи, не
+     * меньшие разделителя {@code i}. Одна ячейка сверх порядка нужна для
+     * вставки перед делением.
+     */
+    private static final class Page {
+
+        /**
+         * Ключи.
+         */
+        private final Object[] keys;
+
+        /**
+         * Значения листа или {@code null}.
+         */
+        private final Object[] values;
+
+        /**
+         * Потомки внутренней страницы или {@code null}.
+         */
+        private final Page[] children;
+
+        /**
+         * Количество элементов листа или потомков внутренней страницы.
+         */
+        private int size;
+
+        /**
+         * Предыдущий лист.
+         */
+        private Page prev;
+
+        /**
+         * Следующий лист.
+         */
+        private Page next;
+
+        /**
+         * Конструктор.
+         *
+         * @param aKeys Ключи.
+         * @param aValues Значения листа или {@code null}.
+         * @param aChildren Потомки внутренней страницы или {@code null}.
+         */
+        private Page(final Object[] aKeys,
+                     final Object[] aValues,
+                     final Page[] aChildren) {
+            this.keys = aKeys;
+            this.values = aValues;
+            this.children = aChildren;
+        }
+
+        /**
+         * Создает лист.
+         *
+         * @param order Порядок дерева.
+         * @return Лист.
+         */
+        static Page leaf(final int order) {
+            return new Page(new Object[order + 1], new Object[order + 1],
+                null);
+        }
+
+        /**
+         * Создает внутреннюю страницу.
+         *
+         * @param order Порядок дерева.
+         * @return Внутренняя страница.
+         */
+        static Page inner(final int order) {
+            return new Page(new Object[order], null, new Page[order + 1]);
+        }
+
+        /**
+         * Проверяет, является ли страница листом.
+         *
+         * @return Является ли страница листом.
+         */
+        boolean isLeaf() {
+            return children == null;
+        }
+    }
+
+    /**
+     * Обход листьев от указанной позиции до верхней границы.
+     */
+    private final class LeafIterator implements Iterator<Node<K, V>> {
+
+        /**
+         * Текущий лист.
+         */
+        private Page leaf;
+
+        /**
+         * Позиция в текущем листе.
+         */
+        private int index;
+
+        /**
+         * Верхняя граница, исключительно, или {@code null}.
+         */
+        private final K to;
+
+        /**
+         * Конструктор.
+         *
+         * @param aLeaf Лист или {@code null}.
+         * @param anIndex Позиция в листе.
+         * @param aTo Верхняя граница, исключительно, или {@code null}.
+         */
+        private LeafIterator(final Page aLeaf, final int anIndex, final K aTo) {
+            this.leaf = aLeaf;
+            this.index = anIndex;
+            this.to = aTo;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (leaf != null && index == leaf.size) {
+                leaf = leaf.next;
+                index = 0;
+            }
+
+            return leaf != null
+                && (to == null || key(leaf, index).compareTo(to) < 0);
+        }
+
+        @Override
+        public Node<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return entry(leaf, index++);
+        }
+    }
+
+    /**
+     * Неизменяемый снимок элемента дерева.
+     *
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     */
+    private static final class Entry<K extends Comparable<K>, V>
+        implements Node<K, V> {
+
+        /**
+         * Ключ.
+         */
+        private final K key;
+
+        /**
+         * Значение.
+         */
+        private final V value;
+
+        /**
+         * Конструктор.
+         *
+         * @param aKey Ключ.
+         * @param aValue Значение.
+         */
+        private Entry(final K aKey, final V aValue) {
+            this.key = aKey;
+            this.value = aValue;
+        }
+
+        @Override
+        public Node<K, V> getLeft() {
+            return null;
+        }
+
+        @Override
+        public Node<K, V> getRight() {
+            return null;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public int height() {
+            return 1;
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+}
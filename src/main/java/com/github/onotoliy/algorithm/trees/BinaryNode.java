@@ -1,20 +1,25 @@
 package com.github.onotoliy.algorithm.trees;
 
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Arrays;
 
 /**
  * Реализация элемента бинарного дерева.
  *
+ * <p>Элемент хранит высоту своего поддерева. Дерево, меняющее потомков
+ * элемента, пересчитывает ее методом {@link #updateHeight()} снизу вверх
+ * по измененному пути.
+ *
  * @param <K> Тип ключа.
  * @param <V> Тип значения
  * @author Anatoliy Pokhresnyi
  */
 public class BinaryNode<K extends Comparable<K>, V> implements Node<K, V> {
 
+    /**
+     * Начальный размер стека обхода при печати дерева.
+     */
+    private static final int INITIAL_STACK_SIZE = 16;
+
     /**
      * Ключ.
      */
@@ -35,6 +40,11 @@ public class BinaryNode<K extends Comparable<K>, V> implements Node<K, V> {
      */
     private Node<K, V> right;
 
+    /**
+     * Высота поддерева.
+     */
+    private int height;
+
     /**
      * Конструктор.
      *
@@ -51,6 +61,8 @@ public class BinaryNode<K extends Comparable<K>, V> implements Node<K, V> {
         this.value = aValue;
         this.left = aLeft;
         this.right = aRight;
+
+        updateHeight();
     }
 
     @Override
@@ -109,53 +121,83 @@ public class BinaryNode<K extends Comparable<K>, V> implements Node<K, V> {
         this.value = aValue;
     }
 
+    /**
+     * Возвращает сохраненную высоту поддерева.
+     *
+     * @return Высота поддерева.
+     */
     @Override
     public int height() {
-        if (left == null && right == null) {
-            return 1;
-        }
-
-        if (left == null) {
-            return right.height() + 1;
-        }
+        return height;
+    }
 
-        if (right == null) {
-            return left.height() + 1;
-        }
+    /**
+     * Пересчитывает высоту поддерева по сохраненным высотам потомков.
+     */
+    void updateHeight() {
+        int rightHeight = right == null ? 0 : right.height();
+        int leftHeight = left == null ? 0 : left.height();
 
-        return Math.max(left.height(), right.height()) + 1;
+        height = Math.max(leftHeight, rightHeight) + 1;
     }
 
     @Override
     public String toString() {
-        return String.join("\n", prettyTree(0, "b ", this));
+        return prettyTree(this);
     }
 
     /**
-     * Дерево в печатном формате.
+     * Дерево в печатном формате. Обход выполняется в прямом порядке с явным
+     * стеком: для каждого элемента в стеке хранится уровень, сдвинутый на
+     * один бит, и признак правого поддерева в младшем бите.
      *
-     * @param level Уровень.
-     * @param name Название.
-     * @param node Дерево.
+     * @param root Дерево.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
      * @return Дерево в печатном формате.
      */
-    private List<String> prettyTree(final int level,
-                                    final String name,
-                                    final Node<K, V> node) {
-        if (node == null) {
-            return Collections.emptyList();
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<K>, V> String prettyTree(
+        final Node<K, V> root) {
+        StringBuilder builder = new StringBuilder("b ").append(root.getKey());
+
+        Node<K, V>[] nodes = new Node[INITIAL_STACK_SIZE];
+        int[] marks = new int[INITIAL_STACK_SIZE];
+        int size = 0;
+
+        Node<K, V> node = root;
+        int level = 0;
+        while (true) {
+            if (size + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                marks = Arrays.copyOf(marks, marks.length * 2);
+            }
+
+            if (node.getRight() != null) {
+                nodes[size] = node.getRight();
+                marks[size++] = (level + 1) << 1 | 1;
+            }
+
+            if (node.getLeft() != null) {
+                nodes[size] = node.getLeft();
+                marks[size++] = (level + 1) << 1;
+            }
+
+            if (size == 0) {
+                return builder.toString();
+            }
+
+            node = nodes[--size];
+            nodes[size] = null;
+            level = marks[size] >>> 1;
+
+            builder.append('\n');
+            for (int i = 0; i < level; i++) {
+                builder.append("  ");
+            }
+
+            builder.append((marks[size] & 1) == 0 ? "l " : "r ")
+                   .append(node.getKey());
         }
-
-        List<String> levels = new LinkedList<>();
-        String spaces = IntStream.range(0, level)
-                                 .mapToObj(e -> "  ")
-                                 .collect(Collectors.joining());
-
-        levels.add(spaces + name + node.getKey());
-        levels.addAll(prettyTree(level + 1, "l ", node.getLeft()));
-        levels.addAll(prettyTree(level + 1, "r ", node.getRight()));
-
-        return levels;
     }
-
 }
@@ -1,19 +1,105 @@
 package com.github.onotoliy.algorithm.trees;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+
 /**
  * Бинарное дерево.
  *
+ * <p>Поиск, вставка и удаление реализованы циклами и не зависят от формы
+ * дерева: вырожденное в список дерево обрабатывается без переполнения стека.
+ *
+ * <p>Каждый элемент хранит высоту своего поддерева. Вставка и удаление
+ * запоминают элементы, пройденные при спуске, и после изменения
+ * пересчитывают их высоты снизу вверх без повторных сравнений. Поэтому
+ * высота дерева всегда известна за O(1).
+ *
  * @param <K> Тип ключа.
  * @param <V> Тип значения
  * @author Anatoliy Pokhresnyi
  */
 public class BinaryTree<K extends Comparable<K>, V> implements Tree<K, V> {
 
+    /**
+     * Начальный размер буфера при загрузке элементов из итератора.
+     */
+    private static final int INITIAL_LOAD_SIZE = 16;
+
+    /**
+     * Порядок ключей.
+     */
+    private final Comparator<? super K> comparator;
+
     /**
      * Дерево.
      */
     private BinaryNode<K, V> root = newNodeInstance(null, null);
 
+    /**
+     * Количество элементов.
+     */
+    private int treeSize;
+
+    /**
+     * Путь от корня до измененного элемента, пройденный текущей вставкой
+     * или удалением. Переиспользуется между операциями и растет вместе с
+     * высотой дерева.
+     */
+    @SuppressWarnings("unchecked")
+    private BinaryNode<K, V>[] heightPath = new BinaryNode[INITIAL_LOAD_SIZE];
+
+    /**
+     * Длина пути {@link #heightPath}.
+     */
+    private int heightPathLength;
+
+    /**
+     * Слушатель операций или {@code null}, если метрики не собираются.
+     */
+    private TreeListener listener;
+
+    /**
+     * Сравнения текущей операции сверх основного спуска.
+     */
+    private int extraComparisons;
+
+    /**
+     * Повороты текущей операции.
+     */
+    private int rotations;
+
+    /**
+     * Конструктор дерева с естественным порядком ключей.
+     */
+    public BinaryTree() {
+        this(Comparator.naturalOrder());
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param aComparator Порядок ключей.
+     */
+    public BinaryTree(final Comparator<? super K> aComparator) {
+        this.comparator = aComparator;
+    }
+
+    /**
+     * Возвращает корень дерева.
+     *
+     * @return Корень дерева.
+     */
+    protected BinaryNode<K, V> getRoot() {
+        return root;
+    }
+
     /**
      * Создает новый элемент бинарного дерева.
      * @param key Ключ.
@@ -25,352 +111,894 @@ public class BinaryTree<K extends Comparable<K>, V> implements Tree<K, V> {
     }
 
     /**
-     * Операция после вставки элемента в дерево.
+     * Изменяет количество элементов. Вызывается наследниками, которые
+     * вставляют или удаляют элементы в обход {@link #insert} и
+     * {@link #remove}.
      *
-     * @param node Дерево.
+     * @param delta Изменение количества элементов.
      */
-    protected void postInsert(final Node<K, V> node) {
+    protected final void updateSize(final int delta) {
+        treeSize += delta;
+    }
 
+    /**
+     * Подключает слушателя операций. Пока слушатель не подключен, дерево
+     * не тратит время на метрики.
+     *
+     * @param aListener Слушатель или {@code null}, чтобы отключить.
+     */
+    public void setListener(final TreeListener aListener) {
+        this.listener = aListener;
+        this.extraComparisons = 0;
+        this.rotations = 0;
     }
 
     /**
-     * Операция после удаление элемента из дерева.
+     * Учитывает сравнения, выполненные балансировкой сверх основного спуска.
      *
-     * @param node Дерево.
+     * @param count Количество сравнений.
      */
-    protected void postRemove(final Node<K, V> node) {
+    protected final void countComparisons(final int count) {
+        if (listener != null) {
+            extraComparisons += count;
+        }
+    }
 
+    /**
+     * Учитывает одинарный поворот, выполненный балансировкой.
+     */
+    protected final void countRotation() {
+        if (listener != null) {
+            rotations++;
+        }
     }
 
-    @Override
-    public Node<K, V> find(final K key) {
-        return find(key, root);
+    /**
+     * Сообщает слушателю о завершенном поиске. Вызывается наследниками,
+     * которые переопределяют {@link #find}.
+     *
+     * @param hit Найден ли ключ.
+     * @param depth Глубина спуска.
+     */
+    protected final void notifyFind(final boolean hit, final int depth) {
+        if (listener != null) {
+            listener.onFind(hit, depth);
+        }
     }
 
-    @Override
-    public Node<K, V> insert(final K key, final V value) {
-        if (root.getKey() == null) {
-            root.setKey(key);
-            root.setValue(value);
+    /**
+     * Сообщает слушателю о завершенной вставке вместе с накопленными
+     * сравнениями и поворотами. Вызывается наследниками, которые
+     * переопределяют {@link #insert}.
+     *
+     * @param inserted Создан ли новый элемент.
+     * @param depth Глубина спуска.
+     */
+    protected final void notifyInsert(final boolean inserted,
+                                      final int depth) {
+        if (listener != null) {
+            if (inserted) {
+                listener.onAllocate(1);
+            }
 
-            return root;
+            listener.onInsert(inserted, depth, depth + extraComparisons,
+                rotations);
+            extraComparisons = 0;
+            rotations = 0;
         }
+    }
 
-        BinaryNode<K, V> node = insert(key, value, root);
+    /**
+     * Сообщает слушателю о завершенном удалении вместе с накопленными
+     * сравнениями и поворотами. Вызывается наследниками, которые
+     * переопределяют {@link #remove}.
+     *
+     * @param removed Удален ли элемент.
+     * @param depth Глубина спуска.
+     */
+    protected final void notifyRemove(final boolean removed,
+                                      final int depth) {
+        if (listener != null) {
+            listener.onRemove(removed, depth, depth + extraComparisons,
+                rotations);
+            extraComparisons = 0;
+            rotations = 0;
+        }
+    }
 
-        postInsert(root);
+    /**
+     * Сообщает слушателю о созданных элементах.
+     *
+     * @param nodes Количество элементов.
+     */
+    private void notifyAllocate(final int nodes) {
+        if (listener != null && nodes > 0) {
+            listener.onAllocate(nodes);
+        }
+    }
 
-        return node;
+    /**
+     * Возвращает порядок ключей.
+     *
+     * @return Порядок ключей.
+     */
+    protected Comparator<? super K> getComparator() {
+        return comparator;
     }
 
-    @Override
-    public Node<K, V> remove(final K key) {
-        FamilyNode family = getFamilyNode(key, root);
+    /**
+     * Сравнение ключа с ключом элемента дерева. Все спуски по дереву
+     * выполняют ровно одно такое сравнение на каждом уровне.
+     *
+     * @param key Ключ.
+     * @param node Элемент дерева.
+     * @return Отрицательное число, ноль или положительное число, если ключ
+     *         меньше, равен или больше ключа элемента.
+     */
+    protected int compare(final K key, final Node<K, V> node) {
+        return comparator.compare(key, node.getKey());
+    }
 
-        if (family == null) {
-            return null;
-        }
+    /**
+     * Операция после вставки элемента в дерево. Пересчитывает высоты на пути
+     * до вставленного элемента; наследники, которые меняют форму дерева,
+     * сами поддерживают высоты.
+     *
+     * @param node Вставленный элемент.
+     */
+    protected void postInsert(final Node<K, V> node) {
+        updateHeights();
+    }
 
-        boolean emptyLeft = family.node.getLeft() == null;
-        boolean emptyRight = family.node.getRight() == null;
+    /**
+     * Операция перед удалением элемента из дерева. Вызывается, когда элемент
+     * найден, но еще не отсоединен.
+     *
+     * @param node Удаляемый элемент.
+     */
+    protected void preRemove(final Node<K, V> node) {
 
-        if (emptyLeft && emptyRight) {
-            removeSheet(toBinaryNode(family.node),
-                        toBinaryNode(family.parentNode));
-        } else {
-            if (emptyLeft || emptyRight) {
-                removeOneChild(toBinaryNode(family.node),
-                               toBinaryNode(family.parentNode));
-            } else {
-                removeTwoChild(toBinaryNode(family.node));
-            }
+    }
+
+    /**
+     * Операция после удаление элемента из дерева. Пересчитывает высоты на
+     * пути до элемента, поддерево которого изменилось; наследники, которые
+     * меняют форму дерева, сами поддерживают высоты или вызывают
+     * {@link #updateHeights()} до перестройки.
+     *
+     * @param node Элемент, поддерево которого изменилось при удалении
+     *             (родитель отсоединенного элемента или корень дерева).
+     */
+    protected void postRemove(final Node<K, V> node) {
+        updateHeights();
+    }
+
+    /**
+     * Пересчитывает высоты снизу вверх на пути, пройденном текущей вставкой
+     * или удалением, без сравнений ключей. Вызывается из
+     * {@link #postInsert} и {@link #postRemove}, пока форма дерева на пути
+     * не менялась.
+     */
+    protected final void updateHeights() {
+        for (int i = heightPathLength - 1; i >= 0; i--) {
+            heightPath[i].updateHeight();
         }
+    }
 
-        postRemove(root);
+    /**
+     * Добавляет элемент в конец пути {@link #heightPath}.
+     *
+     * @param node Элемент.
+     */
+    private void pushPath(final BinaryNode<K, V> node) {
+        if (heightPathLength == heightPath.length) {
+            heightPath = Arrays.copyOf(heightPath, heightPathLength * 2);
+        }
 
-        return family.node;
+        heightPath[heightPathLength++] = node;
     }
 
-    @Override
-    public int height() {
-        return root.height();
+    /**
+     * Освобождает ссылки пути {@link #heightPath}.
+     */
+    private void clearPath() {
+        while (heightPathLength > 0) {
+            heightPath[--heightPathLength] = null;
+        }
     }
 
     /**
-     * Поиск элемента в дереве.
+     * Операция после сборки элемента при загрузке дерева. Вызывается для
+     * каждого элемента после того, как собраны оба его поддерева и
+     * пересчитана его высота.
      *
-     * @param key Ключ.
-     * @param node Поддерево.
-     * @return Найденый элемент.
+     * @param node Собранный элемент.
      */
-    private BinaryNode<K, V> find(final K key, final BinaryNode<K, V> node) {
-        if (node == null) {
-            return null;
+    protected void postBuild(final Node<K, V> node) {
+
+    }
+
+    /**
+     * Заменяет содержимое дерева указанными элементами.
+     *
+     * <p>Если ключи строго возрастают, идеально сбалансированное дерево
+     * строится за один линейный проход без сравнений и поворотов. Иначе
+     * элементы сначала устойчиво сортируются по ключу; из повторяющихся
+     * ключей остается первый, как при последовательной вставке.
+     *
+     * @param keys Ключи.
+     * @param values Значения, {@code values[i]} соответствует
+     *               {@code keys[i]}.
+     */
+    public void load(final K[] keys, final V[] values) {
+        if (keys.length != values.length) {
+            throw new IllegalArgumentException(
+                keys.length + " keys, " + values.length + " values");
         }
 
-        if (isLeft(key, node)) {
-            return find(key, toBinaryNode(node.getLeft()));
+        if (isStrictlyAscending(keys, keys.length)) {
+            build(keys, values, keys.length);
+        } else {
+            K[] sortedKeys = Arrays.copyOf(keys, keys.length);
+            V[] sortedValues = Arrays.copyOf(values, values.length);
+
+            build(sortedKeys, sortedValues,
+                sortUnique(sortedKeys, sortedValues, keys.length));
         }
+    }
+
+    /**
+     * Заменяет содержимое дерева элементами из итератора. Правила те же, что
+     * у {@link #load(Comparable[], Object[])}.
+     *
+     * @param entries Элементы.
+     */
+    @SuppressWarnings("unchecked")
+    public void load(
+        final Iterator<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        K[] keys = (K[]) new Comparable[INITIAL_LOAD_SIZE];
+        V[] values = (V[]) new Object[INITIAL_LOAD_SIZE];
+
+        int size = 0;
+        while (entries.hasNext()) {
+            Map.Entry<? extends K, ? extends V> entry = entries.next();
+
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
 
-        if (isRight(key, node)) {
-            return find(key, toBinaryNode(node.getRight()));
+            keys[size] = entry.getKey();
+            values[size++] = entry.getValue();
         }
 
-        return node;
+        build(keys, values, sortUnique(keys, values, size));
     }
 
     /**
-     * Вставка элемента в дерево.
+     * Заменяет содержимое дерева элементами из потока. Правила те же, что
+     * у {@link #load(Comparable[], Object[])}.
      *
-     * @param key Ключ.
-     * @param value Значение.
-     * @param node Дерево.
-     * @return Элемент.
+     * @param entries Элементы.
      */
-    private BinaryNode<K, V> insert(final K key,
-                                    final V value,
-                                    final BinaryNode<K, V> node) {
-        if (isLeft(key, node)) {
-            if (node.getLeft() == null) {
-                node.setLeft(newNodeInstance(key, value));
+    public void load(
+        final Stream<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        load(entries.iterator());
+    }
 
-                return toBinaryNode(node.getLeft());
+    /**
+     * Вставка группы элементов слиянием с содержимым дерева. Дерево
+     * собирается заново за O(n + m) и балансируется один раз на всю группу.
+     * Существующие элементы переиспользуются, поэтому ранее возвращенные
+     * элементы остаются в дереве.
+     *
+     * @param entries Элементы.
+     * @return Вставленные элементы.
+     */
+    @SuppressWarnings("unchecked")
+    protected final List<Node<K, V>> rebuildInserting(
+        final Map<? extends K, ? extends V> entries) {
+        K[] keys = (K[]) new Comparable[entries.size()];
+        V[] values = (V[]) new Object[entries.size()];
+
+        int size = 0;
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            keys[size] = entry.getKey();
+            values[size++] = entry.getValue();
+        }
+
+        size = sortUnique(keys, values, size);
+
+        BinaryNode<K, V>[] existing = flatten();
+        BinaryNode<K, V>[] merged = new BinaryNode[existing.length + size];
+        List<Node<K, V>> inserted = new ArrayList<>();
+
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < existing.length || j < size) {
+            int compare;
+            if (i == existing.length) {
+                compare = 1;
+            } else if (j == size) {
+                compare = -1;
             } else {
-                return insert(key, value, toBinaryNode(node.getLeft()));
+                compare = comparator.compare(existing[i].getKey(), keys[j]);
+            }
+
+            if (compare <= 0) {
+                merged[count++] = existing[i++];
+                j = compare == 0 ? j + 1 : j;
+            } else {
+                BinaryNode<K, V> node = newNodeInstance(keys[j], values[j]);
+                j++;
+
+                inserted.add(node);
+                merged[count++] = node;
             }
         }
 
-        if (isRight(key, node)) {
-            if (node.getRight() == null) {
-                node.setRight(newNodeInstance(key, value));
+        build(merged, count);
+        notifyAllocate(inserted.size());
+
+        return inserted;
+    }
+
+    /**
+     * Удаление группы элементов слиянием с содержимым дерева. Дерево
+     * собирается заново за O(n + m) и балансируется один раз на всю группу.
+     *
+     * @param keys Ключи.
+     * @return Удаленные элементы.
+     */
+    @SuppressWarnings("unchecked")
+    protected final List<Node<K, V>> rebuildRemoving(
+        final Collection<? extends K> keys) {
+        K[] sorted = keys.toArray((K[]) new Comparable[keys.size()]);
+        int size = sortUnique(sorted, null, sorted.length);
+
+        BinaryNode<K, V>[] existing = flatten();
+        BinaryNode<K, V>[] kept = new BinaryNode[existing.length];
+        List<Node<K, V>> removed = new ArrayList<>();
+
+        int count = 0;
+        int j = 0;
+        for (BinaryNode<K, V> node : existing) {
+            while (j < size
+                && comparator.compare(sorted[j], node.getKey()) < 0) {
+                j++;
+            }
 
-                return toBinaryNode(node.getRight());
+            if (j < size && comparator.compare(sorted[j], node.getKey()) == 0) {
+                node.setLeft(null);
+                node.setRight(null);
+                node.updateHeight();
+                removed.add(node);
             } else {
-                return insert(key, value, toBinaryNode(node.getRight()));
+                kept[count++] = node;
             }
         }
 
-        return node;
+        build(kept, count);
+
+        return removed;
     }
 
     /**
-     * Удаление элемента из дерева. Элемент содержит двух потомков.
+     * Элементы дерева в порядке возрастания ключей. Обход выполняется
+     * циклом с явным стеком.
      *
-     * @param node Элемент.
+     * @return Элементы дерева.
      */
-    private void removeTwoChild(final BinaryNode<K, V> node) {
-        FamilyNode family = getLeftRightFamilyNode(node);
+    @SuppressWarnings("unchecked")
+    private BinaryNode<K, V>[] flatten() {
+        BinaryNode<K, V>[] nodes = new BinaryNode[INITIAL_LOAD_SIZE];
+        if (root.getKey() == null) {
+            return Arrays.copyOf(nodes, 0);
+        }
 
-        BinaryNode<K, V> rightLeftNode = toBinaryNode(family.node);
-        BinaryNode<K, V> rightLeftParentNode = toBinaryNode(family.parentNode);
+        BinaryNode<K, V>[] stack = new BinaryNode[INITIAL_LOAD_SIZE];
+        int depth = 0;
+        int size = 0;
 
-        if (isLeft(rightLeftNode.getKey(), rightLeftParentNode)) {
-            rightLeftParentNode.setLeft(rightLeftNode.getRight());
-        } else {
-            rightLeftParentNode.setRight(rightLeftNode.getLeft());
+        BinaryNode<K, V> node = root;
+        while (node != null || depth > 0) {
+            while (node != null) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+
+                stack[depth++] = node;
+                node = toBinaryNode(node.getLeft());
+            }
+
+            node = stack[--depth];
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+            }
+
+            nodes[size++] = node;
+            node = toBinaryNode(node.getRight());
         }
 
-        node.setKey(rightLeftNode.getKey());
-        node.setValue(rightLeftNode.getValue());
+        return Arrays.copyOf(nodes, size);
     }
 
     /**
-     * Удаление элемента из дерева. Элемент содержит одного потомка.
+     * Устойчиво сортирует элементы по ключу и удаляет повторяющиеся ключи,
+     * оставляя первый. Уже строго возрастающие ключи не сортируются.
      *
-     * @param node Элемент.
-     * @param parentNode Родительский элемент.
+     * @param keys Ключи.
+     * @param values Значения или {@code null}, если сортируются только
+     *               ключи.
+     * @param size Количество элементов.
+     * @return Количество элементов после удаления повторов.
      */
-    private void removeOneChild(final BinaryNode<K, V> node,
-                                final BinaryNode<K, V> parentNode) {
-        if (parentNode == null) {
-            Node<K, V> source = node.getLeft() == null
-                ? node.getRight()
-                : node.getLeft();
-
-            node.setKey(source.getKey());
-            node.setValue(source.getValue());
-            node.setRight(source.getRight());
-            node.setLeft(source.getLeft());
+    private int sortUnique(final K[] keys, final V[] values, final int size) {
+        if (isStrictlyAscending(keys, size)) {
+            return size;
+        }
 
-            return;
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
         }
 
-        if (isLeft(node.getKey(), parentNode)) {
-            if (node.getLeft() == null) {
-                parentNode.setLeft(node.getRight());
-            } else {
-                parentNode.setLeft(node.getLeft());
-            }
-        } else {
-            if (node.getLeft() == null) {
-                parentNode.setRight(node.getRight());
-            } else {
-                parentNode.setRight(node.getLeft());
+        K[] originalKeys = Arrays.copyOf(keys, size);
+        V[] originalValues = values == null
+            ? null
+            : Arrays.copyOf(values, size);
+        Arrays.sort(order,
+            (a, b) -> comparator.compare(originalKeys[a], originalKeys[b]));
+
+        int unique = 0;
+        for (Integer index : order) {
+            K key = originalKeys[index];
+            if (unique == 0 || comparator.compare(keys[unique - 1], key) != 0) {
+                keys[unique] = key;
+                if (values != null) {
+                    values[unique] = originalValues[index];
+                }
+
+                unique++;
             }
         }
+
+        return unique;
     }
 
     /**
-     * Удаление элемента из дерева. Элемент не содержит потомков.
+     * Проверяет, что ключи строго возрастают.
      *
-     * @param node Элемент.
-     * @param parentNode Родительский элемент.
+     * @param keys Ключи.
+     * @param size Количество ключей.
+     * @return Строго ли возрастают ключи.
      */
-    private void removeSheet(final BinaryNode<K, V> node,
-                             final BinaryNode<K, V> parentNode) {
-        if (parentNode == null) {
-            node.setKey(null);
-            node.setValue(null);
-            node.setLeft(null);
-            node.setRight(null);
-
-            return;
+    private boolean isStrictlyAscending(final K[] keys, final int size) {
+        for (int i = 1; i < size; i++) {
+            if (comparator.compare(keys[i - 1], keys[i]) >= 0) {
+                return false;
+            }
         }
 
-        if (isLeft(node.getKey(), parentNode)) {
-            parentNode.setLeft(null);
-        } else {
-            parentNode.setRight(null);
+        return true;
+    }
+
+    /**
+     * Заменяет содержимое дерева идеально сбалансированным деревом из
+     * отсортированных элементов.
+     *
+     * @param keys Отсортированные ключи.
+     * @param values Значения.
+     * @param count Количество элементов.
+     */
+    @SuppressWarnings("unchecked")
+    private void build(final K[] keys, final V[] values, final int count) {
+        BinaryNode<K, V>[] nodes = new BinaryNode[count];
+        for (int i = 0; i < count; i++) {
+            nodes[i] = newNodeInstance(keys[i], values[i]);
         }
+
+        build(nodes, count);
+        notifyAllocate(count);
     }
 
     /**
-     * Преобразование {@code Node} в {@code BinaryNode}.
+     * Заменяет содержимое дерева идеально сбалансированным деревом из
+     * отсортированных элементов.
      *
-     * @param node Дерево в формате {@code Node}.
-     * @return Дерево в формате {@code BinaryNode}.
+     * @param nodes Отсортированные элементы.
+     * @param count Количество элементов.
      */
-    private BinaryNode<K, V> toBinaryNode(final Node<K, V> node) {
-        return (BinaryNode<K, V>) node;
+    private void build(final BinaryNode<K, V>[] nodes, final int count) {
+        root = count == 0 ? newNodeInstance(null, null) : link(nodes, 0, count);
+        treeSize = count;
     }
 
     /**
-     * Сравнение ключей. Текущий элемент.
+     * Связывает отсортированные элементы в идеально сбалансированное
+     * поддерево. Глубина рекурсии равна высоте дерева, то есть O(log n).
      *
-     * @param key1 Ключ родительского элемента.
-     * @param node Элемент дерева.
-     * @return Результат проверки.
+     * @param nodes Отсортированные элементы.
+     * @param from Первый элемент, включительно.
+     * @param to Последний элемент, исключительно.
+     * @return Корень поддерева.
      */
-    private boolean isNow(final K key1, final Node<K, V> node) {
-        return key1.compareTo(node.getKey()) == 0;
+    private BinaryNode<K, V> link(final BinaryNode<K, V>[] nodes,
+                                  final int from,
+                                  final int to) {
+        int middle = (from + to) >>> 1;
+        BinaryNode<K, V> node = nodes[middle];
+
+        node.setLeft(from < middle ? link(nodes, from, middle) : null);
+        node.setRight(middle + 1 < to ? link(nodes, middle + 1, to) : null);
+        node.updateHeight();
+
+        postBuild(node);
+
+        return node;
+    }
+
+    @Override
+    public Node<K, V> find(final K key) {
+        if (root.getKey() == null) {
+            notifyFind(false, 0);
+
+            return null;
+        }
+
+        Node<K, V> node = root;
+        int depth = 0;
+        while (node != null) {
+            depth++;
+
+            int compare = compare(key, node);
+            if (compare == 0) {
+                notifyFind(true, depth);
+
+                return node;
+            }
+
+            node = compare < 0 ? node.getLeft() : node.getRight();
+        }
+
+        notifyFind(false, depth);
+
+        return null;
+    }
+
+    @Override
+    public Node<K, V> insert(final K key, final V value) {
+        if (root.getKey() == null) {
+            root.setKey(key);
+            root.setValue(value);
+            treeSize = 1;
+            notifyInsert(true, 0);
+
+            return root;
+        }
+
+        BinaryNode<K, V> node = root;
+        int depth = 1;
+        int compare;
+        while (true) {
+            compare = compare(key, node);
+            if (compare == 0) {
+                clearPath();
+                notifyInsert(false, depth);
+
+                return node;
+            }
+
+            pushPath(node);
+
+            Node<K, V> next = compare < 0 ? node.getLeft() : node.getRight();
+            if (next == null) {
+                break;
+            }
+
+            node = toBinaryNode(next);
+            depth++;
+        }
+
+        BinaryNode<K, V> child = newNodeInstance(key, value);
+        if (compare < 0) {
+            node.setLeft(child);
+        } else {
+            node.setRight(child);
+        }
+
+        treeSize++;
+
+        postInsert(child);
+        clearPath();
+        notifyInsert(true, depth);
+
+        return child;
+    }
+
+    @Override
+    public Node<K, V> remove(final K key) {
+        if (root.getKey() == null) {
+            notifyRemove(false, 0);
+
+            return null;
+        }
+
+        BinaryNode<K, V> parent = null;
+        BinaryNode<K, V> node = root;
+        int depth = 0;
+        while (node != null) {
+            depth++;
+
+            int compare = compare(key, node);
+            if (compare == 0) {
+                break;
+            }
+
+            pushPath(node);
+            parent = node;
+            node = toBinaryNode(compare < 0 ? node.getLeft() : node.getRight());
+        }
+
+        if (node == null) {
+            clearPath();
+            notifyRemove(false, depth);
+
+            return null;
+        }
+
+        preRemove(node);
+
+        boolean emptyLeft = node.getLeft() == null;
+        boolean emptyRight = node.getRight() == null;
+
+        BinaryNode<K, V> changed;
+        if (emptyLeft && emptyRight) {
+            changed = removeSheet(node, parent);
+        } else {
+            if (emptyLeft || emptyRight) {
+                changed = removeOneChild(node, parent);
+            } else {
+                changed = removeTwoChild(node, parent);
+            }
+        }
+
+        node.setLeft(null);
+        node.setRight(null);
+        node.updateHeight();
+        treeSize--;
+
+        postRemove(changed);
+        clearPath();
+        notifyRemove(true, depth);
+
+        return node;
     }
 
     /**
-     * Сравнение ключей. Левое поддерево.
+     * Удаление элемента с наименьшим ключом за один спуск по левому краю
+     * дерева. У наименьшего элемента нет левого потомка, поэтому он
+     * отсоединяется без поиска замены. Спуск не сравнивает ключей, поэтому
+     * слушатель получает нулевую глубину.
      *
-     * @param key Ключ родительского элемента.
-     * @param node Элемент дерева.
-     * @return Результат проверки.
+     * @return Удаленный элемент или {@code null}, если дерево пусто.
      */
-    private boolean isLeft(final K key, final Node<K, V> node) {
-        return key.compareTo(node.getKey()) < 0;
+    @Override
+    public Node<K, V> pollFirst() {
+        if (root.getKey() == null) {
+            notifyRemove(false, 0);
+
+            return null;
+        }
+
+        BinaryNode<K, V> parent = null;
+        BinaryNode<K, V> node = root;
+        while (node.getLeft() != null) {
+            pushPath(node);
+            parent = node;
+            node = toBinaryNode(node.getLeft());
+        }
+
+        preRemove(node);
+
+        BinaryNode<K, V> changed = node.getRight() == null
+            ? removeSheet(node, parent)
+            : removeOneChild(node, parent);
+
+        node.setRight(null);
+        node.updateHeight();
+        treeSize--;
+
+        postRemove(changed);
+        clearPath();
+        notifyRemove(true, 0);
+
+        return node;
+    }
+
+    @Override
+    public Node<K, V> floor(final K key) {
+        return Navigation.floor(top(), key, true, comparator);
+    }
+
+    @Override
+    public Node<K, V> ceiling(final K key) {
+        return Navigation.ceiling(top(), key, true, comparator);
+    }
+
+    @Override
+    public Node<K, V> lower(final K key) {
+        return Navigation.floor(top(), key, false, comparator);
+    }
+
+    @Override
+    public Node<K, V> higher(final K key) {
+        return Navigation.ceiling(top(), key, false, comparator);
+    }
+
+    @Override
+    public Node<K, V> first() {
+        return Navigation.first(top());
+    }
+
+    @Override
+    public Node<K, V> last() {
+        return Navigation.last(top());
+    }
+
+    @Override
+    public Iterator<Node<K, V>> iterator(final K from, final K to) {
+        return new NodeIterator<>(top(), from, to, comparator);
     }
 
     /**
-     * Сравнение ключей. Правое поддерево.
+     * Разделяемый обход элементов. Обход всего дерева знает точный размер
+     * {@link #size()}, а части получают половину оценки при каждом
+     * разделении, что для сбалансированного дерева близко к размерам
+     * поддеревьев.
      *
-     * @param key Ключ родительского элемента.
-     * @param node Элемент дерева.
-     * @return Результат проверки.
+     * @return Обход элементов.
      */
-    private boolean isRight(final K key, final Node<K, V> node) {
-        return key.compareTo(node.getKey()) > 0;
+    @Override
+    public Spliterator<Node<K, V>> spliterator() {
+        return new NodeSpliterator<>(top(), size());
+    }
+
+    @Override
+    public int size() {
+        return treeSize;
     }
 
     /**
-     * Получение самого правого элемента левого поддерева и его родительский
-     * элемент.
+     * Высота дерева за O(1): корень хранит высоту своего поддерева, и
+     * вставка, удаление и повороты обновляют ее на пути до корня.
      *
-     * @param node Дерево.
-     * @return Самый правый элемент левого поддерева и его родительский
-     *         элемент.
+     * @return Высота дерева.
      */
-    private FamilyNode getLeftRightFamilyNode(final Node<K, V> node) {
-        return getRightFamilyNode(node, node.getLeft());
+    @Override
+    public int height() {
+        return treeSize == 0 ? 0 : root.height();
     }
 
     /**
-     * Получение самого правого элемента дерева и его родительский элемент.
+     * Удаление элемента из дерева. Элемент содержит двух потомков. На место
+     * элемента переносится самый правый элемент левого поддерева. Путь
+     * {@link #heightPath} продолжается перенесенным элементом и пройденными
+     * элементами левого поддерева.
      *
-     * @param node Дерево.
+     * @param node Элемент.
      * @param parentNode Родительский элемент.
-     * @return Самый правый элемент дерева и его родительский элемент.
+     * @return Элемент, поддерево которого изменилось.
      */
-    private FamilyNode getRightFamilyNode(final Node<K, V> parentNode,
-                                          final Node<K, V> node) {
-        if (node.getRight() == null) {
-            return new FamilyNode(parentNode, node);
+    private BinaryNode<K, V> removeTwoChild(final BinaryNode<K, V> node,
+                                            final BinaryNode<K, V> parentNode) {
+        BinaryNode<K, V> rightLeftParentNode = node;
+        BinaryNode<K, V> rightLeftNode = toBinaryNode(node.getLeft());
+
+        int slot = heightPathLength;
+        pushPath(rightLeftNode);
+        while (rightLeftNode.getRight() != null) {
+            rightLeftParentNode = rightLeftNode;
+            pushPath(rightLeftParentNode);
+            rightLeftNode = toBinaryNode(rightLeftNode.getRight());
+        }
+
+        heightPath[slot] = rightLeftNode;
+
+        if (rightLeftParentNode != node) {
+            rightLeftParentNode.setRight(rightLeftNode.getLeft());
+            rightLeftNode.setLeft(node.getLeft());
         }
 
-        return getRightFamilyNode(node, node.getRight());
+        rightLeftNode.setRight(node.getRight());
+        replace(node, rightLeftNode, parentNode);
+
+        return rightLeftParentNode == node
+            ? rightLeftNode
+            : rightLeftParentNode;
     }
 
     /**
-     * Получение элемента дерева и его родительский элемент.
+     * Удаление элемента из дерева. Элемент содержит одного потомка.
      *
-     * @param key Ключ.
-     * @param node Дерево.
-     * @return Элемент дерева и его родительский элемент.
+     * @param node Элемент.
+     * @param parentNode Родительский элемент.
+     * @return Элемент, поддерево которого изменилось.
      */
-    private FamilyNode getFamilyNode(final K key, final Node<K, V> node) {
-        if (isNow(key, node)) {
-            return new FamilyNode(null, node);
-        }
+    private BinaryNode<K, V> removeOneChild(final BinaryNode<K, V> node,
+                                            final BinaryNode<K, V> parentNode) {
+        BinaryNode<K, V> child = toBinaryNode(node.getLeft() == null
+            ? node.getRight()
+            : node.getLeft());
+
+        replace(node, child, parentNode);
 
-        return isLeft(key, node)
-            ? getFamilyNode(key, node, node.getLeft())
-            : getFamilyNode(key, node, node.getRight());
+        return parentNode == null ? child : parentNode;
     }
 
     /**
-     * Получение элемента дерева и его родительский элемент.
+     * Удаление элемента из дерева. Элемент не содержит потомков.
      *
-     * @param key Ключ.
-     * @param parent Родительский элемент.
-     * @param node Дерево.
-     * @return Элемент дерева и его родительский элемент.
+     * @param node Элемент.
+     * @param parentNode Родительский элемент.
+     * @return Элемент, поддерево которого изменилось.
      */
-    private FamilyNode getFamilyNode(final K key,
-                                     final Node<K, V> parent,
-                                     final Node<K, V> node) {
-        if (node == null) {
-            return null;
+    private BinaryNode<K, V> removeSheet(final BinaryNode<K, V> node,
+                                         final BinaryNode<K, V> parentNode) {
+        if (parentNode == null) {
+            root = newNodeInstance(null, null);
+
+            return root;
         }
 
-        return isNow(key, node)
-            ? new FamilyNode(parent, node)
-            : getFamilyNode(key, node);
+        replace(node, null, parentNode);
+
+        return parentNode;
     }
 
-    @Override
-    public String toString() {
-        return root.toString();
+    /**
+     * Замена поддерева в родительском элементе. Высоты не пересчитываются:
+     * это делает вызывающий код.
+     *
+     * @param node Заменяемое поддерево.
+     * @param replacement Новое поддерево.
+     * @param parentNode Родительский элемент или {@code null}, если
+     *                   заменяется корень.
+     */
+    protected void replace(final BinaryNode<K, V> node,
+                           final BinaryNode<K, V> replacement,
+                           final BinaryNode<K, V> parentNode) {
+        if (parentNode == null) {
+            root = replacement;
+        } else if (parentNode.getLeft() == node) {
+            parentNode.setLeft(replacement);
+        } else {
+            parentNode.setRight(replacement);
+        }
     }
 
     /**
-     * Элемент дерева и его родительский элемент.
+     * Возвращает корень непустого дерева.
+     *
+     * @return Корень дерева или {@code null}, если дерево пусто.
      */
-    private final class FamilyNode {
-        /**
-         * Родительский элемент.
-         */
-        private final Node<K, V> parentNode;
+    private Node<K, V> top() {
+        return root.getKey() == null ? null : root;
+    }
 
-        /**
-         * Элемент.
-         */
-        private final Node<K, V> node;
+    /**
+     * Преобразование {@code Node} в {@code BinaryNode}.
+     *
+     * @param node Дерево в формате {@code Node}.
+     * @return Дерево в формате {@code BinaryNode}.
+     */
+    private BinaryNode<K, V> toBinaryNode(final Node<K, V> node) {
+        return (BinaryNode<K, V>) node;
+    }
 
-        /**
-         * Конструктор.
-         *
-         * @param aParentNode Родительский элемент.
-         * @param aNode Элемент.
-         */
-        private FamilyNode(final Node<K, V> aParentNode,
-                           final Node<K, V> aNode) {
-            this.parentNode = aParentNode;
-            this.node = aNode;
-        }
+    @Override
+    public String toString() {
+        return root.toString();
     }
 }
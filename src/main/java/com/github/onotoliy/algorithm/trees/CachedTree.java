@@ -0,0 +1,226 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+
+/**
+ * Дерево с кэшем поиска.
+ *
+ * <p>{@link #find} сначала ищет ключ в ограниченной хеш-таблице последних
+ * найденных элементов и спускается по дереву только при промахе. При
+ * переполнении вытесняется элемент, к которому дольше всего не обращались
+ * (LRU). Ключи, которых нет в дереве, не кэшируются.
+ *
+ * <p>Вставка и удаление через обертку удаляют ключ из кэша. Изменять
+ * обернутое дерево в обход обертки нельзя. Ключи должны сравниваться
+ * согласованно с {@code equals} и {@code hashCode}.
+ *
+ * <p>Найденный в кэше элемент проверяется по ключу: деревья, которые при
+ * удалении переносят ключи между элементами, как {@link ArrayAVLTree}, не
+ * получат из кэша чужой элемент.
+ *
+ * <p>Обертка не потокобезопасна: даже {@link #find} меняет порядок
+ * вытеснения.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class CachedTree<K extends Comparable<K>, V> implements Tree<K, V> {
+
+    /**
+     * Коэффициент заполнения хеш-таблицы.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Дерево.
+     */
+    private final Tree<K, V> tree;
+
+    /**
+     * Кэш найденных элементов в порядке обращения.
+     */
+    private final Map<K, Node<K, V>> cache;
+
+    /**
+     * Количество поисков, обслуженных кэшем.
+     */
+    private long hits;
+
+    /**
+     * Количество поисков, дошедших до дерева.
+     */
+    private long misses;
+
+    /**
+     * Конструктор.
+     *
+     * @param aTree Дерево.
+     * @param capacity Наибольшее количество элементов в кэше.
+     */
+    public CachedTree(final Tree<K, V> aTree, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity " + capacity);
+        }
+
+        this.tree = aTree;
+        this.cache = new LinkedHashMap<K, Node<K, V>>(
+            (int) (capacity / LOAD_FACTOR) + 1, LOAD_FACTOR, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                final Map.Entry<K, Node<K, V>> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    @Override
+    public Node<K, V> find(final K key) {
+        Node<K, V> node = cache.get(key);
+        if (node != null && key.equals(node.getKey())) {
+            hits++;
+
+            return node;
+        }
+
+        misses++;
+        node = tree.find(key);
+        if (node == null) {
+            cache.remove(key);
+        } else {
+            cache.put(key, node);
+        }
+
+        return node;
+    }
+
+    @Override
+    public Node<K, V> insert(final K key, final V value) {
+        cache.remove(key);
+
+        return tree.insert(key, value);
+    }
+
+    @Override
+    public Node<K, V> remove(final K key) {
+        cache.remove(key);
+
+        return tree.remove(key);
+    }
+
+    @Override
+    public Node<K, V> pollFirst() {
+        Node<K, V> first = tree.pollFirst();
+        if (first != null) {
+            cache.remove(first.getKey());
+        }
+
+        return first;
+    }
+
+    @Override
+    public List<Node<K, V>> insertAll(
+        final Map<? extends K, ? extends V> entries) {
+        cache.keySet().removeAll(entries.keySet());
+
+        return tree.insertAll(entries);
+    }
+
+    @Override
+    public List<Node<K, V>> removeAll(final Collection<? extends K> keys) {
+        cache.keySet().removeAll(keys);
+
+        return tree.removeAll(keys);
+    }
+
+    @Override
+    public Node<K, V> floor(final K key) {
+        return tree.floor(key);
+    }
+
+    @Override
+    public Node<K, V> ceiling(final K key) {
+        return tree.ceiling(key);
+    }
+
+    @Override
+    public Node<K, V> lower(final K key) {
+        return tree.lower(key);
+    }
+
+    @Override
+    public Node<K, V> higher(final K key) {
+        return tree.higher(key);
+    }
+
+    @Override
+    public Node<K, V> first() {
+        return tree.first();
+    }
+
+    @Override
+    public Node<K, V> last() {
+        return tree.last();
+    }
+
+    @Override
+    public Iterator<Node<K, V>> iterator(final K from, final K to) {
+        return tree.iterator(from, to);
+    }
+
+    @Override
+    public Spliterator<Node<K, V>> spliterator() {
+        return tree.spliterator();
+    }
+
+    @Override
+    public int size() {
+        return tree.size();
+    }
+
+    @Override
+    public int height() {
+        return tree.height();
+    }
+
+    /**
+     * Очищает кэш.
+     */
+    public void invalidateAll() {
+        cache.clear();
+    }
+
+    /**
+     * Возвращает количество поисков, обслуженных кэшем.
+     *
+     * @return Количество попаданий.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Возвращает количество поисков, дошедших до дерева.
+     *
+     * @return Количество промахов.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Возвращает долю поисков, обслуженных кэшем.
+     *
+     * @return Доля попаданий или ноль, если поисков не было.
+     */
+    public double hitRatio() {
+        long lookups = hits + misses;
+
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
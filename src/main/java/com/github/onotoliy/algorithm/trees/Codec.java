@@ -0,0 +1,33 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Двоичное представление ключей или значений дерева для
+ * {@link TreeSerializer}. Готовые реализации собраны в {@link Codecs}.
+ *
+ * @param <T> Тип объекта.
+ * @author Anatoliy Pokhresnyi
+ */
+public interface Codec<T> {
+
+    /**
+     * Записывает объект.
+     *
+     * @param value Объект.
+     * @param out Выходные данные.
+     * @throws IOException Ошибка записи.
+     */
+    void write(T value, DataOutput out) throws IOException;
+
+    /**
+     * Читает объект, записанный {@link #write}.
+     *
+     * @param in Входные данные.
+     * @return Объект.
+     * @throws IOException Ошибка чтения или данные повреждены.
+     */
+    T read(DataInput in) throws IOException;
+}
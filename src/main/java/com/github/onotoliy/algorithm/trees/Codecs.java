@@ -0,0 +1,178 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Готовые реализации {@link Codec}.
+ *
+ * <p>Числа записываются в формате переменной длины: по семь бит в байте,
+ * старший бит означает, что число продолжается. Знаковые числа
+ * предварительно переводятся в zigzag-кодировку, поэтому небольшие по модулю
+ * числа занимают один-два байта независимо от знака.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public final class Codecs {
+
+    /**
+     * Числа типа {@code long}.
+     */
+    public static final Codec<Long> LONG = new Codec<Long>() {
+        @Override
+        public void write(final Long value, final DataOutput out)
+            throws IOException {
+            writeVarLong(out, zigzag(value));
+        }
+
+        @Override
+        public Long read(final DataInput in) throws IOException {
+            return unzigzag(readVarLong(in));
+        }
+    };
+
+    /**
+     * Числа типа {@code int}.
+     */
+    public static final Codec<Integer> INTEGER = new Codec<Integer>() {
+        @Override
+        public void write(final Integer value, final DataOutput out)
+            throws IOException {
+            writeVarLong(out, zigzag(value));
+        }
+
+        @Override
+        public Integer read(final DataInput in) throws IOException {
+            long value = unzigzag(readVarLong(in));
+            if (value != (int) value) {
+                throw new IOException("Integer out of range: " + value);
+            }
+
+            return (int) value;
+        }
+    };
+
+    /**
+     * Массивы байт с длиной в начале.
+     */
+    public static final Codec<byte[]> BYTES = new Codec<byte[]>() {
+        @Override
+        public void write(final byte[] value, final DataOutput out)
+            throws IOException {
+            writeVarLong(out, value.length);
+            out.write(value);
+        }
+
+        @Override
+        public byte[] read(final DataInput in) throws IOException {
+            long length = readVarLong(in);
+            if (length < 0 || length > Integer.MAX_VALUE) {
+                throw new IOException("Invalid length: " + length);
+            }
+
+            byte[] value = new byte[(int) length];
+            in.readFully(value);
+
+            return value;
+        }
+    };
+
+    /**
+     * Строки в UTF-8 с длиной в начале.
+     */
+    public static final Codec<String> STRING = new Codec<String>() {
+        @Override
+        public void write(final String value, final DataOutput out)
+            throws IOException {
+            BYTES.write(value.getBytes(StandardCharsets.UTF_8), out);
+        }
+
+        @Override
+        public String read(final DataInput in) throws IOException {
+            return new String(BYTES.read(in), StandardCharsets.UTF_8);
+        }
+    };
+
+    /**
+     * Количество значащих бит в байте числа переменной длины.
+     */
+    private static final int VAR_BITS = 7;
+
+    /**
+     * Значащие биты байта числа переменной длины.
+     */
+    private static final int VAR_MASK = 0x7F;
+
+    /**
+     * Признак продолжения числа переменной длины.
+     */
+    private static final int VAR_MORE = 0x80;
+
+    /**
+     * Конструктор.
+     */
+    private Codecs() {
+    }
+
+    /**
+     * Записывает число без знака в формате переменной длины: от одного до
+     * десяти байт.
+     *
+     * @param out Выходные данные.
+     * @param value Число.
+     * @throws IOException Ошибка записи.
+     */
+    public static void writeVarLong(final DataOutput out, final long value)
+        throws IOException {
+        long rest = value;
+        while ((rest & ~VAR_MASK) != 0) {
+            out.writeByte((int) (rest & VAR_MASK) | VAR_MORE);
+            rest >>>= VAR_BITS;
+        }
+
+        out.writeByte((int) rest);
+    }
+
+    /**
+     * Читает число, записанное {@link #writeVarLong}.
+     *
+     * @param in Входные данные.
+     * @return Число.
+     * @throws IOException Ошибка чтения или число длиннее десяти байт.
+     */
+    public static long readVarLong(final DataInput in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < Long.SIZE; shift += VAR_BITS) {
+            int next = in.readUnsignedByte();
+            value |= (long) (next & VAR_MASK) << shift;
+            if ((next & VAR_MORE) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed variable-length number");
+    }
+
+    /**
+     * Переводит знаковое число в zigzag-кодировку: 0, -1, 1, -2, ... в
+     * 0, 1, 2, 3, ...
+     *
+     * @param value Число.
+     * @return Закодированное число.
+     */
+    private static long zigzag(final long value) {
+        return (value << 1) ^ (value >> (Long.SIZE - 1));
+    }
+
+    /**
+     * Обратное преобразование {@link #zigzag}.
+     *
+     * @param value Закодированное число.
+     * @return Число.
+     */
+    private static long unzigzag(final long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
@@ -0,0 +1,310 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Потокобезопасное AVL дерево для нагрузки с преобладанием чтения.
+ *
+ * <p>Элементы дерева неизменяемы. Изменение копирует путь от корня до
+ * измененного места и публикует новый корень volatile записью, поэтому
+ * {@link #find} не берет блокировок и всегда видит целостную версию дерева.
+ * Писатели упорядочиваются между собой блокировкой. Обновление создает
+ * O(log n) элементов. Пакетные операции применяются к одной версии под одной
+ * блокировкой и публикуются целиком, поэтому читатель не видит пакет
+ * частично.
+ *
+ * <p>Элемент, возвращенный методами дерева, неизменяем: его ключ, значение и
+ * поддеревья соответствуют версии дерева в момент вызова. Текущую версию
+ * целиком можно получить методом {@link #snapshot()} за O(1).
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class ConcurrentAVLTree<K extends Comparable<K>, V>
+    implements Tree<K, V> {
+
+    /**
+     * Блокировка писателей.
+     */
+    private final Lock lock = new ReentrantLock();
+
+    /**
+     * Корень текущей версии дерева.
+     */
+    private volatile PersistentNode<K, V> root;
+
+    /**
+     * Количество элементов. Меняется только под блокировкой писателей.
+     */
+    private volatile int size;
+
+    @Override
+    public Node<K, V> find(final K key) {
+        return PersistentNode.find(root, key);
+    }
+
+    @Override
+    public Node<K, V> insert(final K key, final V value) {
+        PersistentNode<K, V>[] found = newHolder();
+
+        lock.lock();
+        try {
+            PersistentNode<K, V> current = root;
+            PersistentNode<K, V> next =
+                PersistentNode.insert(current, key, value, found);
+
+            if (next != current) {
+                size++;
+                root = next;
+            }
+
+            return found[0];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Node<K, V> remove(final K key) {
+        PersistentNode<K, V>[] removed = newHolder();
+
+        lock.lock();
+        try {
+            PersistentNode<K, V> current = root;
+            PersistentNode<K, V> next =
+                PersistentNode.remove(current, key, removed);
+
+            if (next != current) {
+                size--;
+                root = next;
+            }
+
+            return removed[0];
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Вставка группы элементов. Весь пакет применяется к одной версии дерева
+     * под одной блокировкой и публикуется одной записью корня. Поддеревья
+     * возвращенных элементов соответствуют промежуточным версиям пакета.
+     *
+     * @param entries Элементы.
+     * @return Вставленные элементы.
+     */
+    @Override
+    public List<Node<K, V>> insertAll(
+        final Map<? extends K, ? extends V> entries) {
+        PersistentNode<K, V>[] found = newHolder();
+        List<Node<K, V>> inserted = new ArrayList<>();
+
+        lock.lock();
+        try {
+            PersistentNode<K, V> current = root;
+            for (Map.Entry<? extends K, ? extends V> entry
+                : entries.entrySet()) {
+                PersistentNode<K, V> next = PersistentNode.insert(
+                    current, entry.getKey(), entry.getValue(), found);
+
+                if (next != current) {
+                    inserted.add(found[0]);
+                    current = next;
+                }
+            }
+
+            size += inserted.size();
+            root = current;
+
+            return inserted;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Удаление группы элементов. Весь пакет применяется к одной версии
+     * дерева под одной блокировкой и публикуется одной записью корня.
+     *
+     * @param keys Ключи.
+     * @return Удаленные элементы.
+     */
+    @Override
+    public List<Node<K, V>> removeAll(final Collection<? extends K> keys) {
+        PersistentNode<K, V>[] removed = newHolder();
+        List<Node<K, V>> result = new ArrayList<>();
+
+        lock.lock();
+        try {
+            PersistentNode<K, V> current = root;
+            for (K key : keys) {
+                PersistentNode<K, V> next =
+                    PersistentNode.remove(current, key, removed);
+
+                if (next != current) {
+                    result.add(removed[0]);
+                    current = next;
+                }
+            }
+
+            size -= result.size();
+            root = current;
+
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Node<K, V> floor(final K key) {
+        return Navigation.floor(root, key, true,
+            Comparator.naturalOrder());
+    }
+
+    @Override
+    public Node<K, V> ceiling(final K key) {
+        return Navigation.ceiling(root, key, true,
+            Comparator.naturalOrder());
+    }
+
+    @Override
+    public Node<K, V> lower(final K key) {
+        return Navigation.floor(root, key, false,
+            Comparator.naturalOrder());
+    }
+
+    @Override
+    public Node<K, V> higher(final K key) {
+        return Navigation.ceiling(root, key, false,
+            Comparator.naturalOrder());
+    }
+
+    @Override
+    public Node<K, V> first() {
+        return Navigation.first(root);
+    }
+
+    @Override
+    public Node<K, V> last() {
+        return Navigation.last(root);
+    }
+
+    @Override
+    public Node<K, V> pollFirst() {
+        lock.lock();
+        try {
+            PersistentNode<K, V> current = root;
+            Node<K, V> node = Navigation.first(current);
+
+            if (node != null) {
+                size--;
+                root = PersistentNode.remove(current, node.getKey());
+            }
+
+            return node;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Обход элементов версии дерева, текущей на момент вызова. Изменения
+     * дерева во время обхода на него не влияют.
+     *
+     * @param from Нижняя граница, включительно, или {@code null}.
+     * @param to Верхняя граница, исключительно, или {@code null}.
+     * @return Обход элементов.
+     */
+    @Override
+    public Iterator<Node<K, V>> iterator(final K from, final K to) {
+        return new NodeIterator<>(root, from, to, Comparator.naturalOrder());
+    }
+
+    /**
+     * Разделяемый обход версии дерева, текущей на момент вызова. Версия
+     * неизменяема, поэтому части можно обходить параллельно без блокировок.
+     * Корень и размер публикуются разными записями, поэтому для точного
+     * размера обхода они читаются под блокировкой писателей.
+     *
+     * @return Обход элементов.
+     */
+    @Override
+    public Spliterator<Node<K, V>> spliterator() {
+        lock.lock();
+        try {
+            return new NodeSpliterator<>(root, size);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Количество элементов. Размер и корень публикуются разными записями,
+     * поэтому во время изменения дерева размер может на единицу отличаться
+     * от версии, которую видит параллельный {@link #find}.
+     *
+     * @return Количество элементов.
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int height() {
+        PersistentNode<K, V> current = root;
+
+        return current == null ? 0 : current.height();
+    }
+
+    /**
+     * Возвращает снимок текущей версии дерева. Снимок не меняется при
+     * последующих изменениях дерева и не требует копирования.
+     *
+     * @return Снимок дерева.
+     */
+    public PersistentAVLTree<K, V> snapshot() {
+        return PersistentAVLTree.of(root);
+    }
+
+    /**
+     * Проверяет согласованность текущей версии дерева: сохраненные высоты
+     * совпадают с фактическими, а баланс каждого поддерева лежит в диапазоне
+     * [-1, 1].
+     *
+     * @throws IllegalStateException Нарушен инвариант AVL дерева.
+     */
+    public void checkConsistency() {
+        PersistentNode.checkConsistency(root);
+    }
+
+    @Override
+    public String toString() {
+        PersistentNode<K, V> current = root;
+
+        return current == null ? "b null" : current.toString();
+    }
+
+    /**
+     * Создает массив для элемента, найденного при изменении дерева.
+     *
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Массив из одного элемента.
+     */
+    @SuppressWarnings("unchecked")
+    private static <K extends Comparable<K>, V> PersistentNode<K, V>[]
+        newHolder() {
+        return new PersistentNode[1];
+    }
+}
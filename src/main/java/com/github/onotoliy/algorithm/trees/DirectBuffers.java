@@ -0,0 +1,42 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+/**
+ * Работа с прямыми буферами.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+final class DirectBuffers {
+
+    /**
+     * Конструктор.
+     */
+    private DirectBuffers() {
+    }
+
+    /**
+     * Освобождает память прямого или отображенного в память буфера, не
+     * дожидаясь сборки мусора. Если среда выполнения не позволяет освободить
+     * память явно, она будет освобождена сборщиком мусора.
+     *
+     * @param target Буфер.
+     * @return Освобождена ли память явно.
+     */
+    static boolean release(final ByteBuffer target) {
+        try {
+            Class<?> type = Class.forName("sun.misc.Unsafe");
+            Field field = type.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+
+            Method cleaner = type.getMethod("invokeCleaner", ByteBuffer.class);
+            cleaner.invoke(field.get(null), target);
+
+            return true;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,428 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Дерево, сохраняющее изменения на диск.
+ *
+ * <p>Каталог дерева содержит снимок {@code checkpoint} в формате
+ * {@link TreeSerializer} и журнал предзаписи {@code wal}. Каждая вставка
+ * нового ключа и каждое удаление добавляют запись в журнал и фиксируют ее
+ * согласно {@link SyncPolicy}. Когда журнал вырастает до
+ * {@link #setCheckpointSize порога}, дерево записывает новый снимок и
+ * очищает журнал. При открытии дерево загружает снимок за O(n) и повторяет
+ * записи журнала; неполный хвост журнала, оставленный сбоем, отбрасывается.
+ *
+ * <p>Снимок записывается во временный файл и переименовывается, поэтому сбой
+ * во время записи оставляет предыдущий снимок. Если сбой случился между
+ * переименованием и очисткой журнала, журнал повторяется поверх нового
+ * снимка. Повтор не меняет результата: вставка не заменяет значение
+ * существующего ключа, поэтому последняя операция над ключом определяет его
+ * состояние так же, как при первом выполнении.
+ *
+ * <p>Методы синхронизированы, а фиксация выполняется вне монитора дерева,
+ * поэтому при {@link SyncPolicy#GROUP} параллельные писатели делят сбросы
+ * на диск. Изменения видны читателям до того, как зафиксированы. Обход не
+ * синхронизирован и не должен выполняться одновременно с изменениями. После
+ * ошибки записи состояние в памяти может опережать диск, и дерево нужно
+ * открыть заново.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class DurableTree<K extends Comparable<K>, V>
+    implements Tree<K, V>, AutoCloseable {
+
+    /**
+     * Имя файла снимка.
+     */
+    private static final String CHECKPOINT = "checkpoint";
+
+    /**
+     * Имя временного файла снимка.
+     */
+    private static final String CHECKPOINT_TEMP = "checkpoint.tmp";
+
+    /**
+     * Имя файла журнала.
+     */
+    private static final String LOG = "wal";
+
+    /**
+     * Запись журнала о вставке.
+     */
+    private static final byte INSERT = 1;
+
+    /**
+     * Запись журнала об удалении.
+     */
+    private static final byte REMOVE = 2;
+
+    /**
+     * Порог длины журнала по умолчанию.
+     */
+    private static final long DEFAULT_CHECKPOINT_SIZE = 64L << 20;
+
+    /**
+     * Каталог дерева.
+     */
+    private final Path directory;
+
+    /**
+     * Дерево в памяти.
+     */
+    private final BinaryTree<K, V> tree;
+
+    /**
+     * Представление ключей.
+     */
+    private final Codec<K> keyCodec;
+
+    /**
+     * Представление значений.
+     */
+    private final Codec<V> valueCodec;
+
+    /**
+     * Запись и чтение снимка.
+     */
+    private final TreeSerializer<K, V> serializer;
+
+    /**
+     * Буфер записи журнала.
+     */
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream();
+
+    /**
+     * Запись данных в буфер записи журнала.
+     */
+    private final DataOutputStream recordData = new DataOutputStream(record);
+
+    /**
+     * Журнал.
+     */
+    private final WriteAheadLog log;
+
+    /**
+     * Длина журнала, при которой записывается снимок.
+     */
+    private long checkpointSize = DEFAULT_CHECKPOINT_SIZE;
+
+    /**
+     * Конструктор. Открывает или создает дерево в каталоге и восстанавливает
+     * его состояние. Содержимое переданного дерева заменяется.
+     *
+     * @param aDirectory Каталог.
+     * @param aTree Дерево в памяти, например {@link AVLTree}.
+     * @param aKeyCodec Представление ключей.
+     * @param aValueCodec Представление значений.
+     * @param policy Политика сброса журнала.
+     * @throws IOException Ошибка чтения или данные повреждены.
+     */
+    @SuppressWarnings("unchecked")
+    public DurableTree(final Path aDirectory,
+                       final BinaryTree<K, V> aTree,
+                       final Codec<K> aKeyCodec,
+                       final Codec<V> aValueCodec,
+                       final SyncPolicy policy) throws IOException {
+        this.directory = aDirectory;
+        this.tree = aTree;
+        this.keyCodec = aKeyCodec;
+        this.valueCodec = aValueCodec;
+        this.serializer = new TreeSerializer<>(aKeyCodec, aValueCodec);
+
+        Files.createDirectories(aDirectory);
+        Files.deleteIfExists(aDirectory.resolve(CHECKPOINT_TEMP));
+
+        Path checkpoint = aDirectory.resolve(CHECKPOINT);
+        if (Files.exists(checkpoint)) {
+            try (InputStream in = Files.newInputStream(checkpoint)) {
+                serializer.load(in, aTree);
+            }
+        } else {
+            aTree.load((K[]) new Comparable[0], (V[]) new Object[0]);
+        }
+
+        Path file = aDirectory.resolve(LOG);
+        this.log = new WriteAheadLog(file, policy,
+            WriteAheadLog.replay(file, this::apply));
+    }
+
+    /**
+     * Устанавливает длину журнала, при которой записывается снимок.
+     *
+     * @param bytes Длина журнала в байтах.
+     */
+    public synchronized void setCheckpointSize(final long bytes) {
+        this.checkpointSize = bytes;
+    }
+
+    /**
+     * Записывает снимок дерева и очищает журнал. Вызывается автоматически,
+     * когда журнал достигает порога.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    public synchronized void checkpoint() throws IOException {
+        log.sync();
+
+        Path temp = directory.resolve(CHECKPOINT_TEMP);
+        try (FileChannel channel = FileChannel.open(temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+            serializer.write(tree, channel);
+            channel.force(true);
+        }
+
+        Files.move(temp, directory.resolve(CHECKPOINT),
+            StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+
+        log.reset();
+    }
+
+    @Override
+    public synchronized Node<K, V> find(final K key) {
+        return tree.find(key);
+    }
+
+    @Override
+    public Node<K, V> insert(final K key, final V value) {
+        Node<K, V> node;
+        long sequence;
+        synchronized (this) {
+            int size = tree.size();
+            node = tree.insert(key, value);
+            if (tree.size() == size) {
+                return node;
+            }
+
+            sequence = append(INSERT, key, value);
+        }
+
+        commit(sequence);
+
+        return node;
+    }
+
+    @Override
+    public Node<K, V> remove(final K key) {
+        Node<K, V> node;
+        long sequence;
+        synchronized (this) {
+            node = tree.remove(key);
+            if (node == null) {
+                return null;
+            }
+
+            sequence = append(REMOVE, key, null);
+        }
+
+        commit(sequence);
+
+        return node;
+    }
+
+    @Override
+    public Node<K, V> pollFirst() {
+        Node<K, V> node;
+        long sequence;
+        synchronized (this) {
+            node = tree.pollFirst();
+            if (node == null) {
+                return null;
+            }
+
+            sequence = append(REMOVE, node.getKey(), null);
+        }
+
+        commit(sequence);
+
+        return node;
+    }
+
+    @Override
+    public List<Node<K, V>> insertAll(
+        final Map<? extends K, ? extends V> entries) {
+        List<Node<K, V>> inserted;
+        long sequence = 0;
+        synchronized (this) {
+            inserted = tree.insertAll(entries);
+            for (Node<K, V> node : inserted) {
+                sequence = append(INSERT, node.getKey(), node.getValue());
+            }
+        }
+
+        commit(sequence);
+
+        return inserted;
+    }
+
+    @Override
+    public List<Node<K, V>> removeAll(final Collection<? extends K> keys) {
+        List<Node<K, V>> removed;
+        long sequence = 0;
+        synchronized (this) {
+            removed = tree.removeAll(keys);
+            for (Node<K, V> node : removed) {
+                sequence = append(REMOVE, node.getKey(), null);
+            }
+        }
+
+        commit(sequence);
+
+        return removed;
+    }
+
+    @Override
+    public synchronized Node<K, V> floor(final K key) {
+        return tree.floor(key);
+    }
+
+    @Override
+    public synchronized Node<K, V> ceiling(final K key) {
+        return tree.ceiling(key);
+    }
+
+    @Override
+    public synchronized Node<K, V> lower(final K key) {
+        return tree.lower(key);
+    }
+
+    @Override
+    public synchronized Node<K, V> higher(final K key) {
+        return tree.higher(key);
+    }
+
+    @Override
+    public synchronized Node<K, V> first() {
+        return tree.first();
+    }
+
+    @Override
+    public synchronized Node<K, V> last() {
+        return tree.last();
+    }
+
+    @Override
+    public Iterator<Node<K, V>> iterator(final K from, final K to) {
+        return tree.iterator(from, to);
+    }
+
+    @Override
+    public synchronized int size() {
+        return tree.size();
+    }
+
+    @Override
+    public synchronized int height() {
+        return tree.height();
+    }
+
+    /**
+     * Сбрасывает журнал на диск и закрывает его. Снимок не записывается:
+     * при следующем открытии журнал будет повторен.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        log.close();
+    }
+
+    /**
+     * Добавляет запись в журнал. Вызывается под монитором дерева.
+     *
+     * @param operation Операция.
+     * @param key Ключ.
+     * @param value Значение вставки или {@code null}.
+     * @return Порядковый номер записи.
+     */
+    private long append(final byte operation, final K key, final V value) {
+        try {
+            record.reset();
+            recordData.writeByte(operation);
+            keyCodec.write(key, recordData);
+            if (operation == INSERT) {
+                valueCodec.write(value, recordData);
+            }
+
+            return log.append(record.toByteArray(), record.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Фиксирует записи журнала и при необходимости записывает снимок.
+     *
+     * @param sequence Порядковый номер последней записи операции или ноль,
+     *                 если операция ничего не записала.
+     */
+    private void commit(final long sequence) {
+        if (sequence == 0) {
+            return;
+        }
+
+        try {
+            log.commit(sequence);
+            if (log.length() >= checkpointSize) {
+                synchronized (this) {
+                    if (log.length() >= checkpointSize) {
+                        checkpoint();
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Повторяет запись журнала при восстановлении.
+     *
+     * @param data Данные записи.
+     * @throws IOException Запись повреждена.
+     */
+    private void apply(final DataInput data) throws IOException {
+        byte operation = data.readByte();
+        K key = keyCodec.read(data);
+        if (operation == INSERT) {
+            tree.insert(key, valueCodec.read(data));
+        } else if (operation == REMOVE) {
+            tree.remove(key);
+        } else {
+            throw new IOException("Unknown log record " + operation);
+        }
+    }
+
+    /**
+     * Сбрасывает на диск каталог, чтобы переименование снимка пережило сбой
+     * системы. Не все платформы позволяют открыть каталог, тогда сброс
+     * пропускается.
+     */
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory,
+            StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            return;
+        }
+    }
+}
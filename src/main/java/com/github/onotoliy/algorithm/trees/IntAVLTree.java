@@ -0,0 +1,143 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Arrays;
+
+/**
+ * AVL дерево с ключами типа {@code int}.
+ *
+ * <p>Элементы хранятся в параллельных массивах ключей, значений и связей
+ * {@link AVLLinks}, без объекта на элемент и без упаковки ключей. Элемент
+ * занимает 17 байт без учета запаса емкости массивов против 48 байт у
+ * {@link AVLTree} с ключом {@link Integer}.
+ *
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class IntAVLTree<V> implements IntTree<V> {
+
+    /**
+     * Связи элементов.
+     */
+    private final AVLLinks links = new AVLLinks(AVLLinks.INITIAL_CAPACITY);
+
+    /**
+     * Ключи.
+     */
+    private int[] keys = new int[links.capacity()];
+
+    /**
+     * Значения.
+     */
+    private Object[] values = new Object[links.capacity()];
+
+    @Override
+    public V find(final int key) {
+        int node = links.root();
+
+        while (node != AVLLinks.NIL) {
+            int nodeKey = keys[node];
+            if (key == nodeKey) {
+                return value(node);
+            }
+
+            node = key < nodeKey ? links.left(node) : links.right(node);
+        }
+
+        return null;
+    }
+
+    @Override
+    public V insert(final int key, final V value) {
+        links.reset();
+
+        boolean toLeft = false;
+        int node = links.root();
+        while (node != AVLLinks.NIL) {
+            int nodeKey = keys[node];
+            if (key == nodeKey) {
+                return value(node);
+            }
+
+            links.push(node);
+
+            toLeft = key < nodeKey;
+            node = toLeft ? links.left(node) : links.right(node);
+        }
+
+        node = links.allocate();
+        if (node >= keys.length) {
+            keys = Arrays.copyOf(keys, links.capacity());
+            values = Arrays.copyOf(values, links.capacity());
+        }
+
+        keys[node] = key;
+        values[node] = value;
+
+        links.attach(node, toLeft);
+
+        return value;
+    }
+
+    @Override
+    public V remove(final int key) {
+        links.reset();
+
+        int node = links.root();
+        while (node != AVLLinks.NIL && key != keys[node]) {
+            links.push(node);
+            node = key < keys[node] ? links.left(node) : links.right(node);
+        }
+
+        if (node == AVLLinks.NIL) {
+            return null;
+        }
+
+        V value = value(node);
+        links.push(node);
+
+        if (links.left(node) != AVLLinks.NIL
+            && links.right(node) != AVLLinks.NIL) {
+            int predecessor = links.left(node);
+            while (predecessor != AVLLinks.NIL) {
+                links.push(predecessor);
+                predecessor = links.right(predecessor);
+            }
+
+            predecessor = links.detach();
+
+            keys[node] = keys[predecessor];
+            values[node] = values[predecessor];
+            values[predecessor] = null;
+        } else {
+            values[links.detach()] = null;
+        }
+
+        return value;
+    }
+
+    @Override
+    public int height() {
+        return links.height(links.root());
+    }
+
+    /**
+     * Проверяет согласованность дерева: сохраненные высоты совпадают с
+     * фактическими, а баланс каждого поддерева лежит в диапазоне [-1, 1].
+     *
+     * @throws IllegalStateException Нарушен инвариант AVL дерева.
+     */
+    public void checkConsistency() {
+        links.checkConsistency();
+    }
+
+    /**
+     * Возвращает значение элемента.
+     *
+     * @param node Элемент.
+     * @return Значение.
+     */
+    @SuppressWarnings("unchecked")
+    private V value(final int node) {
+        return (V) values[node];
+    }
+}
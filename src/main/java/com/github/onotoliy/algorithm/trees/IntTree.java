@@ -0,0 +1,44 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Дерево с ключами типа {@code int}. Ключи не упаковываются в объекты.
+ *
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public interface IntTree<V> {
+
+    /**
+     * Поиск значения в дереве.
+     *
+     * @param key Ключ элемента.
+     * @return Найденое значение или {@code null}.
+     */
+    V find(int key);
+
+    /**
+     * Вставка элемента в дерево. Если ключ уже есть в дереве, значение не
+     * меняется.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     * @return Значение, хранящееся в дереве по ключу.
+     */
+    V insert(int key, V value);
+
+    /**
+     * Удаление элемента из дерева.
+     *
+     * @param key Ключ.
+     * @return Значение удаленного элемента или {@code null}.
+     */
+    V remove(int key);
+
+    /**
+     * Вычислет высоту дерева.
+     *
+     * @return Высота дерева.
+     */
+    int height();
+
+}
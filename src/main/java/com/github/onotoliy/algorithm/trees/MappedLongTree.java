@@ -0,0 +1,467 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * Дерево с ключами типа {@code long}, открытое из файла только для чтения.
+ *
+ * <p>Файл отображается в память через {@link FileChannel#map}, поэтому
+ * открытие не требует чтения и разбора данных, а страницы файла разделяются
+ * между процессами через страничный кэш. Файл записывается
+ * {@link MappedLongTreeWriter}.
+ *
+ * <p>Формат файла (порядок байт little-endian):
+ * <pre>
+ * 0   int  {@link #MAGIC}
+ * 4   int  версия формата, {@link #VERSION}
+ * 8   int  длина значения в байтах
+ * 12  int  зарезервировано, 0
+ * 16  long количество элементов
+ * 24  long CRC32 данных
+ * 32  long CRC32 байт 0..31 заголовка
+ * 40  зарезервировано до {@link #HEADER} байт
+ * 64  записи: long ключ, значение; по возрастанию ключей
+ * </pre>
+ *
+ * <p>Записи отсортированы, поэтому файл — неявное идеально сбалансированное
+ * дерево: поиск делением пополам проходит те же O(log n) элементов, что и
+ * спуск по дереву, а диапазон ключей лежит в файле непрерывно. Кроме
+ * {@link #iterator(long, long)} для обхода диапазона без создания объектов
+ * служат {@link #ceilingIndex(long)}, {@link #keyAt(long)} и
+ * {@link #valueAt(long)}.
+ *
+ * <p>Дерево реализует {@link ReadOnlyLongTree}, а не {@link LongTree}: файл
+ * открыт только для чтения, и операций изменения у дерева нет.
+ *
+ * <p>При открытии проверяется заголовок и его контрольная сумма. Контрольная
+ * сумма данных проверяется отдельно методом {@link #verify()}, так как
+ * требует чтения всего файла.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public class MappedLongTree
+    implements ReadOnlyLongTree<byte[]>, AutoCloseable {
+
+    /**
+     * Сигнатура файла.
+     */
+    static final int MAGIC = 0x4F4E5452;
+
+    /**
+     * Версия формата.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * Длина заголовка.
+     */
+    static final int HEADER = 64;
+
+    /**
+     * Смещение длины значения.
+     */
+    static final int VALUE_WIDTH_OFFSET = 8;
+
+    /**
+     * Смещение количества элементов.
+     */
+    static final int COUNT_OFFSET = 16;
+
+    /**
+     * Смещение контрольной суммы данных.
+     */
+    static final int DATA_CHECKSUM_OFFSET = 24;
+
+    /**
+     * Смещение контрольной суммы заголовка.
+     */
+    static final int HEADER_CHECKSUM_OFFSET = 32;
+
+    /**
+     * Максимальный размер одного отображения.
+     */
+    private static final int CHUNK = 1 << 30;
+
+    /**
+     * Длина значения.
+     */
+    private final int valueWidth;
+
+    /**
+     * Длина записи.
+     */
+    private final int record;
+
+    /**
+     * Количество элементов.
+     */
+    private final long size;
+
+    /**
+     * Контрольная сумма данных из заголовка.
+     */
+    private final long checksum;
+
+    /**
+     * Количество записей в одном отображении.
+     */
+    private final int chunkRecords;
+
+    /**
+     * Отображения файла. Каждое содержит целое число записей.
+     */
+    private MappedByteBuffer[] chunks;
+
+    /**
+     * Конструктор.
+     *
+     * @param aValueWidth Длина значения.
+     * @param aSize Количество элементов.
+     * @param aChecksum Контрольная сумма данных.
+     * @param aChunks Отображения файла.
+     */
+    private MappedLongTree(final int aValueWidth,
+                           final long aSize,
+                           final long aChecksum,
+                           final MappedByteBuffer[] aChunks) {
+        this.valueWidth = aValueWidth;
+        this.record = Long.BYTES + aValueWidth;
+        this.size = aSize;
+        this.checksum = aChecksum;
+        this.chunkRecords = CHUNK / record;
+        this.chunks = aChunks;
+    }
+
+    /**
+     * Открывает файл дерева.
+     *
+     * @param file Файл.
+     * @return Дерево.
+     * @throws IOException Ошибка чтения или неверный формат файла.
+     */
+    public static MappedLongTree open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                                                    StandardOpenOption.READ)) {
+            if (channel.size() < HEADER) {
+                throw new IOException(file + " is too short for a tree file");
+            }
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER)
+                                          .order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                channel.read(header, header.position());
+            }
+
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a tree file");
+            }
+
+            if (header.getInt(Integer.BYTES) != VERSION) {
+                throw new IOException(
+                    file + " has unsupported version "
+                        + header.getInt(Integer.BYTES));
+            }
+
+            if (header.getLong(HEADER_CHECKSUM_OFFSET)
+                != headerChecksum(header)) {
+                throw new IOException(file + " has a corrupted header");
+            }
+
+            int valueWidth = header.getInt(VALUE_WIDTH_OFFSET);
+            long size = header.getLong(COUNT_OFFSET);
+            long record = Long.BYTES + (long) valueWidth;
+
+            if (valueWidth < 0 || size < 0
+                || channel.size() != HEADER + size * record) {
+                throw new IOException(
+                    file + " size does not match its header");
+            }
+
+            int chunkRecords = (int) (CHUNK / record);
+            int count = (int) ((size + chunkRecords - 1) / chunkRecords);
+
+            MappedByteBuffer[] chunks = new MappedByteBuffer[count];
+            for (int i = 0; i < count; i++) {
+                long first = (long) i * chunkRecords;
+                long records = Math.min(chunkRecords, size - first);
+
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+                                        HEADER + first * record,
+                                        records * record);
+                chunks[i].order(ByteOrder.LITTLE_ENDIAN);
+            }
+
+            return new MappedLongTree(valueWidth, size,
+                                      header.getLong(DATA_CHECKSUM_OFFSET),
+                                      chunks);
+        }
+    }
+
+    /**
+     * Вычисляет контрольную сумму заголовка.
+     *
+     * @param header Заголовок.
+     * @return Контрольная сумма.
+     */
+    static long headerChecksum(final ByteBuffer header) {
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < HEADER_CHECKSUM_OFFSET; i++) {
+            crc.update(header.get(i));
+        }
+
+        return crc.getValue();
+    }
+
+    /**
+     * Возвращает длину значения в байтах.
+     *
+     * @return Длина значения.
+     */
+    public int valueWidth() {
+        return valueWidth;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public byte[] find(final long key) {
+        long index = indexOf(key);
+
+        return index < 0 ? null : valueAt(index);
+    }
+
+    /**
+     * Поиск значения типа {@code long}.
+     *
+     * @param key Ключ элемента.
+     * @param defaultValue Значение, если элемент не найден.
+     * @return Найденое значение или {@code defaultValue}.
+     */
+    public long findLong(final long key, final long defaultValue) {
+        if (valueWidth != Long.BYTES) {
+            throw new IllegalStateException(
+                "Tree stores " + valueWidth + "-byte values, not long");
+        }
+
+        long index = indexOf(key);
+        if (index < 0) {
+            return defaultValue;
+        }
+
+        return chunk(index).getLong(offset(index) + Long.BYTES);
+    }
+
+    @Override
+    public Map.Entry<Long, byte[]> floor(final long key) {
+        long index = ceilingIndex(key);
+        if (index == size || keyAt(index) != key) {
+            index--;
+        }
+
+        return index < 0 ? null : entryAt(index);
+    }
+
+    @Override
+    public Map.Entry<Long, byte[]> ceiling(final long key) {
+        long index = ceilingIndex(key);
+
+        return index == size ? null : entryAt(index);
+    }
+
+    @Override
+    public Iterator<Map.Entry<Long, byte[]>> iterator(final long from,
+                                                      final long to) {
+        long first = ceilingIndex(from);
+        long end = Math.max(first, ceilingIndex(to));
+
+        return new Iterator<Map.Entry<Long, byte[]>>() {
+
+            /**
+             * Номер следующего элемента.
+             */
+            private long index = first;
+
+            @Override
+            public boolean hasNext() {
+                return index < end;
+            }
+
+            @Override
+            public Map.Entry<Long, byte[]> next() {
+                if (index >= end) {
+                    throw new NoSuchElementException();
+                }
+
+                return entryAt(index++);
+            }
+        };
+    }
+
+    /**
+     * Вычисляет высоту неявного дерева поиска.
+     *
+     * @return Высота дерева.
+     */
+    @Override
+    public int height() {
+        return Long.SIZE - Long.numberOfLeadingZeros(size);
+    }
+
+    /**
+     * Номер первого элемента с ключом не меньше указанного.
+     *
+     * @param key Ключ.
+     * @return Номер элемента или {@link #size()}, если такого нет.
+     */
+    public long ceilingIndex(final long key) {
+        long low = 0;
+        long high = size;
+
+        while (low < high) {
+            long middle = (low + high) >>> 1;
+
+            if (keyAt(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        return low;
+    }
+
+    /**
+     * Возвращает ключ элемента.
+     *
+     * @param index Номер элемента, от 0 до {@link #size()}.
+     * @return Ключ.
+     */
+    public long keyAt(final long index) {
+        return chunk(index).getLong(offset(index));
+    }
+
+    /**
+     * Возвращает копию значения элемента.
+     *
+     * @param index Номер элемента, от 0 до {@link #size()}.
+     * @return Значение.
+     */
+    public byte[] valueAt(final long index) {
+        ByteBuffer chunk = chunk(index);
+        int offset = offset(index) + Long.BYTES;
+
+        byte[] value = new byte[valueWidth];
+        for (int i = 0; i < valueWidth; i++) {
+            value[i] = chunk.get(offset + i);
+        }
+
+        return value;
+    }
+
+    /**
+     * Проверяет контрольную сумму данных. Читает весь файл.
+     *
+     * @throws IOException Данные повреждены.
+     */
+    public void verify() throws IOException {
+        checkOpen();
+
+        CRC32 crc = new CRC32();
+        for (MappedByteBuffer chunk : chunks) {
+            ByteBuffer data = chunk.duplicate();
+            data.clear();
+            crc.update(data);
+        }
+
+        if (crc.getValue() != checksum) {
+            throw new IOException("Tree file data is corrupted");
+        }
+    }
+
+    /**
+     * Снимает отображение файла.
+     */
+    @Override
+    public void close() {
+        if (chunks != null) {
+            for (MappedByteBuffer chunk : chunks) {
+                DirectBuffers.release(chunk);
+            }
+
+            chunks = null;
+        }
+    }
+
+    /**
+     * Возвращает элемент с копией значения.
+     *
+     * @param index Номер элемента.
+     * @return Элемент.
+     */
+    private Map.Entry<Long, byte[]> entryAt(final long index) {
+        return new AbstractMap.SimpleImmutableEntry<>(keyAt(index),
+                                                      valueAt(index));
+    }
+
+    /**
+     * Поиск номера элемента.
+     *
+     * @param key Ключ.
+     * @return Номер элемента или -1.
+     */
+    private long indexOf(final long key) {
+        long index = ceilingIndex(key);
+
+        return index < size && keyAt(index) == key ? index : -1;
+    }
+
+    /**
+     * Отображение, содержащее элемент.
+     *
+     * @param index Номер элемента.
+     * @return Отображение.
+     */
+    private ByteBuffer chunk(final long index) {
+        checkOpen();
+
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(
+                "Index " + index + " is out of [0, " + size + ")");
+        }
+
+        return chunks[(int) (index / chunkRecords)];
+    }
+
+    /**
+     * Смещение элемента в его отображении.
+     *
+     * @param index Номер элемента.
+     * @return Смещение.
+     */
+    private int offset(final long index) {
+        return (int) (index % chunkRecords) * record;
+    }
+
+    /**
+     * Проверяет, что дерево не закрыто.
+     */
+    private void checkOpen() {
+        if (chunks == null) {
+            throw new IllegalStateException("Mapped tree is closed");
+        }
+    }
+}
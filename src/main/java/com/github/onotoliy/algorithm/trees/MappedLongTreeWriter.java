@@ -0,0 +1,266 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.zip.CRC32;
+
+/**
+ * Запись файла дерева для {@link MappedLongTree}.
+ *
+ * <p>Элементы добавляются по возрастанию ключей и записываются потоком через
+ * буфер во временный файл рядом с целевым. При закрытии записывается
+ * заголовок с количеством элементов и контрольными суммами, и временный
+ * файл переименовывается в целевой, поэтому читатель видит либо прежний
+ * файл, либо полностью записанный новый.
+ *
+ * <p>Если добавление элемента завершилось ошибкой, запись отменяется:
+ * закрытие удаляет временный файл и не трогает целевой.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public class MappedLongTreeWriter implements AutoCloseable {
+
+    /**
+     * Размер буфера записи.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Целевой файл.
+     */
+    private final Path file;
+
+    /**
+     * Временный файл.
+     */
+    private final Path temp;
+
+    /**
+     * Канал временного файла.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Длина значения.
+     */
+    private final int valueWidth;
+
+    /**
+     * Буфер записи.
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Контрольная сумма данных.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Количество записанных элементов.
+     */
+    private long count;
+
+    /**
+     * Последний записанный ключ.
+     */
+    private long lastKey;
+
+    /**
+     * Завершилось ли ошибкой добавление элемента.
+     */
+    private boolean failed;
+
+    /**
+     * Конструктор. Существующий файл заменяется при успешном закрытии.
+     *
+     * @param aFile Файл.
+     * @param aValueWidth Длина значения в байтах.
+     * @throws IOException Ошибка записи.
+     */
+    public MappedLongTreeWriter(final Path aFile,
+                                final int aValueWidth) throws IOException {
+        if (aValueWidth < 0) {
+            throw new IllegalArgumentException(
+                "Value width must not be negative: " + aValueWidth);
+        }
+
+        this.valueWidth = aValueWidth;
+        this.buffer = ByteBuffer.allocate(Math.max(BUFFER_SIZE,
+                                                   Long.BYTES + aValueWidth))
+                                .order(ByteOrder.LITTLE_ENDIAN);
+        this.file = aFile;
+        this.temp = aFile.resolveSibling(aFile.getFileName() + ".tmp");
+        this.channel = FileChannel.open(temp,
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE,
+                                        StandardOpenOption.TRUNCATE_EXISTING);
+        this.channel.position(MappedLongTree.HEADER);
+    }
+
+    /**
+     * Записывает дерево в файл.
+     *
+     * @param file Файл.
+     * @param valueWidth Длина значения в байтах.
+     * @param tree Дерево.
+     * @throws IOException Ошибка записи.
+     */
+    public static void write(final Path file,
+                             final int valueWidth,
+                             final BinaryTree<Long, byte[]> tree)
+        throws IOException {
+        try (MappedLongTreeWriter writer =
+                 new MappedLongTreeWriter(file, valueWidth)) {
+            Deque<Node<Long, byte[]>> stack = new ArrayDeque<>();
+
+            Node<Long, byte[]> node = tree.getRoot().getKey() == null
+                ? null
+                : tree.getRoot();
+            while (node != null || !stack.isEmpty()) {
+                while (node != null) {
+                    stack.push(node);
+                    node = node.getLeft();
+                }
+
+                node = stack.pop();
+                writer.add(node.getKey(), node.getValue());
+                node = node.getRight();
+            }
+        }
+    }
+
+    /**
+     * Добавляет элемент.
+     *
+     * @param key Ключ, больше всех добавленных ранее.
+     * @param value Значение длины, заданной при создании.
+     * @throws IOException Ошибка записи.
+     */
+    public void add(final long key, final byte[] value) throws IOException {
+        try {
+            if (value.length != valueWidth) {
+                throw new IllegalArgumentException("Value must be "
+                    + valueWidth + " bytes, got " + value.length);
+            }
+
+            prepare(key);
+            buffer.put(value);
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Добавляет элемент со значением типа {@code long}.
+     *
+     * @param key Ключ, больше всех добавленных ранее.
+     * @param value Значение.
+     * @throws IOException Ошибка записи.
+     */
+    public void addLong(final long key, final long value) throws IOException {
+        try {
+            if (valueWidth != Long.BYTES) {
+                throw new IllegalStateException(
+                    "File stores " + valueWidth + "-byte values, not long");
+            }
+
+            prepare(key);
+            buffer.putLong(value);
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    /**
+     * Записывает заголовок, закрывает временный файл и переименовывает его в
+     * целевой. Если добавление элемента завершилось ошибкой, временный файл
+     * удаляется, а целевой не меняется.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    @Override
+    public void close() throws IOException {
+        boolean written = false;
+        try {
+            if (failed) {
+                return;
+            }
+
+            flush();
+
+            ByteBuffer header = ByteBuffer.allocate(MappedLongTree.HEADER)
+                                          .order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(0, MappedLongTree.MAGIC);
+            header.putInt(Integer.BYTES, MappedLongTree.VERSION);
+            header.putInt(MappedLongTree.VALUE_WIDTH_OFFSET, valueWidth);
+            header.putLong(MappedLongTree.COUNT_OFFSET, count);
+            header.putLong(MappedLongTree.DATA_CHECKSUM_OFFSET, crc.getValue());
+            header.putLong(MappedLongTree.HEADER_CHECKSUM_OFFSET,
+                           MappedLongTree.headerChecksum(header));
+
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+
+            channel.force(true);
+            written = true;
+        } finally {
+            channel.close();
+            if (!written) {
+                Files.deleteIfExists(temp);
+            }
+        }
+
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Проверяет порядок ключей, освобождает место в буфере и записывает
+     * ключ.
+     *
+     * @param key Ключ.
+     * @throws IOException Ошибка записи.
+     */
+    private void prepare(final long key) throws IOException {
+        if (count > 0 && key <= lastKey) {
+            throw new IllegalArgumentException(
+                "Keys must be strictly ascending: " + key + " after "
+                    + lastKey);
+        }
+
+        if (buffer.remaining() < Long.BYTES + valueWidth) {
+            flush();
+        }
+
+        buffer.putLong(key);
+
+        lastKey = key;
+        count++;
+    }
+
+    /**
+     * Записывает буфер в файл.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    private void flush() throws IOException {
+        buffer.flip();
+        crc.update(buffer.array(), 0, buffer.limit());
+
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Comparator;
+
+/**
+ * Навигация по дереву: поиск ближайших ключей за один спуск от корня.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+final class Navigation {
+
+    /**
+     * Конструктор.
+     */
+    private Navigation() {
+
+    }
+
+    /**
+     * Элемент с наибольшим ключом, меньшим указанного (или равным ему).
+     *
+     * @param root Корень дерева или {@code null}, если дерево пусто.
+     * @param key Ключ.
+     * @param inclusive Подходит ли элемент с равным ключом.
+     * @param comparator Порядок ключей.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Элемент или {@code null}, если такого нет.
+     */
+    static <K extends Comparable<K>, V> Node<K, V> floor(
+        final Node<K, V> root, final K key, final boolean inclusive,
+        final Comparator<? super K> comparator) {
+        Node<K, V> result = null;
+
+        Node<K, V> node = root;
+        while (node != null) {
+            int compare = comparator.compare(key, node.getKey());
+            if (compare == 0 && inclusive) {
+                return node;
+            }
+
+            if (compare > 0) {
+                result = node;
+                node = node.getRight();
+            } else {
+                node = node.getLeft();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Элемент с наименьшим ключом, большим указанного (или равным ему).
+     *
+     * @param root Корень дерева или {@code null}, если дерево пусто.
+     * @param key Ключ.
+     * @param inclusive Подходит ли элемент с равным ключом.
+     * @param comparator Порядок ключей.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Элемент или {@code null}, если такого нет.
+     */
+    static <K extends Comparable<K>, V> Node<K, V> ceiling(
+        final Node<K, V> root, final K key, final boolean inclusive,
+        final Comparator<? super K> comparator) {
+        Node<K, V> result = null;
+
+        Node<K, V> node = root;
+        while (node != null) {
+            int compare = comparator.compare(key, node.getKey());
+            if (compare == 0 && inclusive) {
+                return node;
+            }
+
+            if (compare < 0) {
+                result = node;
+                node = node.getLeft();
+            } else {
+                node = node.getRight();
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Элемент с наименьшим ключом.
+     *
+     * @param root Корень дерева или {@code null}, если дерево пусто.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Элемент или {@code null}, если дерево пусто.
+     */
+    static <K extends Comparable<K>, V> Node<K, V> first(
+        final Node<K, V> root) {
+        Node<K, V> node = root;
+        while (node != null && node.getLeft() != null) {
+            node = node.getLeft();
+        }
+
+        return node;
+    }
+
+    /**
+     * Элемент с наибольшим ключом.
+     *
+     * @param root Корень дерева или {@code null}, если дерево пусто.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Элемент или {@code null}, если дерево пусто.
+     */
+    static <K extends Comparable<K>, V> Node<K, V> last(
+        final Node<K, V> root) {
+        Node<K, V> node = root;
+        while (node != null && node.getRight() != null) {
+            node = node.getRight();
+        }
+
+        return node;
+    }
+}
@@ -0,0 +1,123 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Обход элементов дерева в порядке возрастания ключей в диапазоне
+ * [from, to).
+ *
+ * <p>Обход выполняется циклом: в стеке хранится только путь от корня до
+ * текущего элемента, поэтому дополнительная память равна высоте дерева, а
+ * обход k элементов стоит O(log n + k). Изменение дерева во время обхода
+ * не обнаруживается, результат такого обхода не определен.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+final class NodeIterator<K extends Comparable<K>, V>
+    implements Iterator<Node<K, V>> {
+
+    /**
+     * Начальный размер стека обхода.
+     */
+    private static final int INITIAL_STACK_SIZE = 16;
+
+    /**
+     * Верхняя граница, исключительно, или {@code null}.
+     */
+    private final K to;
+
+    /**
+     * Порядок ключей.
+     */
+    private final Comparator<? super K> comparator;
+
+    /**
+     * Элементы, которые еще предстоит вернуть, вместе с их правыми
+     * поддеревьями.
+     */
+    @SuppressWarnings("unchecked")
+    private Node<K, V>[] stack = new Node[INITIAL_STACK_SIZE];
+
+    /**
+     * Количество элементов в стеке.
+     */
+    private int depth;
+
+    /**
+     * Конструктор обхода всего дерева.
+     *
+     * @param root Корень дерева или {@code null}, если дерево пусто.
+     */
+    NodeIterator(final Node<K, V> root) {
+        this(root, null, null, null);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param root Корень дерева или {@code null}, если дерево пусто.
+     * @param from Нижняя граница, включительно, или {@code null}.
+     * @param aTo Верхняя граница, исключительно, или {@code null}.
+     * @param aComparator Порядок ключей.
+     */
+    NodeIterator(final Node<K, V> root,
+                 final K from,
+                 final K aTo,
+                 final Comparator<? super K> aComparator) {
+        this.to = aTo;
+        this.comparator = aComparator;
+
+        Node<K, V> node = root;
+        while (node != null) {
+            if (from == null || comparator.compare(node.getKey(), from) >= 0) {
+                push(node);
+                node = node.getLeft();
+            } else {
+                node = node.getRight();
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return depth > 0
+            && (to == null
+                || comparator.compare(stack[depth - 1].getKey(), to) < 0);
+    }
+
+    @Override
+    public Node<K, V> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        Node<K, V> node = stack[--depth];
+        stack[depth] = null;
+
+        for (Node<K, V> child = node.getRight();
+             child != null;
+             child = child.getLeft()) {
+            push(child);
+        }
+
+        return node;
+    }
+
+    /**
+     * Добавляет элемент в стек.
+     *
+     * @param node Элемент.
+     */
+    private void push(final Node<K, V> node) {
+        if (depth == stack.length) {
+            stack = Arrays.copyOf(stack, depth * 2);
+        }
+
+        stack[depth++] = node;
+    }
+}
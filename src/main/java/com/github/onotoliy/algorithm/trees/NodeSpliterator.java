@@ -0,0 +1,180 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Разделяемый обход элементов дерева в порядке возрастания ключей.
+ *
+ * <p>Остаток обхода описывается парой: отдельный элемент, который
+ * возвращается первым, и поддерево после него. Разделение отдает левое
+ * поддерево как префикс, а себе оставляет корень поддерева и правое
+ * поддерево. Так работа делится по границам поддеревьев без обхода и
+ * копирования, а в сбалансированном дереве части получаются примерно
+ * равными. После начала обхода разделение не выполняется.
+ *
+ * <p>Обход всего дерева знает точный размер и сообщает {@link #SIZED}. Если
+ * элементы хранят размеры своих поддеревьев, размеры частей тоже точны и
+ * обход сообщает {@link #SUBSIZED}. Иначе часть получает половину оценки
+ * разделяемого обхода, что для сбалансированного дерева близко к размеру
+ * левого поддерева.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+final class NodeSpliterator<K extends Comparable<K>, V>
+    implements Spliterator<Node<K, V>> {
+
+    /**
+     * Характеристики обхода.
+     */
+    private static final int CHARACTERISTICS =
+        Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL;
+
+    /**
+     * Размеры поддеревьев или {@code null}, если элементы их не хранят.
+     */
+    private final ToIntFunction<Node<K, V>> sizes;
+
+    /**
+     * Элемент, который возвращается первым, или {@code null}.
+     */
+    private Node<K, V> head;
+
+    /**
+     * Поддерево, которое обходится после {@link #head}, или {@code null}.
+     */
+    private Node<K, V> subtree;
+
+    /**
+     * Обход поддерева; {@code null}, пока обход не начат.
+     */
+    private Iterator<Node<K, V>> iterator;
+
+    /**
+     * Оценка количества оставшихся элементов.
+     */
+    private long estimate;
+
+    /**
+     * Точна ли оценка.
+     */
+    private boolean sized;
+
+    /**
+     * Конструктор.
+     *
+     * @param root Корень дерева или {@code null}, если дерево пусто.
+     * @param size Количество элементов дерева.
+     */
+    NodeSpliterator(final Node<K, V> root, final long size) {
+        this(root, size, null);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param root Корень дерева или {@code null}, если дерево пусто.
+     * @param size Количество элементов дерева.
+     * @param aSizes Размеры поддеревьев или {@code null}.
+     */
+    NodeSpliterator(final Node<K, V> root,
+                    final long size,
+                    final ToIntFunction<Node<K, V>> aSizes) {
+        this(null, root, root == null ? 0 : size, true, aSizes);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param aHead Элемент, который возвращается первым.
+     * @param aSubtree Поддерево после элемента.
+     * @param anEstimate Оценка количества элементов.
+     * @param aSized Точна ли оценка.
+     * @param aSizes Размеры поддеревьев или {@code null}.
+     */
+    private NodeSpliterator(final Node<K, V> aHead,
+                            final Node<K, V> aSubtree,
+                            final long anEstimate,
+                            final boolean aSized,
+                            final ToIntFunction<Node<K, V>> aSizes) {
+        this.head = aHead;
+        this.subtree = aSubtree;
+        this.estimate = anEstimate;
+        this.sized = aSized;
+        this.sizes = aSizes;
+    }
+
+    @Override
+    public Spliterator<Node<K, V>> trySplit() {
+        if (subtree == null || subtree.getLeft() == null) {
+            return null;
+        }
+
+        long prefix = sizes == null
+            ? estimate >>> 1
+            : (head == null ? 0 : 1) + sizes.applyAsInt(subtree.getLeft());
+        Spliterator<Node<K, V>> split = new NodeSpliterator<>(
+            head, subtree.getLeft(), prefix, sizes != null, sizes);
+
+        head = subtree;
+        subtree = subtree.getRight();
+        estimate = estimate - prefix;
+        sized = sizes != null;
+
+        return split;
+    }
+
+    @Override
+    public boolean tryAdvance(final Consumer<? super Node<K, V>> action) {
+        if (head != null) {
+            Node<K, V> node = head;
+            head = null;
+            consumed();
+            action.accept(node);
+
+            return true;
+        }
+
+        if (iterator == null) {
+            iterator = new NodeIterator<>(subtree);
+            subtree = null;
+        }
+
+        if (!iterator.hasNext()) {
+            return false;
+        }
+
+        Node<K, V> node = iterator.next();
+        consumed();
+        action.accept(node);
+
+        return true;
+    }
+
+    @Override
+    public long estimateSize() {
+        return estimate;
+    }
+
+    @Override
+    public int characteristics() {
+        if (sizes != null) {
+            return CHARACTERISTICS | Spliterator.SIZED | Spliterator.SUBSIZED;
+        }
+
+        return sized ? CHARACTERISTICS | Spliterator.SIZED : CHARACTERISTICS;
+    }
+
+    /**
+     * Уменьшает оценку после возврата элемента.
+     */
+    private void consumed() {
+        if (estimate > 0) {
+            estimate--;
+        }
+    }
+}
@@ -0,0 +1,765 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * AVL дерево с ключами типа {@code long} и значениями фиксированной длины,
+ * хранящее все элементы вне кучи в прямом {@link ByteBuffer}.
+ *
+ * <p>Элемент занимает запись фиксированной длины: ключ, значение, номера
+ * левого и правого поддерева и высота поддерева. Записи адресуются номером,
+ * запись {@link #NIL} не используется. Освобожденные записи связываются в
+ * список и переиспользуются. Объектов на элемент в куче нет, поэтому размер
+ * дерева не влияет на работу сборщика мусора.
+ *
+ * <p>Значения задаются массивами байт длины {@link #valueWidth()}. Для
+ * значений типа {@code long} есть методы без создания массивов:
+ * {@link #findLong}, {@link #insertLong} и {@link #removeLong}.
+ *
+ * <p>Память освобождается явно методом {@link #close()}. После закрытия
+ * любая операция бросает {@link IllegalStateException}.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public class OffHeapLongTree implements LongTree<byte[]>, AutoCloseable {
+
+    /**
+     * Отсутствующий элемент.
+     */
+    private static final int NIL = 0;
+
+    /**
+     * Начальная емкость.
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Максимальная высота AVL дерева.
+     */
+    private static final int MAX_HEIGHT = 64;
+
+    /**
+     * Выравнивание записи.
+     */
+    private static final int ALIGNMENT = Long.BYTES;
+
+    /**
+     * Смещение ключа в записи.
+     */
+    private static final int KEY = 0;
+
+    /**
+     * Смещение значения в записи.
+     */
+    private static final int VALUE = KEY + Long.BYTES;
+
+    /**
+     * Длина значения.
+     */
+    private final int valueWidth;
+
+    /**
+     * Смещение левого поддерева в записи. Для свободной записи — следующая
+     * свободная запись.
+     */
+    private final int left;
+
+    /**
+     * Смещение правого поддерева в записи.
+     */
+    private final int right;
+
+    /**
+     * Смещение высоты поддерева в записи.
+     */
+    private final int height;
+
+    /**
+     * Длина записи.
+     */
+    private final int record;
+
+    /**
+     * Записи.
+     */
+    private ByteBuffer buffer;
+
+    /**
+     * Емкость в записях.
+     */
+    private int capacity;
+
+    /**
+     * Корень дерева.
+     */
+    private int root = NIL;
+
+    /**
+     * Первая свободная запись.
+     */
+    private int free = NIL;
+
+    /**
+     * Первая ни разу не использованная запись.
+     */
+    private int next = NIL + 1;
+
+    /**
+     * Путь от корня до текущего элемента.
+     */
+    private final int[] path = new int[MAX_HEIGHT];
+
+    /**
+     * Длина пути.
+     */
+    private int depth;
+
+    /**
+     * Конструктор.
+     *
+     * @param aValueWidth Длина значения в байтах.
+     */
+    public OffHeapLongTree(final int aValueWidth) {
+        this(aValueWidth, INITIAL_CAPACITY);
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param aValueWidth Длина значения в байтах.
+     * @param aCapacity Начальная емкость в элементах.
+     */
+    public OffHeapLongTree(final int aValueWidth, final int aCapacity) {
+        if (aValueWidth < 0) {
+            throw new IllegalArgumentException(
+                "Value width must not be negative: " + aValueWidth);
+        }
+
+        this.valueWidth = aValueWidth;
+        this.left = VALUE + aValueWidth;
+        this.right = left + Integer.BYTES;
+        this.height = right + Integer.BYTES;
+        this.record = (height + 1 + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+        this.buffer = allocate(Math.max(aCapacity + 1L, 2));
+        this.capacity = buffer.capacity() / record;
+    }
+
+    /**
+     * Возвращает длину значения в байтах.
+     *
+     * @return Длина значения.
+     */
+    public int valueWidth() {
+        return valueWidth;
+    }
+
+    @Override
+    public byte[] find(final long key) {
+        int node = lookup(key);
+
+        return node == NIL ? null : value(node);
+    }
+
+    /**
+     * Поиск значения в дереве без создания массива.
+     *
+     * @param key Ключ элемента.
+     * @param target Массив длины {@link #valueWidth()} для значения.
+     * @return Найден ли элемент.
+     */
+    public boolean find(final long key, final byte[] target) {
+        checkWidth(target);
+
+        int node = lookup(key);
+        if (node == NIL) {
+            return false;
+        }
+
+        int offset = node * record + VALUE;
+        for (int i = 0; i < valueWidth; i++) {
+            target[i] = buffer.get(offset + i);
+        }
+
+        return true;
+    }
+
+    /**
+     * Поиск значения типа {@code long}.
+     *
+     * @param key Ключ элемента.
+     * @param defaultValue Значение, если элемент не найден.
+     * @return Найденое значение или {@code defaultValue}.
+     */
+    public long findLong(final long key, final long defaultValue) {
+        checkLongWidth();
+
+        int node = lookup(key);
+
+        return node == NIL
+            ? defaultValue
+            : buffer.getLong(node * record + VALUE);
+    }
+
+    @Override
+    public byte[] insert(final long key, final byte[] value) {
+        checkWidth(value);
+
+        int node = place(key);
+        if (node != NIL) {
+            return value(node);
+        }
+
+        node = attach(key);
+
+        int offset = node * record + VALUE;
+        for (int i = 0; i < valueWidth; i++) {
+            buffer.put(offset + i, value[i]);
+        }
+
+        rebalance();
+
+        return value;
+    }
+
+    /**
+     * Вставка значения типа {@code long}. Если ключ уже есть в дереве,
+     * значение не меняется.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     * @return Значение, хранящееся в дереве по ключу.
+     */
+    public long insertLong(final long key, final long value) {
+        checkLongWidth();
+
+        int node = place(key);
+        if (node != NIL) {
+            return buffer.getLong(node * record + VALUE);
+        }
+
+        node = attach(key);
+        buffer.putLong(node * record + VALUE, value);
+
+        rebalance();
+
+        return value;
+    }
+
+    @Override
+    public byte[] remove(final long key) {
+        int node = removePath(key);
+        if (node == NIL) {
+            return null;
+        }
+
+        byte[] value = value(node);
+        detach(node);
+
+        return value;
+    }
+
+    /**
+     * Удаление элемента со значением типа {@code long}.
+     *
+     * @param key Ключ.
+     * @param defaultValue Значение, если элемент не найден.
+     * @return Значение удаленного элемента или {@code defaultValue}.
+     */
+    public long removeLong(final long key, final long defaultValue) {
+        checkLongWidth();
+
+        int node = removePath(key);
+        if (node == NIL) {
+            return defaultValue;
+        }
+
+        long value = buffer.getLong(node * record + VALUE);
+        detach(node);
+
+        return value;
+    }
+
+    @Override
+    public int height() {
+        checkOpen();
+
+        return height(root);
+    }
+
+    /**
+     * Освобождает память дерева.
+     */
+    @Override
+    public void close() {
+        if (buffer != null) {
+            DirectBuffers.release(buffer);
+            buffer = null;
+        }
+    }
+
+    /**
+     * Проверяет согласованность дерева: ключи упорядочены, сохраненные
+     * высоты совпадают с фактическими, а баланс каждого поддерева лежит в
+     * диапазоне [-1, 1].
+     *
+     * @throws IllegalStateException Нарушен инвариант AVL дерева.
+     */
+    public void checkConsistency() {
+        checkOpen();
+        checkConsistency(root, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Проверяет согласованность поддерева.
+     *
+     * @param node Поддерево.
+     * @param min Минимально допустимый ключ.
+     * @param max Максимально допустимый ключ.
+     * @return Фактическая высота поддерева.
+     */
+    private int checkConsistency(final int node,
+                                 final long min,
+                                 final long max) {
+        if (node == NIL) {
+            return 0;
+        }
+
+        long key = key(node);
+        if (key < min || key > max) {
+            throw new IllegalStateException(
+                "Key " + key + " is out of order");
+        }
+
+        int leftHeight = checkConsistency(left(node), min, key - 1);
+        int rightHeight = checkConsistency(right(node), key + 1, max);
+        int actual = Math.max(leftHeight, rightHeight) + 1;
+
+        if (height(node) != actual) {
+            throw new IllegalStateException(
+                "Key " + key + " stores height " + height(node)
+                    + ", actual height " + actual);
+        }
+
+        if (Math.abs(rightHeight - leftHeight) > 1) {
+            throw new IllegalStateException(
+                "Key " + key + " has balance " + (rightHeight - leftHeight));
+        }
+
+        return actual;
+    }
+
+    /**
+     * Поиск элемента.
+     *
+     * @param key Ключ.
+     * @return Элемент или {@link #NIL}.
+     */
+    private int lookup(final long key) {
+        checkOpen();
+
+        int node = root;
+        while (node != NIL) {
+            long nodeKey = key(node);
+            if (key == nodeKey) {
+                return node;
+            }
+
+            node = key < nodeKey ? left(node) : right(node);
+        }
+
+        return NIL;
+    }
+
+    /**
+     * Поиск места вставки. Заполняет путь до будущего родителя.
+     *
+     * @param key Ключ.
+     * @return Существующий элемент с ключом или {@link #NIL}.
+     */
+    private int place(final long key) {
+        checkOpen();
+
+        depth = 0;
+
+        int node = root;
+        while (node != NIL) {
+            long nodeKey = key(node);
+            if (key == nodeKey) {
+                return node;
+            }
+
+            path[depth++] = node;
+            node = key < nodeKey ? left(node) : right(node);
+        }
+
+        return NIL;
+    }
+
+    /**
+     * Создает элемент и присоединяет его к последнему элементу пути.
+     * Значение записывает вызывающий, затем вызывает {@link #rebalance()}.
+     *
+     * @param key Ключ.
+     * @return Новый элемент.
+     */
+    private int attach(final long key) {
+        int node = free;
+
+        if (node == NIL) {
+            if (next == capacity) {
+                grow();
+            }
+
+            node = next++;
+        } else {
+            free = left(node);
+        }
+
+        int offset = node * record;
+        buffer.putLong(offset + KEY, key);
+        buffer.putInt(offset + left, NIL);
+        buffer.putInt(offset + right, NIL);
+        buffer.put(offset + height, (byte) 1);
+
+        if (depth == 0) {
+            root = node;
+        } else {
+            int parent = path[depth - 1];
+            if (key < key(parent)) {
+                setLeft(parent, node);
+            } else {
+                setRight(parent, node);
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Поиск удаляемого элемента. Заполняет путь до родителя элемента.
+     *
+     * @param key Ключ.
+     * @return Удаляемый элемент или {@link #NIL}.
+     */
+    private int removePath(final long key) {
+        checkOpen();
+
+        depth = 0;
+
+        int node = root;
+        while (node != NIL) {
+            long nodeKey = key(node);
+            if (key == nodeKey) {
+                return node;
+            }
+
+            path[depth++] = node;
+            node = key < nodeKey ? left(node) : right(node);
+        }
+
+        return NIL;
+    }
+
+    /**
+     * Удаляет элемент, путь до родителя которого уже заполнен. Элемент с двумя
+     * потомками получает ключ и значение своего предшественника, а
+     * отсоединяется запись предшественника.
+     *
+     * @param node Элемент.
+     */
+    private void detach(final int node) {
+        path[depth++] = node;
+
+        int target = node;
+        if (left(node) != NIL && right(node) != NIL) {
+            target = left(node);
+            while (right(target) != NIL) {
+                path[depth++] = target;
+                target = right(target);
+            }
+
+            path[depth++] = target;
+
+            int from = target * record;
+            int to = node * record;
+            for (int i = KEY; i < left; i++) {
+                buffer.put(to + i, buffer.get(from + i));
+            }
+        }
+
+        depth--;
+
+        int child = left(target) == NIL ? right(target) : left(target);
+        replace(target, child, depth == 0 ? NIL : path[depth - 1]);
+
+        setLeft(target, free);
+        setRight(target, NIL);
+        buffer.put(target * record + height, (byte) 0);
+        free = target;
+
+        rebalance();
+    }
+
+    /**
+     * Восстанавливает высоты и баланс на пути от последнего элемента до
+     * корня.
+     */
+    private void rebalance() {
+        while (depth > 0) {
+            int node = path[--depth];
+
+            updateHeight(node);
+
+            int top = rotation(node);
+            if (top != node) {
+                replace(node, top, depth == 0 ? NIL : path[depth - 1]);
+            }
+        }
+    }
+
+    /**
+     * Замена поддерева в родительском элементе.
+     *
+     * @param node Заменяемое поддерево.
+     * @param replacement Новое поддерево.
+     * @param parent Родительский элемент или {@link #NIL}.
+     */
+    private void replace(final int node, final int replacement,
+                         final int parent) {
+        if (parent == NIL) {
+            root = replacement;
+        } else if (left(parent) == node) {
+            setLeft(parent, replacement);
+        } else {
+            setRight(parent, replacement);
+        }
+    }
+
+    /**
+     * Поворот дерева.
+     *
+     * @param node Дерево.
+     * @return Новый корень поддерева.
+     */
+    private int rotation(final int node) {
+        int balance = balance(node);
+
+        if (balance > 1) {
+            if (balance(right(node)) < 0) {
+                setRight(node, rightRotation(right(node)));
+            }
+
+            return leftRotation(node);
+        }
+
+        if (balance < -1) {
+            if (balance(left(node)) > 0) {
+                setLeft(node, leftRotation(left(node)));
+            }
+
+            return rightRotation(node);
+        }
+
+        return node;
+    }
+
+    /**
+     * Правый поворот дерева.
+     *
+     * @param p Дерево.
+     * @return Новый корень поддерева.
+     */
+    private int rightRotation(final int p) {
+        int q = left(p);
+
+        setLeft(p, right(q));
+        setRight(q, p);
+
+        updateHeight(p);
+        updateHeight(q);
+
+        return q;
+    }
+
+    /**
+     * Левый поворот дерева.
+     *
+     * @param q Дерево.
+     * @return Новый корень поддерева.
+     */
+    private int leftRotation(final int q) {
+        int p = right(q);
+
+        setRight(q, left(p));
+        setLeft(p, q);
+
+        updateHeight(q);
+        updateHeight(p);
+
+        return p;
+    }
+
+    /**
+     * Пересчитывает высоту поддерева.
+     *
+     * @param node Элемент.
+     */
+    private void updateHeight(final int node) {
+        int value = Math.max(height(left(node)), height(right(node))) + 1;
+
+        buffer.put(node * record + height, (byte) value);
+    }
+
+    /**
+     * Вычисляет баланс поддерева.
+     *
+     * @param node Элемент.
+     * @return Баланс поддерева.
+     */
+    private int balance(final int node) {
+        return height(right(node)) - height(left(node));
+    }
+
+    /**
+     * Возвращает ключ элемента.
+     *
+     * @param node Элемент.
+     * @return Ключ.
+     */
+    private long key(final int node) {
+        return buffer.getLong(node * record + KEY);
+    }
+
+    /**
+     * Возвращает копию значения элемента.
+     *
+     * @param node Элемент.
+     * @return Значение.
+     */
+    private byte[] value(final int node) {
+        byte[] value = new byte[valueWidth];
+
+        int offset = node * record + VALUE;
+        for (int i = 0; i < valueWidth; i++) {
+            value[i] = buffer.get(offset + i);
+        }
+
+        return value;
+    }
+
+    /**
+     * Возвращает левое поддерево.
+     *
+     * @param node Элемент.
+     * @return Левое поддерево.
+     */
+    private int left(final int node) {
+        return buffer.getInt(node * record + left);
+    }
+
+    /**
+     * Устанавливает левое поддерево.
+     *
+     * @param node Элемент.
+     * @param child Левое поддерево.
+     */
+    private void setLeft(final int node, final int child) {
+        buffer.putInt(node * record + left, child);
+    }
+
+    /**
+     * Возвращает правое поддерево.
+     *
+     * @param node Элемент.
+     * @return Правое поддерево.
+     */
+    private int right(final int node) {
+        return buffer.getInt(node * record + right);
+    }
+
+    /**
+     * Устанавливает правое поддерево.
+     *
+     * @param node Элемент.
+     * @param child Правое поддерево.
+     */
+    private void setRight(final int node, final int child) {
+        buffer.putInt(node * record + right, child);
+    }
+
+    /**
+     * Возвращает высоту поддерева.
+     *
+     * @param node Элемент.
+     * @return Высота поддерева, для {@link #NIL} — 0.
+     */
+    private int height(final int node) {
+        return buffer.get(node * record + height);
+    }
+
+    /**
+     * Увеличивает емкость вдвое, копируя записи в новый буфер.
+     */
+    private void grow() {
+        ByteBuffer source = buffer;
+        ByteBuffer target = allocate(capacity * 2L);
+
+        source.clear();
+        target.put(source);
+        target.clear();
+
+        buffer = target;
+        capacity = capacity * 2;
+
+        DirectBuffers.release(source);
+    }
+
+    /**
+     * Выделяет буфер.
+     *
+     * @param records Количество записей.
+     * @return Буфер.
+     */
+    private ByteBuffer allocate(final long records) {
+        if (records * record > Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                "Off-heap tree is limited to " + Integer.MAX_VALUE / record
+                    + " entries of " + record + " bytes");
+        }
+
+        return ByteBuffer.allocateDirect((int) records * record)
+                         .order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Проверяет, что дерево не закрыто.
+     */
+    private void checkOpen() {
+        if (buffer == null) {
+            throw new IllegalStateException("Off-heap tree is closed");
+        }
+    }
+
+    /**
+     * Проверяет длину значения.
+     *
+     * @param value Значение.
+     */
+    private void checkWidth(final byte[] value) {
+        if (value.length != valueWidth) {
+            throw new IllegalArgumentException(
+                "Value must be " + valueWidth + " bytes, got " + value.length);
+        }
+    }
+
+    /**
+     * Проверяет, что значения имеют тип {@code long}.
+     */
+    private void checkLongWidth() {
+        if (valueWidth != Long.BYTES) {
+            throw new IllegalStateException(
+                "Tree stores " + valueWidth + "-byte values, not long");
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Comparator;
+import java.util.Spliterator;
+
+/**
+ * AVL дерево порядковых статистик.
+ *
+ * <p>Каждый элемент хранит количество элементов своего поддерева, поэтому
+ * ранг ключа, элемент по номеру и количество ключей в диапазоне находятся
+ * за один спуск, O(log n). Количество обновляется там же, где высота: при
+ * подъеме после вставки и удаления и при поворотах. Подъем после вставки
+ * всегда идет до корня.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class OrderStatisticAVLTree<K extends Comparable<K>, V>
+    extends AVLTree<K, V> {
+
+    /**
+     * Конструктор дерева с естественным порядком ключей.
+     */
+    public OrderStatisticAVLTree() {
+        super();
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param comparator Порядок ключей.
+     */
+    public OrderStatisticAVLTree(final Comparator<? super K> comparator) {
+        super(comparator);
+    }
+
+    @Override
+    protected AVLNode<K, V> newNodeInstance(final K key, final V value) {
+        return new OrderStatisticNode<>(key, value);
+    }
+
+    @Override
+    protected boolean stopsRetraceEarly() {
+        return false;
+    }
+
+    /**
+     * Ранг ключа: количество ключей дерева, меньших указанного.
+     *
+     * @param key Ключ.
+     * @return Ранг ключа.
+     */
+    public int rank(final K key) {
+        Node<K, V> node = getRoot();
+        if (node.getKey() == null) {
+            return 0;
+        }
+
+        int rank = 0;
+        while (node != null) {
+            if (compare(key, node) <= 0) {
+                node = node.getLeft();
+            } else {
+                rank = rank + OrderStatisticNode.size(node.getLeft()) + 1;
+                node = node.getRight();
+            }
+        }
+
+        return rank;
+    }
+
+    /**
+     * Элемент с указанным номером в порядке возрастания ключей.
+     *
+     * @param index Номер элемента, начиная с нуля.
+     * @return Элемент.
+     * @throws IndexOutOfBoundsException Номер вне диапазона [0, size()).
+     */
+    public Node<K, V> select(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException(
+                "Index " + index + ", size " + size());
+        }
+
+        Node<K, V> node = getRoot();
+        int remaining = index;
+        while (true) {
+            int left = OrderStatisticNode.size(node.getLeft());
+            if (remaining == left) {
+                return node;
+            }
+
+            if (remaining < left) {
+                node = node.getLeft();
+            } else {
+                remaining = remaining - left - 1;
+                node = node.getRight();
+            }
+        }
+    }
+
+    /**
+     * Количество ключей в диапазоне [from, to).
+     *
+     * @param from Нижняя граница, включительно.
+     * @param to Верхняя граница, исключительно.
+     * @return Количество ключей.
+     */
+    public int countRange(final K from, final K to) {
+        return Math.max(0, rank(to) - rank(from));
+    }
+
+    /**
+     * Разделяемый обход элементов. Элементы хранят размеры поддеревьев,
+     * поэтому размеры всех частей точны.
+     *
+     * @return Обход элементов.
+     */
+    @Override
+    public Spliterator<Node<K, V>> spliterator() {
+        Node<K, V> root = getRoot();
+
+        return new NodeSpliterator<>(root.getKey() == null ? null : root,
+            size(), OrderStatisticNode::size);
+    }
+
+    /**
+     * Проверяет согласованность дерева: кроме инвариантов AVL дерева,
+     * сохраненные количества элементов совпадают с фактическими.
+     *
+     * @throws IllegalStateException Нарушен инвариант дерева.
+     */
+    @Override
+    public void checkConsistency() {
+        super.checkConsistency();
+
+        for (Node<K, V> node : this) {
+            int size = OrderStatisticNode.size(node.getLeft())
+                + OrderStatisticNode.size(node.getRight()) + 1;
+
+            if (OrderStatisticNode.size(node) != size) {
+                throw new IllegalStateException(
+                    "Node " + node.getKey() + " stores size "
+                        + OrderStatisticNode.size(node) + ", actual size "
+                        + size);
+            }
+        }
+    }
+}
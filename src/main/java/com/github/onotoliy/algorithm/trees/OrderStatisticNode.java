@@ -0,0 +1,59 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Элемент AVL дерева, который хранит количество элементов своего
+ * поддерева.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+final class OrderStatisticNode<K extends Comparable<K>, V>
+    extends AVLNode<K, V> {
+
+    /**
+     * Количество элементов поддерева. Вычисляется в {@link #updateHeight()},
+     * который вызывается из конструктора родителя, поэтому не имеет
+     * инициализатора.
+     */
+    private int size;
+
+    /**
+     * Конструктор.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     */
+    OrderStatisticNode(final K key, final V value) {
+        super(key, value, null, null);
+    }
+
+    /**
+     * Возвращает количество элементов поддерева.
+     *
+     * @return Количество элементов поддерева.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Количество элементов поддерева.
+     *
+     * @param node Поддерево или {@code null}.
+     * @return Количество элементов поддерева.
+     */
+    static int size(final Node<?, ?> node) {
+        return node == null ? 0 : ((OrderStatisticNode<?, ?>) node).size;
+    }
+
+    /**
+     * Обновляет высоту и количество элементов поддерева.
+     */
+    @Override
+    void updateHeight() {
+        super.updateHeight();
+
+        size = size(getLeft()) + size(getRight()) + 1;
+    }
+}
@@ -0,0 +1,162 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * Неизменяемое AVL дерево.
+ *
+ * <p>{@link #insert} и {@link #remove} не меняют дерево, а возвращают новое.
+ * Новое дерево копирует только путь от корня до измененного места, O(log n)
+ * элементов, и разделяет все остальные поддеревья с исходным. Поэтому любую
+ * версию дерева можно хранить как снимок и читать из любого числа потоков
+ * без блокировок и копирования.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public final class PersistentAVLTree<K extends Comparable<K>, V>
+    implements Iterable<Node<K, V>> {
+
+    /**
+     * Пустое дерево.
+     */
+    private static final PersistentAVLTree<?, ?> EMPTY =
+        new PersistentAVLTree<>(null);
+
+    /**
+     * Корень дерева.
+     */
+    private final PersistentNode<K, V> root;
+
+    /**
+     * Конструктор.
+     *
+     * @param aRoot Корень дерева.
+     */
+    private PersistentAVLTree(final PersistentNode<K, V> aRoot) {
+        this.root = aRoot;
+    }
+
+    /**
+     * Возвращает пустое дерево.
+     *
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Пустое дерево.
+     */
+    @SuppressWarnings("unchecked")
+    public static <K extends Comparable<K>, V> PersistentAVLTree<K, V> empty() {
+        return (PersistentAVLTree<K, V>) EMPTY;
+    }
+
+    /**
+     * Дерево с указанным корнем.
+     *
+     * @param root Корень дерева.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Дерево.
+     */
+    static <K extends Comparable<K>, V> PersistentAVLTree<K, V> of(
+        final PersistentNode<K, V> root) {
+        return root == null ? empty() : new PersistentAVLTree<>(root);
+    }
+
+    /**
+     * Возвращает корень дерева.
+     *
+     * @return Корень дерева или {@code null}, если дерево пусто.
+     */
+    Node<K, V> root() {
+        return root;
+    }
+
+    /**
+     * Поиск элемента в дереве.
+     *
+     * @param key Ключ элемента.
+     * @return Найденый элемент дерева.
+     */
+    public Node<K, V> find(final K key) {
+        return PersistentNode.find(root, key);
+    }
+
+    /**
+     * Вставка элемента. Если ключ уже есть в дереве, возвращается это же
+     * дерево.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     * @return Дерево с элементом.
+     */
+    public PersistentAVLTree<K, V> insert(final K key, final V value) {
+        PersistentNode<K, V> node = PersistentNode.insert(root, key, value);
+
+        return node == root ? this : new PersistentAVLTree<>(node);
+    }
+
+    /**
+     * Удаление элемента. Если ключа нет в дереве, возвращается это же
+     * дерево.
+     *
+     * @param key Ключ.
+     * @return Дерево без элемента.
+     */
+    public PersistentAVLTree<K, V> remove(final K key) {
+        PersistentNode<K, V> node = PersistentNode.remove(root, key);
+
+        return node == root ? this : of(node);
+    }
+
+    @Override
+    public Iterator<Node<K, V>> iterator() {
+        return iterator(null, null);
+    }
+
+    /**
+     * Обход элементов с ключами в диапазоне [from, to) в порядке возрастания
+     * ключей за O(log n + k).
+     *
+     * @param from Нижняя граница, включительно, или {@code null}.
+     * @param to Верхняя граница, исключительно, или {@code null}.
+     * @return Обход элементов.
+     */
+    public Iterator<Node<K, V>> iterator(final K from, final K to) {
+        return new NodeIterator<>(root, from, to, Comparator.naturalOrder());
+    }
+
+    /**
+     * Проверяет, пусто ли дерево.
+     *
+     * @return Пусто ли дерево.
+     */
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    /**
+     * Вычислет высоту дерева.
+     *
+     * @return Высота дерева.
+     */
+    public int height() {
+        return root == null ? 0 : root.height();
+    }
+
+    /**
+     * Проверяет согласованность дерева: сохраненные высоты совпадают с
+     * фактическими, а баланс каждого поддерева лежит в диапазоне [-1, 1].
+     *
+     * @throws IllegalStateException Нарушен инвариант AVL дерева.
+     */
+    public void checkConsistency() {
+        PersistentNode.checkConsistency(root);
+    }
+
+    @Override
+    public String toString() {
+        return root == null ? "b null" : root.toString();
+    }
+}
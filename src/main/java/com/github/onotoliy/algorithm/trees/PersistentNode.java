@@ -0,0 +1,394 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Неизменяемый элемент AVL дерева.
+ *
+ * <p>Вставка и удаление не меняют существующие элементы, а копируют путь от
+ * корня до измененного места и возвращают новый корень. Все поддеревья вне
+ * пути разделяются между старой и новой версией дерева, поэтому обновление
+ * создает O(log n) элементов, а старую версию можно читать без блокировок.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+final class PersistentNode<K extends Comparable<K>, V> implements Node<K, V> {
+
+    /**
+     * Ключ.
+     */
+    private final K key;
+
+    /**
+     * Значение.
+     */
+    private final V value;
+
+    /**
+     * Левое поддерево.
+     */
+    private final PersistentNode<K, V> left;
+
+    /**
+     * Правое поддерево.
+     */
+    private final PersistentNode<K, V> right;
+
+    /**
+     * Высота поддерева.
+     */
+    private final int height;
+
+    /**
+     * Конструктор.
+     *
+     * @param aKey Ключ.
+     * @param aValue Значение.
+     * @param aLeft Левое поддерево.
+     * @param aRight Правое поддерево.
+     */
+    private PersistentNode(final K aKey,
+                           final V aValue,
+                           final PersistentNode<K, V> aLeft,
+                           final PersistentNode<K, V> aRight) {
+        this.key = aKey;
+        this.value = aValue;
+        this.left = aLeft;
+        this.right = aRight;
+        this.height = Math.max(height(aLeft), height(aRight)) + 1;
+    }
+
+    @Override
+    public PersistentNode<K, V> getLeft() {
+        return left;
+    }
+
+    @Override
+    public PersistentNode<K, V> getRight() {
+        return right;
+    }
+
+    @Override
+    public K getKey() {
+        return key;
+    }
+
+    @Override
+    public V getValue() {
+        return value;
+    }
+
+    @Override
+    public int height() {
+        return height;
+    }
+
+    @Override
+    public String toString() {
+        return BinaryNode.prettyTree(this);
+    }
+
+    /**
+     * Поиск элемента в дереве.
+     *
+     * @param node Дерево.
+     * @param key Ключ.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Найденый элемент или {@code null}.
+     */
+    static <K extends Comparable<K>, V> PersistentNode<K, V> find(
+        final PersistentNode<K, V> node, final K key) {
+        PersistentNode<K, V> current = node;
+
+        while (current != null) {
+            int compare = key.compareTo(current.key);
+            if (compare == 0) {
+                return current;
+            }
+
+            current = compare < 0 ? current.left : current.right;
+        }
+
+        return null;
+    }
+
+    /**
+     * Вставка элемента. Если ключ уже есть в дереве, возвращается то же
+     * дерево.
+     *
+     * @param node Дерево.
+     * @param key Ключ.
+     * @param value Значение.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Новый корень дерева.
+     */
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<K>, V> PersistentNode<K, V> insert(
+        final PersistentNode<K, V> node, final K key, final V value) {
+        return insert(node, key, value, new PersistentNode[1]);
+    }
+
+    /**
+     * Вставка элемента за один спуск. Если ключ уже есть в дереве,
+     * возвращается то же дерево.
+     *
+     * @param node Дерево.
+     * @param key Ключ.
+     * @param value Значение.
+     * @param found Принимает в нулевой элемент вставленный элемент нового
+     *              дерева или существующий элемент с тем же ключом.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Новый корень дерева.
+     */
+    static <K extends Comparable<K>, V> PersistentNode<K, V> insert(
+        final PersistentNode<K, V> node,
+        final K key,
+        final V value,
+        final PersistentNode<K, V>[] found) {
+        if (node == null) {
+            found[0] = new PersistentNode<>(key, value, null, null);
+
+            return found[0];
+        }
+
+        int compare = key.compareTo(node.key);
+        if (compare == 0) {
+            found[0] = node;
+
+            return node;
+        }
+
+        if (compare < 0) {
+            PersistentNode<K, V> child = insert(node.left, key, value, found);
+
+            return child == node.left
+                ? node
+                : relink(balance(node.key, node.value, child, node.right),
+                         found);
+        }
+
+        PersistentNode<K, V> child = insert(node.right, key, value, found);
+
+        return child == node.right
+            ? node
+            : relink(balance(node.key, node.value, node.left, child), found);
+    }
+
+    /**
+     * Удаление элемента. Если ключа нет в дереве, возвращается то же дерево.
+     *
+     * @param node Дерево.
+     * @param key Ключ.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Новый корень дерева.
+     */
+    @SuppressWarnings("unchecked")
+    static <K extends Comparable<K>, V> PersistentNode<K, V> remove(
+        final PersistentNode<K, V> node, final K key) {
+        return remove(node, key, new PersistentNode[1]);
+    }
+
+    /**
+     * Удаление элемента за один спуск. Если ключа нет в дереве, возвращается
+     * то же дерево.
+     *
+     * @param node Дерево.
+     * @param key Ключ.
+     * @param removed Принимает в нулевой элемент удаленный элемент исходного
+     *                дерева.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Новый корень дерева.
+     */
+    static <K extends Comparable<K>, V> PersistentNode<K, V> remove(
+        final PersistentNode<K, V> node,
+        final K key,
+        final PersistentNode<K, V>[] removed) {
+        if (node == null) {
+            return null;
+        }
+
+        int compare = key.compareTo(node.key);
+        if (compare < 0) {
+            PersistentNode<K, V> child = remove(node.left, key, removed);
+
+            return child == node.left
+                ? node
+                : balance(node.key, node.value, child, node.right);
+        }
+
+        if (compare > 0) {
+            PersistentNode<K, V> child = remove(node.right, key, removed);
+
+            return child == node.right
+                ? node
+                : balance(node.key, node.value, node.left, child);
+        }
+
+        removed[0] = node;
+
+        if (node.left == null) {
+            return node.right;
+        }
+
+        if (node.right == null) {
+            return node.left;
+        }
+
+        PersistentNode<K, V> predecessor = node.left;
+        while (predecessor.right != null) {
+            predecessor = predecessor.right;
+        }
+
+        return balance(predecessor.key, predecessor.value,
+                       removeMax(node.left), node.right);
+    }
+
+    /**
+     * Проверяет согласованность дерева: сохраненные высоты совпадают с
+     * фактическими, а баланс каждого поддерева лежит в диапазоне [-1, 1].
+     *
+     * @param node Дерево.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Фактическая высота дерева.
+     * @throws IllegalStateException Нарушен инвариант AVL дерева.
+     */
+    static <K extends Comparable<K>, V> int checkConsistency(
+        final PersistentNode<K, V> node) {
+        if (node == null) {
+            return 0;
+        }
+
+        int leftHeight = checkConsistency(node.left);
+        int rightHeight = checkConsistency(node.right);
+        int actual = Math.max(leftHeight, rightHeight) + 1;
+
+        if (node.height != actual) {
+            throw new IllegalStateException(
+                "Node " + node.key + " stores height " + node.height
+                    + ", actual height " + actual);
+        }
+
+        if (Math.abs(rightHeight - leftHeight) > 1) {
+            throw new IllegalStateException(
+                "Node " + node.key + " has balance "
+                    + (rightHeight - leftHeight));
+        }
+
+        return actual;
+    }
+
+    /**
+     * Удаление самого правого элемента.
+     *
+     * @param node Дерево.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Новый корень дерева.
+     */
+    private static <K extends Comparable<K>, V> PersistentNode<K, V> removeMax(
+        final PersistentNode<K, V> node) {
+        if (node.right == null) {
+            return node.left;
+        }
+
+        return balance(node.key, node.value, node.left, removeMax(node.right));
+    }
+
+    /**
+     * Создает элемент и восстанавливает баланс поворотом, если высоты
+     * поддеревьев отличаются на два.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     * @param left Левое поддерево.
+     * @param right Правое поддерево.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Корень сбалансированного поддерева.
+     */
+    private static <K extends Comparable<K>, V> PersistentNode<K, V> balance(
+        final K key,
+        final V value,
+        final PersistentNode<K, V> left,
+        final PersistentNode<K, V> right) {
+        int balance = height(right) - height(left);
+
+        if (balance > 1) {
+            if (height(right.left) > height(right.right)) {
+                PersistentNode<K, V> middle = right.left;
+
+                return new PersistentNode<>(
+                    middle.key, middle.value,
+                    new PersistentNode<>(key, value, left, middle.left),
+                    new PersistentNode<>(right.key, right.value,
+                                         middle.right, right.right));
+            }
+
+            return new PersistentNode<>(
+                right.key, right.value,
+                new PersistentNode<>(key, value, left, right.left),
+                right.right);
+        }
+
+        if (balance < -1) {
+            if (height(left.right) > height(left.left)) {
+                PersistentNode<K, V> middle = left.right;
+
+                return new PersistentNode<>(
+                    middle.key, middle.value,
+                    new PersistentNode<>(left.key, left.value,
+                                         left.left, middle.left),
+                    new PersistentNode<>(key, value, middle.right, right));
+            }
+
+            return new PersistentNode<>(
+                left.key, left.value,
+                left.left,
+                new PersistentNode<>(key, value, left.right, right));
+        }
+
+        return new PersistentNode<>(key, value, left, right);
+    }
+
+    /**
+     * Заменяет найденный элемент его копией, если поворот при балансировке
+     * пересоздал элемент. Поворот пересоздает только вершину поддерева и ее
+     * детей.
+     *
+     * @param node Сбалансированное поддерево.
+     * @param found Найденный элемент в нулевом элементе.
+     * @param <K> Тип ключа.
+     * @param <V> Тип значения
+     * @return Поддерево.
+     */
+    private static <K extends Comparable<K>, V> PersistentNode<K, V> relink(
+        final PersistentNode<K, V> node, final PersistentNode<K, V>[] found) {
+        K key = found[0].key;
+
+        if (node.key == key) {
+            found[0] = node;
+        } else if (node.left != null && node.left.key == key) {
+            found[0] = node.left;
+        } else if (node.right != null && node.right.key == key) {
+            found[0] = node.right;
+        }
+
+        return node;
+    }
+
+    /**
+     * Высота поддерева.
+     *
+     * @param node Поддерево.
+     * @return Высота, для {@code null} — 0.
+     */
+    private static int height(final PersistentNode<?, ?> node) {
+        return node == null ? 0 : node.height;
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Элемент AVL дерева со строковым ключом, который хранит первые символы
+ * ключа упакованными в {@code long}.
+ *
+ * <p>Беззнаковое сравнение префиксов совпадает с {@link String#compareTo}
+ * везде, где префиксы различаются, поэтому большинство сравнений при спуске
+ * не читает саму строку.
+ *
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+final class PrefixNode<V> extends AVLNode<String, V> {
+
+    /**
+     * Количество символов в префиксе.
+     */
+    private static final int PREFIX_CHARS = Long.SIZE / Character.SIZE;
+
+    /**
+     * Префикс ключа.
+     */
+    private long prefix;
+
+    /**
+     * Конструктор.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     */
+    PrefixNode(final String key, final V value) {
+        super(key, value, null, null);
+
+        this.prefix = prefix(key);
+    }
+
+    /**
+     * Возвращает префикс ключа.
+     *
+     * @return Префикс ключа.
+     */
+    long prefix() {
+        return prefix;
+    }
+
+    @Override
+    void setKey(final String key) {
+        super.setKey(key);
+
+        prefix = prefix(key);
+    }
+
+    /**
+     * Упаковывает первые символы строки в {@code long}, старший символ в
+     * старших битах. Недостающие символы заполняются нулями.
+     *
+     * @param key Строка или {@code null}.
+     * @return Префикс.
+     */
+    static long prefix(final String key) {
+        if (key == null) {
+            return 0;
+        }
+
+        long prefix = 0;
+        for (int i = 0; i < PREFIX_CHARS; i++) {
+            prefix = prefix << Character.SIZE
+                | (i < key.length() ? key.charAt(i) : 0);
+        }
+
+        return prefix;
+    }
+}
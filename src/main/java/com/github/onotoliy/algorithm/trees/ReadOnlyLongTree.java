@@ -0,0 +1,66 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Дерево с ключами типа {@code long}, доступное только для поиска и обхода.
+ *
+ * <p>В отличие от {@link LongTree} не содержит операций изменения, поэтому
+ * индекс, открытый только для чтения, нельзя передать туда, где ожидается
+ * изменяемое дерево.
+ *
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public interface ReadOnlyLongTree<V> {
+
+    /**
+     * Поиск значения в дереве.
+     *
+     * @param key Ключ элемента.
+     * @return Найденое значение или {@code null}.
+     */
+    V find(long key);
+
+    /**
+     * Поиск элемента с наибольшим ключом, не превосходящим указанный.
+     *
+     * @param key Ключ.
+     * @return Найденный элемент или {@code null}.
+     */
+    Map.Entry<Long, V> floor(long key);
+
+    /**
+     * Поиск элемента с наименьшим ключом, не меньшим указанного.
+     *
+     * @param key Ключ.
+     * @return Найденный элемент или {@code null}.
+     */
+    Map.Entry<Long, V> ceiling(long key);
+
+    /**
+     * Обход элементов с ключами в диапазоне [from, to) в порядке возрастания
+     * ключей.
+     *
+     * @param from Нижняя граница, включительно.
+     * @param to Верхняя граница, исключительно.
+     * @return Обход элементов.
+     */
+    Iterator<Map.Entry<Long, V>> iterator(long from, long to);
+
+    /**
+     * Возвращает количество элементов.
+     *
+     * @return Количество элементов.
+     */
+    long size();
+
+    /**
+     * Вычислет высоту дерева.
+     *
+     * @return Высота дерева.
+     */
+    int height();
+
+}
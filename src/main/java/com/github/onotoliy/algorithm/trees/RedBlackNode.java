@@ -0,0 +1,53 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Реализация элемента красно-черного дерева.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class RedBlackNode<K extends Comparable<K>, V> extends BinaryNode<K, V> {
+
+    /**
+     * Красный ли элемент.
+     */
+    private boolean red;
+
+    /**
+     * Конструктор.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     * @param left Левое поддерево.
+     * @param right Правое поддерево.
+     * @param aRed Красный ли элемент.
+     */
+    public RedBlackNode(final K key,
+                        final V value,
+                        final Node<K, V> left,
+                        final Node<K, V> right,
+                        final boolean aRed) {
+        super(key, value, left, right);
+
+        this.red = aRed;
+    }
+
+    /**
+     * Проверяет, красный ли элемент.
+     *
+     * @return Красный ли элемент.
+     */
+    public boolean isRed() {
+        return red;
+    }
+
+    /**
+     * Устанавливает цвет элемента.
+     *
+     * @param aRed Красный ли элемент.
+     */
+    void setRed(final boolean aRed) {
+        this.red = aRed;
+    }
+}
@@ -0,0 +1,523 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Красно-черное дерево.
+ *
+ * <p>Балансировка слабее, чем у {@link AVLTree}: высота не превышает
+ * 2 log(n + 1), зато вставка делает не больше двух поворотов, а удаление не
+ * больше трех. Остальная работа по восстановлению инвариантов сводится к
+ * перекрашиванию, поэтому дерево подходит для индексов с преобладанием
+ * записи. Повороты перевешивают существующие элементы и не создают новых.
+ *
+ * <p>Элементы не хранят ссылку на родителя: путь от корня до измененного
+ * элемента восстанавливается повторным спуском по ключу, как в
+ * {@link AVLTree}.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class RedBlackTree<K extends Comparable<K>, V>
+    extends BinaryTree<K, V> {
+
+    /**
+     * Максимальная высота красно-черного дерева: 2 log(n + 1) для любого
+     * адресуемого количества элементов.
+     */
+    private static final int MAX_HEIGHT = 2 * Long.SIZE;
+
+    /**
+     * Путь от корня до измененного элемента. Переиспользуется между
+     * операциями, чтобы балансировка не создавала объектов.
+     */
+    @SuppressWarnings("unchecked")
+    private final RedBlackNode<K, V>[] path = new RedBlackNode[MAX_HEIGHT];
+
+    /**
+     * Элемент, отсоединяемый текущим удалением: сам удаляемый элемент или,
+     * если у него два потомка, переносимый на его место предшественник.
+     */
+    private RedBlackNode<K, V> detached;
+
+    /**
+     * Был ли отсоединяемый элемент черным.
+     */
+    private boolean detachedBlack;
+
+    /**
+     * Отсоединяется ли корень дерева.
+     */
+    private boolean detachedRoot;
+
+    /**
+     * Конструктор дерева с естественным порядком ключей.
+     */
+    public RedBlackTree() {
+        super();
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param comparator Порядок ключей.
+     */
+    public RedBlackTree(final Comparator<? super K> comparator) {
+        super(comparator);
+    }
+
+    /**
+     * Создает новый элемент. Вставляемые элементы красные, пустой корень
+     * черный.
+     *
+     * @param key Ключ.
+     * @param value Значение.
+     * @return Элемент дерева.
+     */
+    @Override
+    protected RedBlackNode<K, V> newNodeInstance(final K key, final V value) {
+        return new RedBlackNode<>(key, value, null, null, key != null);
+    }
+
+    /**
+     * Восстанавливает инварианты после вставки красного листа: пока родитель
+     * красный, красный дядя перекрашивается вместе с родителем и дедом, а
+     * черный дядя завершает балансировку одним или двумя поворотами.
+     *
+     * <p>Высоты пересчитываются по пути балансировки: перед поворотами —
+     * ниже деда, сами повороты пересчитывают повернутые элементы, а после
+     * балансировки — оставшиеся элементы пути до корня.
+     *
+     * @param node Вставленный элемент.
+     */
+    @Override
+    protected void postInsert(final Node<K, V> node) {
+        int length = descend(node.getKey());
+        int depth = length;
+        int above = length;
+
+        while (depth > 2 && path[depth - 2].isRed()) {
+            RedBlackNode<K, V> current = path[depth - 1];
+            RedBlackNode<K, V> parent = path[depth - 2];
+            RedBlackNode<K, V> grand = path[depth - 3];
+
+            boolean parentLeft = grand.getLeft() == parent;
+            RedBlackNode<K, V> uncle = child(grand, !parentLeft);
+
+            if (isRed(uncle)) {
+                parent.setRed(false);
+                uncle.setRed(false);
+                grand.setRed(true);
+                depth -= 2;
+
+                continue;
+            }
+
+            updateHeights(depth - 2, length);
+            if ((parent.getLeft() == current) != parentLeft) {
+                parent = rotate(parent, parentLeft);
+                setChild(grand, parentLeft, parent);
+            }
+
+            parent.setRed(false);
+            grand.setRed(true);
+            replace(grand, rotate(grand, !parentLeft),
+                depth > 3 ? path[depth - 4] : null);
+            above = depth - 3;
+
+            break;
+        }
+
+        toRedBlackNode(getRoot()).setRed(false);
+        updateHeights(0, above);
+        clear(length);
+    }
+
+    /**
+     * Запоминает, какой элемент отсоединится от дерева и какого он цвета.
+     * Предшественник, переносимый на место удаляемого элемента с двумя
+     * потомками, получает цвет удаляемого элемента.
+     *
+     * @param node Удаляемый элемент.
+     */
+    @Override
+    protected void preRemove(final Node<K, V> node) {
+        RedBlackNode<K, V> removed = toRedBlackNode(node);
+
+        if (removed.getLeft() != null && removed.getRight() != null) {
+            RedBlackNode<K, V> predecessor = toRedBlackNode(removed.getLeft());
+            while (predecessor.getRight() != null) {
+                predecessor = toRedBlackNode(predecessor.getRight());
+            }
+
+            detached = predecessor;
+            detachedBlack = !predecessor.isRed();
+            detachedRoot = false;
+
+            predecessor.setRed(removed.isRed());
+        } else {
+            detached = removed;
+            detachedBlack = !removed.isRed();
+            detachedRoot = removed == getRoot();
+        }
+    }
+
+    /**
+     * Восстанавливает инварианты после удаления. Отсоединение красного
+     * элемента их не нарушает. Место отсоединенного черного элемента
+     * занимает его потомок: красный потомок перекрашивается в черный, иначе
+     * недостающий черный элемент поднимается к корню.
+     *
+     * <p>Высоты пересчитываются до перекрашивания по пути, пройденному
+     * удалением. Повороты пересчитывают повернутые элементы, а после них
+     * пересчитывается путь балансировки до корня.
+     *
+     * @param node Элемент, поддерево которого изменилось при удалении.
+     */
+    @Override
+    protected void postRemove(final Node<K, V> node) {
+        updateHeights();
+
+        RedBlackNode<K, V> removed = detached;
+        detached = null;
+
+        if (node.getKey() == null || !detachedBlack) {
+            return;
+        }
+
+        if (detachedRoot) {
+            toRedBlackNode(getRoot()).setRed(false);
+
+            return;
+        }
+
+        RedBlackNode<K, V> parent = toRedBlackNode(node);
+        boolean left = removed == parent;
+        if (!left) {
+            countComparisons(1);
+            left = compare(removed.getKey(), parent) < 0;
+        }
+
+        RedBlackNode<K, V> current = child(parent, left);
+        if (isRed(current)) {
+            current.setRed(false);
+
+            return;
+        }
+
+        int used = fixDoubleBlack(descend(parent.getKey()), left);
+        updateHeights(0, used);
+        clear(used);
+    }
+
+    /**
+     * Восстанавливает черную высоту поддерева, в котором не хватает одного
+     * черного элемента. Путь от корня до родителя этого поддерева лежит в
+     * {@link #path}.
+     *
+     * @param length Длина пути.
+     * @param isLeft Является ли поддерево левым потомком.
+     * @return Длина использованной части пути.
+     */
+    private int fixDoubleBlack(final int length, final boolean isLeft) {
+        int depth = length;
+        int used = length;
+        boolean left = isLeft;
+
+        while (depth > 0) {
+            RedBlackNode<K, V> parent = path[depth - 1];
+            RedBlackNode<K, V> sibling = child(parent, !left);
+
+            if (sibling.isRed()) {
+                sibling.setRed(false);
+                parent.setRed(true);
+                replace(parent, rotate(parent, left),
+                    depth > 1 ? path[depth - 2] : null);
+
+                path[depth - 1] = sibling;
+                path[depth++] = parent;
+                used = Math.max(used, depth);
+                sibling = child(parent, !left);
+            }
+
+            if (!isRed(sibling.getLeft()) && !isRed(sibling.getRight())) {
+                sibling.setRed(true);
+                if (parent.isRed()) {
+                    parent.setRed(false);
+
+                    return used;
+                }
+
+                depth--;
+                left = depth > 0 && path[depth - 1].getLeft() == parent;
+
+                continue;
+            }
+
+            if (!isRed(child(sibling, !left))) {
+                RedBlackNode<K, V> near = child(sibling, left);
+                near.setRed(false);
+                sibling.setRed(true);
+                setChild(parent, !left, rotate(sibling, !left));
+                sibling = near;
+            }
+
+            sibling.setRed(parent.isRed());
+            parent.setRed(false);
+            child(sibling, !left).setRed(false);
+            replace(parent, rotate(parent, left),
+                depth > 1 ? path[depth - 2] : null);
+
+            return used;
+        }
+
+        return used;
+    }
+
+    /**
+     * Загрузка дерева. Идеально сбалансированное дерево раскрашивается
+     * после сборки: см. {@link #paint()}.
+     *
+     * @param keys Ключи.
+     * @param values Значения, {@code values[i]} соответствует
+     *               {@code keys[i]}.
+     */
+    @Override
+    public void load(final K[] keys, final V[] values) {
+        super.load(keys, values);
+
+        paint();
+    }
+
+    /**
+     * Загрузка дерева. Идеально сбалансированное дерево раскрашивается
+     * после сборки: см. {@link #paint()}.
+     *
+     * @param entries Элементы.
+     */
+    @Override
+    public void load(
+        final Iterator<? extends Map.Entry<? extends K, ? extends V>> entries) {
+        super.load(entries);
+
+        paint();
+    }
+
+    /**
+     * Раскрашивает идеально сбалансированное дерево за O(n). Все уровни
+     * такого дерева, кроме последнего, заполнены, а самый короткий путь до
+     * листа идет по правой границе. Элементы заполненных уровней черные,
+     * элементы неполного последнего уровня красные.
+     */
+    private void paint() {
+        RedBlackNode<K, V> root = toRedBlackNode(getRoot());
+        if (root.getKey() == null) {
+            return;
+        }
+
+        int full = 0;
+        for (Node<K, V> node = root; node != null; node = node.getRight()) {
+            full++;
+        }
+
+        paint(root, 0, full);
+    }
+
+    /**
+     * Раскрашивает поддерево. Глубина рекурсии равна высоте дерева.
+     *
+     * @param node Поддерево.
+     * @param depth Глубина поддерева.
+     * @param full Количество заполненных уровней дерева.
+     */
+    private void paint(final RedBlackNode<K, V> node,
+                       final int depth,
+                       final int full) {
+        if (node == null) {
+            return;
+        }
+
+        node.setRed(depth >= full);
+
+        paint(toRedBlackNode(node.getLeft()), depth + 1, full);
+        paint(toRedBlackNode(node.getRight()), depth + 1, full);
+    }
+
+    /**
+     * Проверяет согласованность дерева: корень черный, у красного элемента
+     * нет красных потомков, а все пути от корня до листьев содержат
+     * одинаковое количество черных элементов.
+     *
+     * @throws IllegalStateException Нарушен инвариант красно-черного дерева.
+     */
+    public void checkConsistency() {
+        RedBlackNode<K, V> root = toRedBlackNode(getRoot());
+
+        if (root.isRed()) {
+            throw new IllegalStateException(
+                "Root " + root.getKey() + " is red");
+        }
+
+        if (root.getKey() != null) {
+            checkConsistency(root);
+        }
+    }
+
+    /**
+     * Проверяет согласованность поддерева.
+     *
+     * @param node Поддерево.
+     * @return Черная высота поддерева.
+     */
+    private int checkConsistency(final RedBlackNode<K, V> node) {
+        if (node == null) {
+            return 0;
+        }
+
+        RedBlackNode<K, V> left = toRedBlackNode(node.getLeft());
+        RedBlackNode<K, V> right = toRedBlackNode(node.getRight());
+
+        if (node.isRed() && (isRed(left) || isRed(right))) {
+            throw new IllegalStateException(
+                "Red node " + node.getKey() + " has a red child");
+        }
+
+        int leftHeight = checkConsistency(left);
+        int rightHeight = checkConsistency(right);
+        if (leftHeight != rightHeight) {
+            throw new IllegalStateException(
+                "Node " + node.getKey() + " has black heights " + leftHeight
+                    + " and " + rightHeight);
+        }
+
+        return leftHeight + (node.isRed() ? 0 : 1);
+    }
+
+    /**
+     * Заполняет {@link #path} элементами от корня до элемента с указанным
+     * ключом.
+     *
+     * @param key Ключ элемента, находящегося в дереве.
+     * @return Длина пути.
+     */
+    private int descend(final K key) {
+        int depth = 0;
+        RedBlackNode<K, V> node = toRedBlackNode(getRoot());
+
+        while (node != null) {
+            path[depth++] = node;
+
+            int compare = compare(key, node);
+            if (compare == 0) {
+                break;
+            }
+
+            node = toRedBlackNode(compare < 0
+                ? node.getLeft()
+                : node.getRight());
+        }
+
+        countComparisons(depth);
+
+        return depth;
+    }
+
+    /**
+     * Пересчитывает высоты элементов пути {@code path[from, to)} снизу
+     * вверх.
+     *
+     * @param from Начало участка пути.
+     * @param to Конец участка пути, исключительно.
+     */
+    private void updateHeights(final int from, final int to) {
+        for (int i = to - 1; i >= from; i--) {
+            path[i].updateHeight();
+        }
+    }
+
+    /**
+     * Освобождает ссылки пути.
+     *
+     * @param length Длина пути.
+     */
+    private void clear(final int length) {
+        int depth = length;
+        while (depth > 0) {
+            path[--depth] = null;
+        }
+    }
+
+    /**
+     * Поворот поддерева. Высоты повернутых элементов пересчитываются по их
+     * новым потомкам.
+     *
+     * @param node Поддерево.
+     * @param left Левый поворот: правый потомок становится корнем. Иначе
+     *             правый поворот.
+     * @return Новый корень поддерева.
+     */
+    private RedBlackNode<K, V> rotate(final RedBlackNode<K, V> node,
+                                      final boolean left) {
+        RedBlackNode<K, V> top = child(node, !left);
+        countRotation();
+
+        setChild(node, !left, child(top, left));
+        setChild(top, left, node);
+        node.updateHeight();
+        top.updateHeight();
+
+        return top;
+    }
+
+    /**
+     * Возвращает потомка элемента.
+     *
+     * @param node Элемент.
+     * @param left Левый ли потомок.
+     * @return Потомок или {@code null}.
+     */
+    private RedBlackNode<K, V> child(final RedBlackNode<K, V> node,
+                                     final boolean left) {
+        return toRedBlackNode(left ? node.getLeft() : node.getRight());
+    }
+
+    /**
+     * Устанавливает потомка элемента.
+     *
+     * @param node Элемент.
+     * @param left Левый ли потомок.
+     * @param child Потомок.
+     */
+    private void setChild(final RedBlackNode<K, V> node,
+                          final boolean left,
+                          final RedBlackNode<K, V> child) {
+        if (left) {
+            node.setLeft(child);
+        } else {
+            node.setRight(child);
+        }
+    }
+
+    /**
+     * Проверяет, красный ли элемент. Отсутствующий элемент черный.
+     *
+     * @param node Элемент или {@code null}.
+     * @return Красный ли элемент.
+     */
+    private static boolean isRed(final Node<?, ?> node) {
+        return node != null && ((RedBlackNode<?, ?>) node).isRed();
+    }
+
+    /**
+     * Преобразование {@code Node} в {@code RedBlackNode}.
+     *
+     * @param node Дерево в формате {@code Node}.
+     * @return Дерево в формате {@code RedBlackNode}.
+     */
+    private RedBlackNode<K, V> toRedBlackNode(final Node<K, V> node) {
+        return (RedBlackNode<K, V>) node;
+    }
+}
@@ -0,0 +1,292 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Расширяющееся (splay) дерево.
+ *
+ * <p>Поиск, вставка и удаление поднимают элемент с указанным ключом в
+ * корень, поэтому часто запрашиваемые ключи остаются у корня и находятся за
+ * несколько сравнений. Амортизированная стоимость операции O(log n), а
+ * последовательность запросов с неравномерным распределением обходится не
+ * дороже, чем в оптимальном для нее статическом дереве. Отдельный запрос
+ * может стоить O(n).
+ *
+ * <p>Подъем выполняется сверху вниз за один проход без стека, поэтому
+ * вырожденное дерево не переполняет стек. Повороты перевешивают
+ * существующие элементы и не создают новых. Высоты элементов, сменивших
+ * потомков, пересчитываются в конце подъема в порядке, обратном их
+ * присоединению к деревьям меньших и больших элементов.
+ *
+ * <p>{@link #find} меняет форму дерева, поэтому даже поиск нельзя
+ * выполнять одновременно с другими операциями или обходом.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class SplayTree<K extends Comparable<K>, V> extends BinaryTree<K, V> {
+
+    /**
+     * Вспомогательный элемент подъема: левый потомок — корень дерева
+     * элементов больше ключа, правый — корень дерева элементов меньше ключа.
+     */
+    private final BinaryNode<K, V> header =
+        new BinaryNode<>(null, null, null, null);
+
+    /**
+     * Элементы, присоединенные к деревьям меньших и больших элементов при
+     * подъеме, в порядке присоединения. Переиспользуется между подъемами.
+     */
+    @SuppressWarnings("unchecked")
+    private BinaryNode<K, V>[] spine = new BinaryNode[16];
+
+    /**
+     * Результат сравнения ключа с ключом нового корня при последнем
+     * подъеме: ноль, если ключ найден.
+     */
+    private int lastCompare;
+
+    /**
+     * Количество сравнений при последнем подъеме.
+     */
+    private int lastDepth;
+
+    /**
+     * Конструктор дерева с естественным порядком ключей.
+     */
+    public SplayTree() {
+        super();
+    }
+
+    /**
+     * Конструктор.
+     *
+     * @param comparator Порядок ключей.
+     */
+    public SplayTree(final Comparator<? super K> comparator) {
+        super(comparator);
+    }
+
+    @Override
+    public Node<K, V> find(final K key) {
+        BinaryNode<K, V> root = getRoot();
+        if (root.getKey() == null) {
+            notifyFind(false, 0);
+
+            return null;
+        }
+
+        root = splay(root, key);
+        setRoot(root);
+        notifyFind(lastCompare == 0, lastDepth);
+
+        return lastCompare == 0 ? root : null;
+    }
+
+    @Override
+    public Node<K, V> insert(final K key, final V value) {
+        BinaryNode<K, V> root = getRoot();
+        if (root.getKey() == null) {
+            return super.insert(key, value);
+        }
+
+        root = splay(root, key);
+        if (lastCompare == 0) {
+            setRoot(root);
+            notifyInsert(false, lastDepth);
+
+            return root;
+        }
+
+        BinaryNode<K, V> node = newNodeInstance(key, value);
+        if (lastCompare < 0) {
+            node.setLeft(root.getLeft());
+            node.setRight(root);
+            root.setLeft(null);
+        } else {
+            node.setRight(root.getRight());
+            node.setLeft(root);
+            root.setRight(null);
+        }
+
+        root.updateHeight();
+        node.updateHeight();
+        setRoot(node);
+        updateSize(1);
+        notifyInsert(true, lastDepth);
+
+        return node;
+    }
+
+    @Override
+    public Node<K, V> remove(final K key) {
+        BinaryNode<K, V> root = getRoot();
+        if (root.getKey() == null) {
+            notifyRemove(false, 0);
+
+            return null;
+        }
+
+        root = splay(root, key);
+        int depth = lastDepth;
+        if (lastCompare != 0) {
+            setRoot(root);
+            notifyRemove(false, depth);
+
+            return null;
+        }
+
+        BinaryNode<K, V> left = toBinaryNode(root.getLeft());
+        BinaryNode<K, V> right = toBinaryNode(root.getRight());
+
+        BinaryNode<K, V> top;
+        if (left == null) {
+            top = right == null ? newNodeInstance(null, null) : right;
+        } else {
+            top = splay(left, key);
+            top.setRight(right);
+            top.updateHeight();
+            countComparisons(lastDepth);
+        }
+
+        setRoot(top);
+        updateSize(-1);
+        notifyRemove(true, depth);
+
+        root.setLeft(null);
+        root.setRight(null);
+        root.updateHeight();
+
+        return root;
+    }
+
+    /**
+     * Поднимает в корень поддерева элемент с указанным ключом, а если его
+     * нет, последний элемент на пути поиска. Каждый элемент пути
+     * сравнивается с ключом один раз.
+     *
+     * @param subtree Непустое поддерево.
+     * @param key Ключ.
+     * @return Новый корень поддерева.
+     */
+    private BinaryNode<K, V> splay(final BinaryNode<K, V> subtree,
+                                   final K key) {
+        BinaryNode<K, V> less = header;
+        BinaryNode<K, V> greater = header;
+
+        BinaryNode<K, V> node = subtree;
+        int compare = compare(key, node);
+        int depth = 1;
+        int linked = 0;
+        while (compare != 0) {
+            boolean toLeft = compare < 0;
+            BinaryNode<K, V> child = child(node, toLeft);
+            if (child == null) {
+                break;
+            }
+
+            int next = compare(key, child);
+            depth++;
+            if (next != 0 && (next < 0) == toLeft) {
+                setChild(node, toLeft, child(child, !toLeft));
+                setChild(child, !toLeft, node);
+                node.updateHeight();
+                countRotation();
+
+                node = child;
+                child = child(node, toLeft);
+                if (child == null) {
+                    break;
+                }
+
+                next = compare(key, child);
+                depth++;
+            }
+
+            if (toLeft) {
+                greater.setLeft(node);
+                greater = node;
+            } else {
+                less.setRight(node);
+                less = node;
+            }
+
+            if (linked == spine.length) {
+                spine = Arrays.copyOf(spine, linked * 2);
+            }
+
+            spine[linked++] = node;
+
+            node = child;
+            compare = next;
+        }
+
+        less.setRight(node.getLeft());
+        greater.setLeft(node.getRight());
+        node.setLeft(header.getRight());
+        node.setRight(header.getLeft());
+
+        while (linked > 0) {
+            spine[--linked].updateHeight();
+            spine[linked] = null;
+        }
+
+        node.updateHeight();
+        header.setLeft(null);
+        header.setRight(null);
+        lastCompare = compare;
+        lastDepth = depth;
+
+        return node;
+    }
+
+    /**
+     * Делает элемент корнем дерева.
+     *
+     * @param node Новый корень.
+     */
+    private void setRoot(final BinaryNode<K, V> node) {
+        replace(getRoot(), node, null);
+    }
+
+    /**
+     * Возвращает потомка элемента.
+     *
+     * @param node Элемент.
+     * @param left Левый ли потомок.
+     * @return Потомок или {@code null}.
+     */
+    private BinaryNode<K, V> child(final BinaryNode<K, V> node,
+                                   final boolean left) {
+        return toBinaryNode(left ? node.getLeft() : node.getRight());
+    }
+
+    /**
+     * Устанавливает потомка элемента.
+     *
+     * @param node Элемент.
+     * @param left Левый ли потомок.
+     * @param child Потомок.
+     */
+    private void setChild(final BinaryNode<K, V> node,
+                          final boolean left,
+                          final BinaryNode<K, V> child) {
+        if (left) {
+            node.setLeft(child);
+        } else {
+            node.setRight(child);
+        }
+    }
+
+    /**
+     * Преобразование {@code Node} в {@code BinaryNode}.
+     *
+     * @param node Дерево в формате {@code Node}.
+     * @return Дерево в формате {@code BinaryNode}.
+     */
+    private BinaryNode<K, V> toBinaryNode(final Node<K, V> node) {
+        return (BinaryNode<K, V>) node;
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * AVL дерево со строковыми ключами, которое сравнивает ключи сначала по
+ * префиксу.
+ *
+ * <p>Каждый элемент хранит первые четыре символа ключа в {@code long}.
+ * Префикс искомого ключа вычисляется один раз на операцию, и на каждом
+ * уровне спуска сравниваются два числа; полное сравнение строк нужно, только
+ * если префиксы совпали. Это заметно ускоряет деревья с длинными ключами,
+ * которые различаются в начале. Ключи упорядочены естественно.
+ *
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class StringAVLTree<V> extends AVLTree<String, V> {
+
+    /**
+     * Ключ последней операции.
+     */
+    private String lastKey;
+
+    /**
+     * Префикс ключа последней операции.
+     */
+    private long lastPrefix;
+
+    @Override
+    protected AVLNode<String, V> newNodeInstance(final String key,
+                                                 final V value) {
+        return new PrefixNode<>(key, value);
+    }
+
+    @Override
+    protected int compare(final String key, final Node<String, V> node) {
+        if (key != lastKey) {
+            lastPrefix = PrefixNode.prefix(key);
+            lastKey = key;
+        }
+
+        int compare = Long.compareUnsigned(lastPrefix,
+            ((PrefixNode<V>) node).prefix());
+
+        return compare == 0 ? key.compareTo(node.getKey()) : compare;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Политика сброса журнала {@link DurableTree} на диск.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public enum SyncPolicy {
+
+    /**
+     * Групповая фиксация: операция возвращается только после того, как ее
+     * запись сброшена на диск. Один сброс покрывает все записи, накопленные
+     * к его началу, поэтому параллельные писатели делят сбросы между собой,
+     * а пакетные операции сбрасываются один раз на пакет.
+     */
+    GROUP,
+
+    /**
+     * Запись передается операционной системе сразу, а сброс на диск
+     * выполняется не чаще раза в секунду при очередной операции. Сбой
+     * процесса не теряет данных, сбой системы теряет операции последней
+     * секунды.
+     */
+    PERIODIC,
+
+    /**
+     * Запись передается операционной системе без сброса на диск. Сбой
+     * процесса не теряет данных, сбой системы теряет все, что операционная
+     * система не успела записать.
+     */
+    NONE
+}
@@ -1,13 +1,26 @@
 package com.github.onotoliy.algorithm.trees;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * Дерево.
  *
+ * <p>Обход дерева возвращает элементы в порядке возрастания ключей.
+ *
  * @param <K> Тип ключа.
  * @param <V> Тип значения
  * @author Anatoliy Pokhresnyi
  */
-public interface Tree<K extends Comparable<K>, V> {
+public interface Tree<K extends Comparable<K>, V>
+    extends Iterable<Node<K, V>> {
 
     /**
      * Поиск элемента в дереве.
@@ -35,7 +48,185 @@ public interface Tree<K extends Comparable<K>, V> {
     Node<K, V> remove(K key);
 
     /**
-     * Вычислет высоту дерева.
+     * Элемент с наибольшим ключом, не большим указанного.
+     *
+     * @param key Ключ.
+     * @return Элемент или {@code null}, если такого нет.
+     */
+    Node<K, V> floor(K key);
+
+    /**
+     * Элемент с наименьшим ключом, не меньшим указанного.
+     *
+     * @param key Ключ.
+     * @return Элемент или {@code null}, если такого нет.
+     */
+    Node<K, V> ceiling(K key);
+
+    /**
+     * Элемент с наибольшим ключом, строго меньшим указанного.
+     *
+     * @param key Ключ.
+     * @return Элемент или {@code null}, если такого нет.
+     */
+    Node<K, V> lower(K key);
+
+    /**
+     * Элемент с наименьшим ключом, строго большим указанного.
+     *
+     * @param key Ключ.
+     * @return Элемент или {@code null}, если такого нет.
+     */
+    Node<K, V> higher(K key);
+
+    /**
+     * Элемент с наименьшим ключом.
+     *
+     * @return Элемент или {@code null}, если дерево пусто.
+     */
+    Node<K, V> first();
+
+    /**
+     * Элемент с наибольшим ключом.
+     *
+     * @return Элемент или {@code null}, если дерево пусто.
+     */
+    Node<K, V> last();
+
+    /**
+     * Удаление элемента с наименьшим ключом. Реализация по умолчанию ищет
+     * элемент и удаляет его по ключу, то есть спускается по дереву дважды;
+     * деревья, которые умеют удалять наименьший элемент за один спуск,
+     * переопределяют этот метод.
+     *
+     * @return Удаленный элемент или {@code null}, если дерево пусто.
+     */
+    default Node<K, V> pollFirst() {
+        Node<K, V> first = first();
+
+        return first == null ? null : remove(first.getKey());
+    }
+
+    /**
+     * Вставка группы элементов в дерево. Значения ключей, которые уже есть в
+     * дереве, не меняются.
+     *
+     * @param entries Элементы.
+     * @return Вставленные элементы.
+     */
+    default List<Node<K, V>> insertAll(
+        final Map<? extends K, ? extends V> entries) {
+        List<Node<K, V>> inserted = new ArrayList<>();
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            if (find(entry.getKey()) == null) {
+                inserted.add(insert(entry.getKey(), entry.getValue()));
+            }
+        }
+
+        return inserted;
+    }
+
+    /**
+     * Удаление группы элементов из дерева.
+     *
+     * @param keys Ключи.
+     * @return Удаленные элементы.
+     */
+    default List<Node<K, V>> removeAll(final Collection<? extends K> keys) {
+        List<Node<K, V>> removed = new ArrayList<>();
+        for (K key : keys) {
+            Node<K, V> node = remove(key);
+            if (node != null) {
+                removed.add(node);
+            }
+        }
+
+        return removed;
+    }
+
+    /**
+     * Обход элементов с ключами в диапазоне [from, to) в порядке возрастания
+     * ключей за O(log n + k).
+     *
+     * @param from Нижняя граница, включительно, или {@code null}, если
+     *             диапазон не ограничен снизу.
+     * @param to Верхняя граница, исключительно, или {@code null}, если
+     *           диапазон не ограничен сверху.
+     * @return Обход элементов.
+     */
+    Iterator<Node<K, V>> iterator(K from, K to);
+
+    @Override
+    default Iterator<Node<K, V>> iterator() {
+        return iterator(null, null);
+    }
+
+    @Override
+    default Spliterator<Node<K, V>> spliterator() {
+        return Spliterators.spliteratorUnknownSize(iterator(),
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+    }
+
+    /**
+     * Элементы дерева в порядке возрастания ключей.
+     *
+     * @return Поток элементов.
+     */
+    default Stream<Node<K, V>> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Представление элементов с ключами в диапазоне [from, to). Каждый обход
+     * представления читает текущее состояние дерева.
+     *
+     * @param from Нижняя граница, включительно, или {@code null}.
+     * @param to Верхняя граница, исключительно, или {@code null}.
+     * @return Представление диапазона.
+     */
+    default Iterable<Node<K, V>> range(final K from, final K to) {
+        return () -> iterator(from, to);
+    }
+
+    /**
+     * Представление элементов с ключами меньше {@code to}.
+     *
+     * @param to Верхняя граница, исключительно.
+     * @return Представление диапазона.
+     */
+    default Iterable<Node<K, V>> headRange(final K to) {
+        return range(null, to);
+    }
+
+    /**
+     * Представление элементов с ключами не меньше {@code from}.
+     *
+     * @param from Нижняя граница, включительно.
+     * @return Представление диапазона.
+     */
+    default Iterable<Node<K, V>> tailRange(final K from) {
+        return range(from, null);
+    }
+
+    /**
+     * Количество элементов дерева. Поддерживается при каждом изменении,
+     * поэтому вызов стоит O(1).
+     *
+     * @return Количество элементов.
+     */
+    int size();
+
+    /**
+     * Проверяет, пусто ли дерево.
+     *
+     * @return Пусто ли дерево.
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Вычислет высоту дерева. У пустого дерева высота равна нулю.
      *
      * @return Высота дерева.
      */
@@ -0,0 +1,56 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Слушатель операций бинарного дерева.
+ *
+ * <p>Подключается через {@link BinaryTree#setListener}. Пока слушатель не
+ * подключен, дерево не собирает никаких данных: счетчики текущей операции
+ * живут в локальных переменных спуска, а события не создаются.
+ *
+ * <p>События вызываются в потоке, выполняющем операцию, после ее
+ * завершения. Глубина — количество элементов, с ключами которых сравнивался
+ * ключ при спуске от корня. Сравнения включают повторные спуски
+ * балансировки.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public interface TreeListener {
+
+    /**
+     * Поиск завершен.
+     *
+     * @param hit Найден ли ключ.
+     * @param depth Глубина спуска.
+     */
+    void onFind(boolean hit, int depth);
+
+    /**
+     * Вставка завершена.
+     *
+     * @param inserted Создан ли новый элемент. Иначе ключ уже был в дереве.
+     * @param depth Глубина спуска.
+     * @param comparisons Количество сравнений ключей.
+     * @param rotations Количество одинарных поворотов.
+     */
+    void onInsert(boolean inserted, int depth, int comparisons,
+                  int rotations);
+
+    /**
+     * Удаление завершено.
+     *
+     * @param removed Удален ли элемент. Иначе ключа не было в дереве.
+     * @param depth Глубина спуска.
+     * @param comparisons Количество сравнений ключей.
+     * @param rotations Количество одинарных поворотов.
+     */
+    void onRemove(boolean removed, int depth, int comparisons,
+                  int rotations);
+
+    /**
+     * Созданы элементы для новых ключей: одной вставкой, загрузкой или
+     * пакетной вставкой.
+     *
+     * @param nodes Количество элементов.
+     */
+    void onAllocate(int nodes);
+}
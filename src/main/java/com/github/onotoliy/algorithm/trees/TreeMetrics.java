@@ -0,0 +1,283 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Счетчики и гистограммы операций бинарного дерева.
+ *
+ * <p>Подключается к дереву как слушатель:
+ * <pre>{@code
+ * TreeMetrics metrics = new TreeMetrics();
+ * tree.setListener(metrics);
+ * metrics.register("orders");
+ * }</pre>
+ *
+ * <p>Дерево сообщает события из потока, выполняющего операцию, а читать
+ * метрики можно из любого потока, в том числе через JMX. Одни метрики можно
+ * подключить к нескольким деревьям, тогда они суммируются.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public class TreeMetrics implements TreeListener, TreeMetricsMXBean {
+
+    /**
+     * Количество корзин гистограммы. Сравнения на вставку в AVL-дерево из
+     * миллиарда ключей не превышают 90.
+     */
+    public static final int BUCKETS = 128;
+
+    /**
+     * Домен имени в JMX.
+     */
+    private static final String DOMAIN = "com.github.onotoliy.algorithm.trees";
+
+    /**
+     * Количество поисков.
+     */
+    private final LongAdder lookups = new LongAdder();
+
+    /**
+     * Количество попаданий.
+     */
+    private final LongAdder hits = new LongAdder();
+
+    /**
+     * Количество вставок.
+     */
+    private final LongAdder inserts = new LongAdder();
+
+    /**
+     * Количество удалений.
+     */
+    private final LongAdder removes = new LongAdder();
+
+    /**
+     * Количество сравнений.
+     */
+    private final LongAdder comparisons = new LongAdder();
+
+    /**
+     * Количество поворотов.
+     */
+    private final LongAdder rotations = new LongAdder();
+
+    /**
+     * Количество созданных элементов.
+     */
+    private final LongAdder allocatedNodes = new LongAdder();
+
+    /**
+     * Сумма глубин спуска.
+     */
+    private final LongAdder totalDepth = new LongAdder();
+
+    /**
+     * Гистограмма глубины спуска.
+     */
+    private final AtomicLongArray depths = new AtomicLongArray(BUCKETS);
+
+    /**
+     * Гистограмма сравнений на операцию.
+     */
+    private final AtomicLongArray comparisonCounts =
+        new AtomicLongArray(BUCKETS);
+
+    /**
+     * Гистограмма поворотов на вставку или удаление.
+     */
+    private final AtomicLongArray rotationCounts =
+        new AtomicLongArray(BUCKETS);
+
+    @Override
+    public void onFind(final boolean hit, final int depth) {
+        lookups.increment();
+        if (hit) {
+            hits.increment();
+        }
+
+        descent(depth, depth);
+    }
+
+    @Override
+    public void onInsert(final boolean inserted,
+                         final int depth,
+                         final int compared,
+                         final int rotated) {
+        inserts.increment();
+        update(depth, compared, rotated);
+    }
+
+    @Override
+    public void onRemove(final boolean removed,
+                         final int depth,
+                         final int compared,
+                         final int rotated) {
+        removes.increment();
+        update(depth, compared, rotated);
+    }
+
+    @Override
+    public void onAllocate(final int nodes) {
+        allocatedNodes.add(nodes);
+    }
+
+    /**
+     * Регистрирует метрики в платформенном JMX-сервере под именем
+     * {@code com.github.onotoliy.algorithm.trees:type=TreeMetrics,name=...}.
+     *
+     * @param name Имя дерева.
+     * @return Имя зарегистрированного объекта.
+     * @throws JMException Если имя уже занято.
+     */
+    public ObjectName register(final String name) throws JMException {
+        ObjectName objectName = new ObjectName(
+            DOMAIN + ":type=TreeMetrics,name=" + ObjectName.quote(name));
+        ManagementFactory.getPlatformMBeanServer()
+            .registerMBean(this, objectName);
+
+        return objectName;
+    }
+
+    @Override
+    public long getLookups() {
+        return lookups.sum();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return lookups.sum() - hits.sum();
+    }
+
+    @Override
+    public long getInserts() {
+        return inserts.sum();
+    }
+
+    @Override
+    public long getRemoves() {
+        return removes.sum();
+    }
+
+    @Override
+    public long getComparisons() {
+        return comparisons.sum();
+    }
+
+    @Override
+    public long getRotations() {
+        return rotations.sum();
+    }
+
+    @Override
+    public long getAllocatedNodes() {
+        return allocatedNodes.sum();
+    }
+
+    @Override
+    public double getMeanDepth() {
+        long operations = lookups.sum() + inserts.sum() + removes.sum();
+
+        return operations == 0
+            ? 0
+            : (double) totalDepth.sum() / operations;
+    }
+
+    @Override
+    public long[] getDepthHistogram() {
+        return snapshot(depths);
+    }
+
+    @Override
+    public long[] getComparisonHistogram() {
+        return snapshot(comparisonCounts);
+    }
+
+    @Override
+    public long[] getRotationHistogram() {
+        return snapshot(rotationCounts);
+    }
+
+    @Override
+    public void reset() {
+        lookups.reset();
+        hits.reset();
+        inserts.reset();
+        removes.reset();
+        comparisons.reset();
+        rotations.reset();
+        allocatedNodes.reset();
+        totalDepth.reset();
+
+        for (int i = 0; i < BUCKETS; i++) {
+            depths.set(i, 0);
+            comparisonCounts.set(i, 0);
+            rotationCounts.set(i, 0);
+        }
+    }
+
+    /**
+     * Учитывает вставку или удаление.
+     *
+     * @param depth Глубина спуска.
+     * @param compared Количество сравнений.
+     * @param rotated Количество поворотов.
+     */
+    private void update(final int depth,
+                        final int compared,
+                        final int rotated) {
+        descent(depth, compared);
+
+        rotations.add(rotated);
+        record(rotationCounts, rotated);
+    }
+
+    /**
+     * Учитывает спуск.
+     *
+     * @param depth Глубина спуска.
+     * @param compared Количество сравнений.
+     */
+    private void descent(final int depth, final int compared) {
+        totalDepth.add(depth);
+        comparisons.add(compared);
+
+        record(depths, depth);
+        record(comparisonCounts, compared);
+    }
+
+    /**
+     * Добавляет значение в гистограмму.
+     *
+     * @param histogram Гистограмма.
+     * @param value Значение.
+     */
+    private static void record(final AtomicLongArray histogram,
+                               final int value) {
+        histogram.incrementAndGet(Math.min(value, BUCKETS - 1));
+    }
+
+    /**
+     * Копирует гистограмму.
+     *
+     * @param histogram Гистограмма.
+     * @return Копия.
+     */
+    private static long[] snapshot(final AtomicLongArray histogram) {
+        long[] copy = new long[histogram.length()];
+        for (int i = 0; i < copy.length; i++) {
+            copy[i] = histogram.get(i);
+        }
+
+        return copy;
+    }
+}
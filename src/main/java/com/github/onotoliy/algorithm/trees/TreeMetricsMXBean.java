@@ -0,0 +1,102 @@
+package com.github.onotoliy.algorithm.trees;
+
+/**
+ * Метрики бинарного дерева, доступные через JMX.
+ *
+ * <p>Гистограммы — массивы длины {@link TreeMetrics#BUCKETS}: элемент
+ * {@code i} содержит количество операций со значением {@code i}, последний
+ * элемент — со значением не меньше индекса.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+public interface TreeMetricsMXBean {
+
+    /**
+     * Возвращает количество поисков.
+     *
+     * @return Количество поисков.
+     */
+    long getLookups();
+
+    /**
+     * Возвращает количество поисков, нашедших ключ.
+     *
+     * @return Количество попаданий.
+     */
+    long getHits();
+
+    /**
+     * Возвращает количество поисков, не нашедших ключ.
+     *
+     * @return Количество промахов.
+     */
+    long getMisses();
+
+    /**
+     * Возвращает количество вставок, включая вставки существующих ключей.
+     *
+     * @return Количество вставок.
+     */
+    long getInserts();
+
+    /**
+     * Возвращает количество удалений, включая удаления отсутствующих ключей.
+     *
+     * @return Количество удалений.
+     */
+    long getRemoves();
+
+    /**
+     * Возвращает общее количество сравнений ключей.
+     *
+     * @return Количество сравнений.
+     */
+    long getComparisons();
+
+    /**
+     * Возвращает общее количество одинарных поворотов.
+     *
+     * @return Количество поворотов.
+     */
+    long getRotations();
+
+    /**
+     * Возвращает количество элементов, созданных для новых ключей.
+     *
+     * @return Количество элементов.
+     */
+    long getAllocatedNodes();
+
+    /**
+     * Возвращает среднюю глубину спуска по всем операциям.
+     *
+     * @return Средняя глубина или ноль, если операций не было.
+     */
+    double getMeanDepth();
+
+    /**
+     * Возвращает гистограмму глубины спуска по всем операциям.
+     *
+     * @return Гистограмма.
+     */
+    long[] getDepthHistogram();
+
+    /**
+     * Возвращает гистограмму сравнений на операцию.
+     *
+     * @return Гистограмма.
+     */
+    long[] getComparisonHistogram();
+
+    /**
+     * Возвращает гистограмму поворотов на вставку или удаление.
+     *
+     * @return Гистограмма.
+     */
+    long[] getRotationHistogram();
+
+    /**
+     * Обнуляет все счетчики и гистограммы.
+     */
+    void reset();
+}
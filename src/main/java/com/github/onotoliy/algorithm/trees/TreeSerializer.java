@@ -0,0 +1,302 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Двоичный дамп дерева.
+ *
+ * <p>Дамп состоит из заголовка — сигнатуры, версии формата и количества
+ * элементов — и элементов в порядке возрастания ключей. Ключи и значения
+ * записываются переданными {@link Codec}, числа в заголовке — в формате
+ * переменной длины, поэтому дамп не содержит ничего, кроме самих данных.
+ *
+ * <p>Дамп читается потоком элементов или загружается в дерево: ключи дампа
+ * строго возрастают, поэтому {@link BinaryTree#load(Comparable[], Object[])}
+ * собирает сбалансированное дерево за один линейный проход без сравнений на
+ * спуске и поворотов.
+ *
+ * <p>Запись и чтение буферизуются. Поток или канал не закрывается, но при
+ * чтении буфер может забрать из него данные, следующие за дампом.
+ *
+ * @param <K> Тип ключа.
+ * @param <V> Тип значения
+ * @author Anatoliy Pokhresnyi
+ */
+public class TreeSerializer<K extends Comparable<K>, V> {
+
+    /**
+     * Сигнатура дампа, {@code "TREE"}.
+     */
+    private static final int MAGIC = 0x54524545;
+
+    /**
+     * Версия формата.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Размер буфера.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Наибольшая начальная длина массивов при загрузке. Количество
+     * элементов в заголовке может быть повреждено, поэтому массивы
+     * выделяются не сразу на весь дамп, а растут по мере чтения.
+     */
+    private static final int INITIAL_LOAD_SIZE = 1 << 12;
+
+    /**
+     * Представление ключей.
+     */
+    private final Codec<K> keyCodec;
+
+    /**
+     * Представление значений.
+     */
+    private final Codec<V> valueCodec;
+
+    /**
+     * Конструктор.
+     *
+     * @param aKeyCodec Представление ключей.
+     * @param aValueCodec Представление значений.
+     */
+    public TreeSerializer(final Codec<K> aKeyCodec,
+                          final Codec<V> aValueCodec) {
+        this.keyCodec = aKeyCodec;
+        this.valueCodec = aValueCodec;
+    }
+
+    /**
+     * Записывает дамп дерева.
+     *
+     * @param tree Дерево.
+     * @param out Выходной поток.
+     * @throws IOException Ошибка записи.
+     */
+    public void write(final Tree<K, V> tree, final OutputStream out)
+        throws IOException {
+        DataOutputStream data = new DataOutputStream(
+            new BufferedOutputStream(out, BUFFER_SIZE));
+
+        int size = tree.size();
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        Codecs.writeVarLong(data, size);
+
+        int written = 0;
+        for (Node<K, V> node : tree) {
+            keyCodec.write(node.getKey(), data);
+            valueCodec.write(node.getValue(), data);
+            written++;
+        }
+
+        if (written != size) {
+            throw new IllegalStateException(
+                "Tree changed while writing: " + size + " elements expected, "
+                    + written + " written");
+        }
+
+        data.flush();
+    }
+
+    /**
+     * Записывает дамп дерева в канал.
+     *
+     * @param tree Дерево.
+     * @param channel Канал.
+     * @throws IOException Ошибка записи.
+     */
+    public void write(final Tree<K, V> tree,
+                      final WritableByteChannel channel) throws IOException {
+        write(tree, Channels.newOutputStream(channel));
+    }
+
+    /**
+     * Читает дамп потоком элементов. Заголовок читается сразу, элементы — по
+     * мере обхода потока. Ошибка чтения элемента выбрасывается как
+     * {@link UncheckedIOException}.
+     *
+     * @param in Входной поток.
+     * @return Элементы в порядке возрастания ключей.
+     * @throws IOException Ошибка чтения заголовка или это не дамп дерева.
+     */
+    public Stream<Map.Entry<K, V>> read(final InputStream in)
+        throws IOException {
+        DataInputStream data = buffered(in);
+        int size = readHeader(data);
+
+        Iterator<Map.Entry<K, V>> entries = new Iterator<Map.Entry<K, V>>() {
+
+            /**
+             * Количество непрочитанных элементов.
+             */
+            private int remaining = size;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (remaining == 0) {
+                    throw new NoSuchElementException();
+                }
+
+                try {
+                    K key = keyCodec.read(data);
+                    V value = valueCodec.read(data);
+                    remaining--;
+
+                    return new AbstractMap.SimpleImmutableEntry<>(key, value);
+                } catch (EOFException e) {
+                    throw new UncheckedIOException(corrupted(e));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliterator(entries, size,
+            Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL),
+            false);
+    }
+
+    /**
+     * Читает дамп из канала потоком элементов.
+     *
+     * @param channel Канал.
+     * @return Элементы в порядке возрастания ключей.
+     * @throws IOException Ошибка чтения заголовка или это не дамп дерева.
+     * @see #read(InputStream)
+     */
+    public Stream<Map.Entry<K, V>> read(final ReadableByteChannel channel)
+        throws IOException {
+        return read(Channels.newInputStream(channel));
+    }
+
+    /**
+     * Заменяет содержимое дерева элементами дампа за O(n). Если дамп
+     * обрывается раньше, чем прочитаны все элементы из заголовка, дерево
+     * не меняется.
+     *
+     * @param in Входной поток.
+     * @param tree Дерево.
+     * @param <T> Тип дерева.
+     * @return Дерево.
+     * @throws IOException Ошибка чтения, это не дамп дерева или дамп
+     *                     поврежден.
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends BinaryTree<K, V>> T load(final InputStream in,
+                                               final T tree)
+        throws IOException {
+        DataInputStream data = buffered(in);
+        int size = readHeader(data);
+
+        int length = Math.min(size, INITIAL_LOAD_SIZE);
+        K[] keys = (K[]) new Comparable[length];
+        V[] values = (V[]) new Object[length];
+        try {
+            for (int i = 0; i < size; i++) {
+                if (i == keys.length) {
+                    length = (int) Math.min(size, 2L * i);
+                    keys = Arrays.copyOf(keys, length);
+                    values = Arrays.copyOf(values, length);
+                }
+
+                keys[i] = keyCodec.read(data);
+                values[i] = valueCodec.read(data);
+            }
+        } catch (EOFException e) {
+            throw corrupted(e);
+        }
+
+        tree.load(keys, values);
+
+        return tree;
+    }
+
+    /**
+     * Заменяет содержимое дерева элементами дампа из канала за O(n).
+     *
+     * @param channel Канал.
+     * @param tree Дерево.
+     * @param <T> Тип дерева.
+     * @return Дерево.
+     * @throws IOException Ошибка чтения или это не дамп дерева.
+     */
+    public <T extends BinaryTree<K, V>> T load(
+        final ReadableByteChannel channel, final T tree) throws IOException {
+        return load(Channels.newInputStream(channel), tree);
+    }
+
+    /**
+     * Оборачивает поток буфером.
+     *
+     * @param in Входной поток.
+     * @return Буферизованный поток.
+     */
+    private static DataInputStream buffered(final InputStream in) {
+        return new DataInputStream(new BufferedInputStream(in, BUFFER_SIZE));
+    }
+
+    /**
+     * Ошибка дампа, который обрывается раньше, чем прочитаны все элементы
+     * из заголовка: поврежден либо заголовок, либо сами элементы.
+     *
+     * @param cause Ошибка чтения.
+     * @return Ошибка.
+     */
+    private static IOException corrupted(final EOFException cause) {
+        return new IOException("Tree dump has a corrupted header/body", cause);
+    }
+
+    /**
+     * Читает заголовок дампа.
+     *
+     * @param data Входные данные.
+     * @return Количество элементов.
+     * @throws IOException Ошибка чтения или это не дамп дерева.
+     */
+    private static int readHeader(final DataInputStream data)
+        throws IOException {
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a tree dump");
+        }
+
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported tree dump version " + version);
+        }
+
+        long size = Codecs.readVarLong(data);
+        if (size < 0 || size > Integer.MAX_VALUE) {
+            throw new IOException("Tree dump has a corrupted header");
+        }
+
+        return (int) size;
+    }
+}
@@ -0,0 +1,343 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Журнал предзаписи {@link DurableTree}.
+ *
+ * <p>Файл состоит из записей: длина данных, контрольная сумма данных и сами
+ * данные. Запись добавляется в буфер в памяти и получает порядковый номер,
+ * {@link #commit} передает буфер в файл и, в зависимости от политики,
+ * сбрасывает файл на диск.
+ *
+ * <p>При групповой фиксации сброс выполняет один из ожидающих потоков, не
+ * удерживая монитор журнала: пока идет сброс, остальные потоки добавляют
+ * записи, и следующий сброс покрывает их все.
+ *
+ * @author Anatoliy Pokhresnyi
+ */
+final class WriteAheadLog implements AutoCloseable {
+
+    /**
+     * Длина заголовка записи: длина данных и контрольная сумма.
+     */
+    private static final int RECORD_HEADER = 2 * Integer.BYTES;
+
+    /**
+     * Начальный размер буфера.
+     */
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Наименьший интервал между сбросами {@link SyncPolicy#PERIODIC}.
+     */
+    private static final long SYNC_INTERVAL = TimeUnit.SECONDS.toNanos(1);
+
+    /**
+     * Файл.
+     */
+    private final FileChannel channel;
+
+    /**
+     * Политика сброса.
+     */
+    private final SyncPolicy policy;
+
+    /**
+     * Контрольная сумма.
+     */
+    private final CRC32 crc = new CRC32();
+
+    /**
+     * Записи, еще не переданные в файл.
+     */
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+    /**
+     * Количество добавленных записей.
+     */
+    private long appended;
+
+    /**
+     * Количество записей, сброшенных на диск.
+     */
+    private long durable;
+
+    /**
+     * Выполняется ли сброс.
+     */
+    private boolean syncing;
+
+    /**
+     * Время последнего сброса.
+     */
+    private long lastSync = System.nanoTime();
+
+    /**
+     * Конструктор. Открывает журнал для добавления записей после
+     * {@code length} байт. Более длинный файл обрезается.
+     *
+     * @param file Файл.
+     * @param aPolicy Политика сброса.
+     * @param length Длина целой части журнала.
+     * @throws IOException Ошибка открытия.
+     */
+    WriteAheadLog(final Path file,
+                  final SyncPolicy aPolicy,
+                  final long length) throws IOException {
+        this.policy = aPolicy;
+        this.channel = FileChannel.open(file,
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.WRITE);
+        this.channel.truncate(length);
+        this.channel.position(length);
+    }
+
+    /**
+     * Читает целые записи журнала от начала файла. Чтение останавливается на
+     * первой неполной или поврежденной записи: это хвост, запись которого
+     * прервал сбой.
+     *
+     * @param file Файл.
+     * @param reader Обработчик записей.
+     * @return Длина целой части журнала.
+     * @throws IOException Ошибка чтения или обработки записи.
+     */
+    static long replay(final Path file, final Reader reader)
+        throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+
+        long size = Files.size(file);
+        CRC32 checksum = new CRC32();
+        byte[] data = new byte[0];
+        long valid = 0;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+            Files.newInputStream(file), BUFFER_SIZE))) {
+            while (true) {
+                int length;
+                int expected;
+                try {
+                    length = in.readInt();
+                    expected = in.readInt();
+                } catch (EOFException e) {
+                    return valid;
+                }
+
+                if (length < 0 || length > size - valid - RECORD_HEADER) {
+                    return valid;
+                }
+
+                if (data.length < length) {
+                    data = new byte[length];
+                }
+
+                in.readFully(data, 0, length);
+                checksum.reset();
+                checksum.update(data, 0, length);
+                if ((int) checksum.getValue() != expected) {
+                    return valid;
+                }
+
+                reader.read(new DataInputStream(
+                    new ByteArrayInputStream(data, 0, length)));
+                valid += RECORD_HEADER + length;
+            }
+        }
+    }
+
+    /**
+     * Добавляет запись.
+     *
+     * @param data Данные.
+     * @param length Длина данных.
+     * @return Порядковый номер записи для {@link #commit}.
+     */
+    synchronized long append(final byte[] data, final int length) {
+        if (buffer.remaining() < RECORD_HEADER + length) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(
+                buffer.capacity() * 2, buffer.position() + RECORD_HEADER
+                    + length));
+            buffer.flip();
+            larger.put(buffer);
+            buffer = larger;
+        }
+
+        crc.reset();
+        crc.update(data, 0, length);
+
+        buffer.putInt(length);
+        buffer.putInt((int) crc.getValue());
+        buffer.put(data, 0, length);
+
+        return ++appended;
+    }
+
+    /**
+     * Фиксирует записи до указанной включительно согласно политике.
+     *
+     * @param sequence Порядковый номер записи.
+     * @throws IOException Ошибка записи.
+     */
+    void commit(final long sequence) throws IOException {
+        if (policy == SyncPolicy.GROUP) {
+            sync(sequence);
+
+            return;
+        }
+
+        synchronized (this) {
+            write();
+            if (policy == SyncPolicy.PERIODIC
+                && System.nanoTime() - lastSync >= SYNC_INTERVAL) {
+                channel.force(false);
+                lastSync = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Сбрасывает на диск все добавленные записи.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    void sync() throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = appended;
+        }
+
+        sync(sequence);
+    }
+
+    /**
+     * Очищает журнал. Вызывается после того, как все записи сброшены на
+     * диск и вошли в снимок.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    synchronized void reset() throws IOException {
+        buffer.clear();
+        channel.truncate(0);
+        channel.position(0);
+        channel.force(true);
+        durable = appended;
+    }
+
+    /**
+     * Возвращает длину журнала вместе с еще не записанными в файл данными.
+     *
+     * @return Длина в байтах.
+     * @throws IOException Ошибка чтения.
+     */
+    synchronized long length() throws IOException {
+        return channel.position() + buffer.position();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sync();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Групповая фиксация. Поток, не заставший идущего сброса, становится
+     * ведущим: передает буфер в файл и сбрасывает файл на диск вне монитора.
+     * Остальные ждут, пока сброшенной окажется их запись.
+     *
+     * @param sequence Порядковый номер записи.
+     * @throws IOException Ошибка записи.
+     */
+    private void sync(final long sequence) throws IOException {
+        while (true) {
+            long target;
+            synchronized (this) {
+                while (syncing && durable < sequence) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException(
+                            "Interrupted while waiting for log sync");
+                    }
+                }
+
+                if (durable >= sequence) {
+                    return;
+                }
+
+                syncing = true;
+                target = appended;
+                try {
+                    write();
+                } catch (IOException | RuntimeException e) {
+                    syncing = false;
+                    notifyAll();
+                    throw e;
+                }
+            }
+
+            boolean forced = false;
+            try {
+                channel.force(false);
+                forced = true;
+            } finally {
+                synchronized (this) {
+                    if (forced) {
+                        durable = Math.max(durable, target);
+                        lastSync = System.nanoTime();
+                    }
+
+                    syncing = false;
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Передает буфер в файл. Вызывается под монитором журнала.
+     *
+     * @throws IOException Ошибка записи.
+     */
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+
+        buffer.clear();
+    }
+
+    /**
+     * Обработчик записей журнала при восстановлении.
+     */
+    interface Reader {
+
+        /**
+         * Обрабатывает запись.
+         *
+         * @param record Данные записи.
+         * @throws IOException Данные записи повреждены.
+         */
+        void read(DataInput record) throws IOException;
+    }
+}
@@ -1,9 +1,298 @@
 package com.github.onotoliy.algorithm.trees;
 
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
 import org.junit.Test;
 
 public class AVLTreeTest {
 
+    @Test
+    public void sequentialConsistency() {
+        AVLTree<Long, Long> avlTree = new AVLTree<>();
+        for (long i = 0; i < 10_000; i++) {
+            avlTree.insert(i, i);
+        }
+
+        avlTree.checkConsistency();
+        Assert.assertTrue(avlTree.height() <= 20);
+
+        for (long i = 0; i < 10_000; i = i + 2) {
+            avlTree.remove(i);
+        }
+
+        avlTree.checkConsistency();
+
+        for (long i = 0; i < 10_000; i++) {
+            Node<Long, Long> node = avlTree.find(i);
+            if (i % 2 == 0) {
+                Assert.assertNull(node);
+            } else {
+                Assert.assertEquals(Long.valueOf(i), node.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void rotationKeepsNodeIdentity() {
+        AVLTree<Long, Long> avlTree = new AVLTree<>();
+        List<Node<Long, Long>> nodes = new ArrayList<>();
+        for (long i = 0; i < 1_000; i++) {
+            nodes.add(avlTree.insert(i, i * 10));
+        }
+
+        for (long i = 0; i < 1_000; i = i + 3) {
+            avlTree.remove(i);
+        }
+
+        avlTree.checkConsistency();
+
+        for (int i = 0; i < nodes.size(); i++) {
+            Node<Long, Long> node = nodes.get(i);
+            Assert.assertEquals(Long.valueOf(i), node.getKey());
+            Assert.assertEquals(Long.valueOf(i * 10L), node.getValue());
+
+            if (i % 3 != 0) {
+                Assert.assertSame(node, avlTree.find((long) i));
+            }
+        }
+    }
+
+    @Test
+    public void rebalanceAllocatesNothing() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+
+        com.sun.management.ThreadMXBean threads =
+            (com.sun.management.ThreadMXBean) bean;
+        long threadId = Thread.currentThread().getId();
+
+        Long[] keys = new Long[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) i;
+        }
+
+        long nodeSize = nodeSize(threads, threadId);
+
+        AVLTree<Long, Long> avlTree = new AVLTree<>();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (Long key : keys) {
+            avlTree.insert(key, key);
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        Assert.assertTrue("Allocated " + (after - before) + " bytes",
+                          after - before < keys.length * nodeSize * 3 / 2);
+
+        before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < keys.length; i = i + 2) {
+            avlTree.remove(keys[i]);
+        }
+        after = threads.getThreadAllocatedBytes(threadId);
+
+        Assert.assertTrue("Allocated " + (after - before) + " bytes",
+                          after - before < nodeSize * 16);
+    }
+
+    private static long nodeSize(final com.sun.management.ThreadMXBean threads,
+                                 final long threadId) {
+        Object[] sink = new Object[1_000];
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < sink.length; i++) {
+            sink[i] = new AVLNode<Long, Long>(null, null, null, null);
+        }
+        long after = threads.getThreadAllocatedBytes(threadId);
+
+        return (after - before) / sink.length;
+    }
+
+    @Test
+    public void randomConsistency() {
+        Random random = new Random(42);
+        List<Long> keys = new ArrayList<>();
+        for (long i = 0; i < 5_000; i++) {
+            keys.add(i);
+        }
+
+        Collections.shuffle(keys, random);
+
+        AVLTree<Long, Long> avlTree = new AVLTree<>();
+        for (Long key : keys) {
+            avlTree.insert(key, key);
+        }
+
+        avlTree.checkConsistency();
+
+        Collections.shuffle(keys, random);
+        for (int i = 0; i < keys.size(); i++) {
+            Assert.assertEquals(keys.get(i), avlTree.remove(keys.get(i)).getKey());
+
+            if (i % 500 == 0) {
+                avlTree.checkConsistency();
+            }
+        }
+
+        avlTree.checkConsistency();
+        Assert.assertNull(avlTree.find(keys.get(0)));
+    }
+
+    @Test
+    public void loadSorted() {
+        Long[] keys = new Long[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) i * 2;
+        }
+
+        AVLTree<Long, Long> avlTree = new AVLTree<>();
+        avlTree.insert(-1L, -1L);
+        avlTree.load(keys, keys);
+
+        avlTree.checkConsistency();
+        Assert.assertEquals(17, avlTree.height());
+        Assert.assertNull(avlTree.find(-1L));
+        for (Long key : keys) {
+            Assert.assertEquals(key, avlTree.find(key).getValue());
+        }
+
+        avlTree.insert(1L, 1L);
+        avlTree.remove(0L);
+        avlTree.checkConsistency();
+    }
+
+    @Test
+    public void loadUnsorted() {
+        List<Map.Entry<Long, String>> entries = new ArrayList<>();
+        for (long i = 0; i < 1_000; i++) {
+            entries.add(new AbstractMap.SimpleEntry<>(i, "first"));
+        }
+
+        Collections.shuffle(entries, new Random(7));
+        for (long i = 0; i < 1_000; i = i + 3) {
+            entries.add(new AbstractMap.SimpleEntry<>(i, "second"));
+        }
+
+        AVLTree<Long, String> avlTree = new AVLTree<>();
+        avlTree.load(entries.stream());
+
+        avlTree.checkConsistency();
+        for (long i = 0; i < 1_000; i++) {
+            Assert.assertEquals("first", avlTree.find(i).getValue());
+        }
+
+        avlTree.load(Collections.<Map.Entry<Long, String>>emptyIterator());
+        Assert.assertNull(avlTree.find(0L));
+        Assert.assertEquals("b null", avlTree.toString());
+    }
+
+    @Test
+    public void batches() {
+        AVLTree<Long, Long> avlTree = new AVLTree<>();
+        Node<Long, Long> kept = avlTree.insert(1L, 1L);
+
+        Map<Long, Long> small = new HashMap<>();
+        small.put(1L, 100L);
+        small.put(3L, 3L);
+        Assert.assertEquals(1, avlTree.insertAll(small).size());
+
+        Map<Long, Long> large = new HashMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextInt(20_000);
+            large.put(key, key);
+        }
+
+        int expected = large.size()
+            - (large.containsKey(1L) ? 1 : 0) - (large.containsKey(3L) ? 1 : 0);
+        List<Node<Long, Long>> inserted = avlTree.insertAll(large);
+
+        avlTree.checkConsistency();
+        Assert.assertEquals(expected, inserted.size());
+        Assert.assertSame(kept, avlTree.find(1L));
+        Assert.assertEquals(Long.valueOf(1L), kept.getValue());
+        for (Long key : large.keySet()) {
+            Assert.assertNotNull(avlTree.find(key));
+        }
+
+        List<Long> keys = new ArrayList<>(large.keySet());
+        keys.add(-5L);
+        List<Node<Long, Long>> removed = avlTree.removeAll(keys);
+
+        avlTree.checkConsistency();
+        Assert.assertEquals(large.size(), removed.size());
+        for (Long key : keys) {
+            Assert.assertNull(avlTree.find(key));
+        }
+
+        Assert.assertTrue(avlTree.removeAll(keys).isEmpty());
+    }
+
+    @Test
+    public void parallelStream() {
+        Long[] keys = new Long[100_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = (long) i;
+        }
+
+        AVLTree<Long, Long> avlTree = new AVLTree<>();
+        avlTree.load(keys, keys);
+
+        Spliterator<Node<Long, Long>> spliterator = avlTree.spliterator();
+        Assert.assertEquals(100_000, spliterator.getExactSizeIfKnown());
+        Spliterator<Node<Long, Long>> prefix = spliterator.trySplit();
+        Assert.assertEquals(50_000, prefix.estimateSize());
+        Assert.assertEquals(50_000, spliterator.estimateSize());
+        Assert.assertFalse(prefix.hasCharacteristics(Spliterator.SIZED));
+        Assert.assertTrue(prefix.tryAdvance(
+            node -> Assert.assertEquals(Long.valueOf(0L), node.getKey())));
+        Assert.assertTrue(spliterator.trySplit().tryAdvance(
+            node -> Assert.assertEquals(Long.valueOf(50_000L), node.getKey())));
+        Assert.assertTrue(spliterator.tryAdvance(
+            node -> Assert.assertEquals(Long.valueOf(75_000L), node.getKey())));
+
+        Assert.assertEquals(4_999_950_000L, avlTree.stream().parallel()
+            .mapToLong(Node::getKey).sum());
+        Assert.assertEquals(Arrays.asList(keys), avlTree.stream().parallel()
+            .map(Node::getKey).collect(Collectors.toList()));
+        Assert.assertFalse(new AVLTree<Long, Long>().stream().parallel()
+            .findAny().isPresent());
+        Assert.assertEquals(100_000, avlTree.stream().toArray().length);
+    }
+
+    @Test
+    public void comparator() {
+        AVLTree<Long, Long> avlTree = new AVLTree<>(
+            Comparator.<Long>reverseOrder());
+        for (long i = 0; i < 1_000; i++) {
+            avlTree.insert(i, i);
+        }
+
+        avlTree.checkConsistency();
+        Assert.assertEquals(Long.valueOf(999L), avlTree.first().getKey());
+        Assert.assertEquals(Long.valueOf(10L), avlTree.higher(11L).getKey());
+        Assert.assertEquals(Arrays.asList(5L, 4L), avlTree.stream()
+            .filter(node -> node.getKey() <= 5L).limit(2)
+            .map(Node::getKey).collect(Collectors.toList()));
+
+        avlTree.load(new Long[] {1L, 3L, 2L}, new Long[] {1L, 3L, 2L});
+        Assert.assertEquals(Long.valueOf(3L), avlTree.first().getKey());
+        Assert.assertNotNull(avlTree.remove(2L));
+        Assert.assertEquals(Long.valueOf(1L), avlTree.last().getKey());
+    }
+
     @Test
     public void test() {
         Tree<Long, Long> avlTree = new AVLTree<>();
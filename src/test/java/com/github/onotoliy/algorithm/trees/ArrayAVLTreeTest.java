@@ -0,0 +1,104 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ArrayAVLTreeTest {
+
+    @Test
+    public void sequentialConsistency() {
+        ArrayAVLTree<Long, Long> avlTree = new ArrayAVLTree<>();
+        for (long i = 0; i < 10_000; i++) {
+            avlTree.insert(i, i);
+        }
+
+        avlTree.checkConsistency();
+        Assert.assertTrue(avlTree.height() <= 20);
+
+        for (long i = 0; i < 10_000; i = i + 2) {
+            avlTree.remove(i);
+        }
+
+        avlTree.checkConsistency();
+
+        for (long i = 0; i < 10_000; i++) {
+            Node<Long, Long> node = avlTree.find(i);
+            if (i % 2 == 0) {
+                Assert.assertNull(node);
+            } else {
+                Assert.assertEquals(Long.valueOf(i), node.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void randomConsistency() {
+        Random random = new Random(42);
+        List<Long> keys = new ArrayList<>();
+        for (long i = 0; i < 5_000; i++) {
+            keys.add(i);
+        }
+
+        Collections.shuffle(keys, random);
+
+        ArrayAVLTree<Long, Long> avlTree = new ArrayAVLTree<>();
+        for (Long key : keys) {
+            avlTree.insert(key, key);
+        }
+
+        avlTree.checkConsistency();
+
+        Collections.shuffle(keys, random);
+        for (int i = 0; i < keys.size(); i++) {
+            Assert.assertEquals(keys.get(i), avlTree.remove(keys.get(i)).getKey());
+
+            if (i % 500 == 0) {
+                avlTree.checkConsistency();
+            }
+        }
+
+        avlTree.checkConsistency();
+        Assert.assertNull(avlTree.find(keys.get(0)));
+    }
+
+    @Test
+    public void test() {
+        Tree<Long, Long> avlTree = new ArrayAVLTree<>();
+        for (long i = 0; i < 100; i = i + 5) {
+            avlTree.insert(i, i);
+        }
+
+        for (long i = 0; i < 100; i = i + 5) {
+            avlTree.remove(i);
+        }
+
+        for (long i = 200; i > 100; i = i - 5) {
+            avlTree.insert(i, i);
+        }
+
+        for (long i = 200; i > 100; i = i - 5) {
+            avlTree.remove(i);
+        }
+
+        avlTree.insert(100L, 100L);
+        avlTree.insert(150L, 150L);
+        avlTree.insert(120L, 120L);
+
+        avlTree.insert(50L, 50L);
+        avlTree.insert(75L, 75L);
+        avlTree.insert(25L, 25L);
+        avlTree.insert(35L, 35L);
+
+
+
+
+        Assert.assertEquals(
+            "b 75\n  l 35\n    l 25\n    r 50\n  r 120\n    l 100\n    r 150",
+            avlTree.toString());
+    }
+}
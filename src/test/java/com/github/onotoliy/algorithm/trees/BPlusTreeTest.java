@@ -0,0 +1,90 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BPlusTreeTest {
+
+    @Test
+    public void randomOperations() {
+        for (int order : new int[] {4, 5, 64}) {
+            Random random = new Random(order);
+            BPlusTree<Integer, Integer> tree = new BPlusTree<>(order);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+            for (int i = 0; i < 50_000; i++) {
+                int key = random.nextInt(10_000);
+                if (random.nextInt(5) < 2) {
+                    Node<Integer, Integer> removed = tree.remove(key);
+                    Integer value = expected.remove(key);
+
+                    Assert.assertEquals(value,
+                        removed == null ? null : removed.getValue());
+                } else {
+                    expected.putIfAbsent(key, i);
+                    Assert.assertEquals(expected.get(key),
+                        tree.insert(key, i).getValue());
+                }
+
+                if (i % 5_000 == 0) {
+                    tree.checkConsistency();
+                }
+            }
+
+            tree.checkConsistency();
+
+            Iterator<Node<Integer, Integer>> iterator = tree.iterator();
+            for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+                Node<Integer, Integer> node = iterator.next();
+
+                Assert.assertEquals(entry.getKey(), node.getKey());
+                Assert.assertEquals(entry.getValue(), node.getValue());
+            }
+
+            Assert.assertFalse(iterator.hasNext());
+
+            for (Integer key : expected.keySet().toArray(new Integer[0])) {
+                Assert.assertNotNull(tree.remove(key));
+            }
+
+            tree.checkConsistency();
+            Assert.assertEquals(0, tree.height());
+            Assert.assertNull(tree.first());
+        }
+    }
+
+    @Test
+    public void height() {
+        BPlusTree<Integer, Integer> tree = new BPlusTree<>(4);
+        Assert.assertEquals(0, tree.height());
+
+        for (int i = 0; i < 4; i++) {
+            tree.insert(i, i);
+        }
+
+        Assert.assertEquals(1, tree.height());
+
+        tree.insert(4, 4);
+        Assert.assertEquals(2, tree.height());
+        Assert.assertEquals("i [2]\n  l [0, 1]\n  l [2, 3, 4]",
+            tree.toString());
+
+        BPlusTree<Integer, Integer> wide = new BPlusTree<>();
+        for (int i = 0; i < 100_000; i++) {
+            wide.insert(i, i);
+        }
+
+        Assert.assertEquals(4, wide.height());
+        Assert.assertNull(wide.find(99_999).getLeft());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void smallOrder() {
+        new BPlusTree<Integer, Integer>(3);
+    }
+}
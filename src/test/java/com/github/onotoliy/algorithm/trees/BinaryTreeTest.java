@@ -1,9 +1,308 @@
 package com.github.onotoliy.algorithm.trees;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
 import org.junit.Test;
 
 public class BinaryTreeTest {
 
+    @Test
+    public void degenerate() {
+        Tree<Long, Long> binaryTree = new BinaryTree<>();
+        for (long i = 0; i < 20_000; i++) {
+            binaryTree.insert(i, i);
+        }
+
+        Assert.assertEquals(20_000, binaryTree.height());
+        Assert.assertEquals(Long.valueOf(19_999L),
+                            binaryTree.find(19_999L).getValue());
+        Assert.assertNull(binaryTree.find(20_000L));
+
+        for (long i = 19_999; i >= 0; i = i - 2) {
+            Assert.assertNotNull(binaryTree.remove(i));
+        }
+
+        Assert.assertEquals(10_000, binaryTree.height());
+        Assert.assertNull(binaryTree.find(19_999L));
+        Assert.assertNotNull(binaryTree.find(19_998L));
+    }
+
+    @Test
+    public void sizeAndHeight() {
+        List<Tree<Integer, Integer>> trees = Arrays.asList(new BinaryTree<>(),
+            new AVLTree<>(), new ArrayAVLTree<>(), new ConcurrentAVLTree<>(),
+            new OrderStatisticAVLTree<>(), new RedBlackTree<>(),
+            new SplayTree<>(), new BPlusTree<>(4));
+
+        for (Tree<Integer, Integer> tree : trees) {
+            Random random = new Random(21);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+            Assert.assertEquals(0, tree.size());
+            Assert.assertEquals(0, tree.height());
+            Assert.assertTrue(tree.isEmpty());
+
+            for (int i = 0; i < 20_000; i++) {
+                int key = random.nextInt(2_000);
+                if (random.nextInt(5) < 2) {
+                    tree.remove(key);
+                    expected.remove(key);
+                } else if (random.nextInt(10) == 0) {
+                    tree.find(key);
+                } else {
+                    tree.insert(key, key);
+                    expected.putIfAbsent(key, key);
+                }
+
+                if (i % 100 == 0) {
+                    Assert.assertEquals(expected.size(), tree.size());
+                    Assert.assertEquals(expected.isEmpty(), tree.isEmpty());
+                    if (tree instanceof BinaryTree) {
+                        Assert.assertEquals(
+                            height(((BinaryTree<Integer, Integer>) tree)
+                                .getRoot()),
+                            tree.height());
+                    }
+                }
+            }
+
+            tree.removeAll(new ArrayList<>(expected.keySet()));
+            Assert.assertEquals(0, tree.size());
+            Assert.assertEquals(0, tree.height());
+            Assert.assertTrue(tree.isEmpty());
+        }
+    }
+
+    @Test
+    public void loadedSize() {
+        Integer[] keys = {5, 3, 9, 3, 1};
+
+        AVLTree<Integer, Integer> tree = new AVLTree<>();
+        tree.load(keys, keys);
+        Assert.assertEquals(4, tree.size());
+        Assert.assertEquals(3, tree.height());
+
+        Map<Integer, Integer> batch = new HashMap<>();
+        for (int i = 100; i < 200; i++) {
+            batch.put(i, i);
+        }
+
+        tree.insertAll(batch);
+        Assert.assertEquals(104, tree.size());
+
+        tree.removeAll(batch.keySet());
+        Assert.assertEquals(4, tree.size());
+    }
+
+    @Test
+    public void ranges() {
+        List<Tree<Long, Long>> trees = Arrays.asList(new BinaryTree<>(),
+            new AVLTree<>(), new ArrayAVLTree<>(), new ConcurrentAVLTree<>(),
+            new RedBlackTree<>(), new SplayTree<>(), new BPlusTree<>(4));
+
+        List<Long> keys = new ArrayList<>();
+        for (long i = 0; i < 1_000; i = i + 2) {
+            keys.add(i);
+        }
+
+        Collections.shuffle(keys, new Random(11));
+        for (Tree<Long, Long> tree : trees) {
+            Assert.assertFalse(tree.iterator().hasNext());
+
+            for (Long key : keys) {
+                tree.insert(key, key);
+            }
+
+            long expected = 0;
+            for (Node<Long, Long> node : tree) {
+                Assert.assertEquals(expected, node.getKey().longValue());
+                expected = expected + 2;
+            }
+
+            Assert.assertEquals(1_000, expected);
+            Assert.assertEquals(Arrays.asList(10L, 12L, 14L),
+                keys(tree.range(9L, 16L)));
+            Assert.assertEquals(Arrays.asList(0L, 2L),
+                keys(tree.headRange(3L)));
+            Assert.assertEquals(Arrays.asList(996L, 998L),
+                keys(tree.tailRange(996L)));
+            Assert.assertTrue(keys(tree.range(5L, 5L)).isEmpty());
+            Assert.assertTrue(keys(tree.tailRange(1_000L)).isEmpty());
+            Assert.assertEquals(500, tree.stream().count());
+            Assert.assertEquals(Long.valueOf(249_500L), tree.stream()
+                .collect(Collectors.summingLong(Node::getKey)));
+
+            Iterator<Node<Long, Long>> iterator = tree.iterator(997L, null);
+            Assert.assertEquals(Long.valueOf(998L), iterator.next().getKey());
+            try {
+                iterator.next();
+                Assert.fail();
+            } catch (NoSuchElementException e) {
+                Assert.assertFalse(iterator.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void navigation() {
+        List<Tree<Integer, Integer>> trees = Arrays.asList(new BinaryTree<>(),
+            new AVLTree<>(), new ArrayAVLTree<>(), new ConcurrentAVLTree<>(),
+            new OrderStatisticAVLTree<>(), new RedBlackTree<>(),
+            new SplayTree<>(), new BPlusTree<>(4));
+
+        Random random = new Random(13);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 300; i++) {
+            int key = random.nextInt(1_000) * 2;
+            expected.put(key, key);
+        }
+
+        for (Tree<Integer, Integer> tree : trees) {
+            Assert.assertNull(tree.first());
+            Assert.assertNull(tree.last());
+            Assert.assertNull(tree.floor(1));
+            Assert.assertNull(tree.pollFirst());
+
+            for (Integer key : expected.keySet()) {
+                tree.insert(key, key);
+            }
+
+            for (int key = -2; key <= 2_002; key++) {
+                Assert.assertEquals(expected.floorKey(key),
+                    key(tree.floor(key)));
+                Assert.assertEquals(expected.ceilingKey(key),
+                    key(tree.ceiling(key)));
+                Assert.assertEquals(expected.lowerKey(key),
+                    key(tree.lower(key)));
+                Assert.assertEquals(expected.higherKey(key),
+                    key(tree.higher(key)));
+            }
+
+            Assert.assertEquals(expected.firstKey(), tree.first().getKey());
+            Assert.assertEquals(expected.lastKey(), tree.last().getKey());
+
+            TreeMap<Integer, Integer> polled = new TreeMap<>(expected);
+            while (!polled.isEmpty()) {
+                Assert.assertEquals(polled.pollFirstEntry().getKey(),
+                    tree.pollFirst().getKey());
+                Assert.assertEquals(polled.size(), tree.size());
+                if (tree instanceof BinaryTree) {
+                    Assert.assertEquals(
+                        height(((BinaryTree<Integer, Integer>) tree)
+                            .getRoot()),
+                        tree.height());
+                }
+            }
+
+            Assert.assertNull(tree.first());
+        }
+    }
+
+    @Test
+    public void pollFirstBalances() {
+        AVLTree<Integer, Integer> avl = new AVLTree<>();
+        AVLTree<Integer, Integer> statistic = new OrderStatisticAVLTree<>();
+        RedBlackTree<Integer, Integer> redBlack = new RedBlackTree<>();
+        List<BinaryTree<Integer, Integer>> trees =
+            Arrays.asList(avl, statistic, redBlack);
+
+        Random random = new Random(16);
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 4_000; i++) {
+            if (i % 3 == 2) {
+                Map.Entry<Integer, Integer> first = expected.pollFirstEntry();
+                for (BinaryTree<Integer, Integer> tree : trees) {
+                    Assert.assertEquals(first.getKey(),
+                        tree.pollFirst().getKey());
+                }
+            } else {
+                int key = random.nextInt(10_000);
+                expected.putIfAbsent(key, key);
+                for (BinaryTree<Integer, Integer> tree : trees) {
+                    tree.insert(key, key);
+                }
+            }
+
+            avl.checkConsistency();
+            statistic.checkConsistency();
+            redBlack.checkConsistency();
+        }
+
+        for (BinaryTree<Integer, Integer> tree : trees) {
+            Assert.assertEquals(expected.size(), tree.size());
+            Assert.assertEquals(height(tree.getRoot()), tree.height());
+        }
+    }
+
+    private static int height(final Node<Integer, Integer> root) {
+        if (root.getKey() == null) {
+            return 0;
+        }
+
+        List<Node<Integer, Integer>> nodes = new ArrayList<>();
+        nodes.add(root);
+        for (int i = 0; i < nodes.size(); i++) {
+            Node<Integer, Integer> node = nodes.get(i);
+            if (node.getLeft() != null) {
+                nodes.add(node.getLeft());
+            }
+
+            if (node.getRight() != null) {
+                nodes.add(node.getRight());
+            }
+        }
+
+        Map<Node<Integer, Integer>, Integer> heights = new IdentityHashMap<>();
+        for (int i = nodes.size() - 1; i >= 0; i--) {
+            Node<Integer, Integer> node = nodes.get(i);
+            int height = 1 + Math.max(
+                heights.getOrDefault(node.getLeft(), 0),
+                heights.getOrDefault(node.getRight(), 0));
+            heights.put(node, height);
+
+            Assert.assertEquals(height, node.height());
+        }
+
+        return heights.get(root);
+    }
+
+    private static Integer key(final Node<Integer, Integer> node) {
+        return node == null ? null : node.getKey();
+    }
+
+    @Test
+    public void degenerateRange() {
+        Tree<Long, Long> binaryTree = new BinaryTree<>();
+        for (long i = 0; i < 10_000; i++) {
+            binaryTree.insert(i, i);
+        }
+
+        Assert.assertEquals(10_000, binaryTree.stream().count());
+        Assert.assertEquals(Arrays.asList(9_998L, 9_999L),
+            keys(binaryTree.tailRange(9_998L)));
+    }
+
+    private static List<Long> keys(final Iterable<Node<Long, Long>> range) {
+        List<Long> keys = new ArrayList<>();
+        for (Node<Long, Long> node : range) {
+            keys.add(node.getKey());
+        }
+
+        return keys;
+    }
+
     @Test
     public void test() {
         Tree<Long, Long> binaryTree = new BinaryTree<>();
@@ -0,0 +1,104 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CachedTreeTest {
+
+    @Test
+    public void invalidation() {
+        CachedTree<Integer, String> tree =
+            new CachedTree<>(new AVLTree<Integer, String>(), 16);
+        tree.insert(1, "a");
+
+        Assert.assertEquals("a", tree.find(1).getValue());
+        Assert.assertEquals("a", tree.find(1).getValue());
+        Assert.assertEquals(1, tree.getHits());
+        Assert.assertEquals(1, tree.getMisses());
+
+        Assert.assertNotNull(tree.remove(1));
+        Assert.assertNull(tree.find(1));
+
+        tree.insert(1, "b");
+        Assert.assertEquals("b", tree.find(1).getValue());
+
+        tree.find(1);
+        tree.removeAll(Collections.singletonList(1));
+        Assert.assertNull(tree.find(1));
+
+        tree.insertAll(Collections.singletonMap(1, "c"));
+        Assert.assertEquals("c", tree.find(1).getValue());
+
+        tree.pollFirst();
+        Assert.assertNull(tree.find(1));
+        Assert.assertEquals(0, tree.size());
+    }
+
+    @Test
+    public void eviction() {
+        CachedTree<Integer, Integer> tree =
+            new CachedTree<>(new AVLTree<Integer, Integer>(), 2);
+        for (int i = 0; i < 10; i++) {
+            tree.insert(i, i);
+        }
+
+        tree.find(1);
+        tree.find(2);
+        tree.find(1);
+        tree.find(3);
+        Assert.assertEquals(1, tree.getHits());
+
+        tree.find(1);
+        Assert.assertEquals(2, tree.getHits());
+
+        tree.find(2);
+        Assert.assertEquals(2, tree.getHits());
+        Assert.assertEquals(4, tree.getMisses());
+        Assert.assertEquals(1.0 / 3, tree.hitRatio(), 1e-9);
+    }
+
+    @Test
+    public void randomOperations() {
+        List<Tree<Integer, Integer>> trees = Arrays.asList(
+            new AVLTree<>(),
+            new ArrayAVLTree<>(),
+            new RedBlackTree<>(),
+            new ConcurrentAVLTree<>(),
+            new BPlusTree<>());
+
+        for (Tree<Integer, Integer> delegate : trees) {
+            Random random = new Random(23);
+            CachedTree<Integer, Integer> tree = new CachedTree<>(delegate, 64);
+            TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+            for (int i = 0; i < 50_000; i++) {
+                int key = random.nextInt(random.nextBoolean() ? 100 : 2_000);
+                int operation = random.nextInt(10);
+                if (operation < 2) {
+                    Node<Integer, Integer> removed = tree.remove(key);
+                    Integer value = expected.remove(key);
+
+                    Assert.assertEquals(value,
+                        removed == null ? null : removed.getValue());
+                } else if (operation < 4) {
+                    expected.putIfAbsent(key, i);
+                    Assert.assertEquals(expected.get(key),
+                        tree.insert(key, i).getValue());
+                } else {
+                    Node<Integer, Integer> node = tree.find(key);
+                    Assert.assertEquals(expected.get(key),
+                        node == null ? null : node.getValue());
+                }
+            }
+
+            Assert.assertEquals(expected.size(), tree.size());
+            Assert.assertTrue(tree.hitRatio() > 0);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentAVLTreeTest {
+
+    private static final int STABLE = 10_000;
+
+    private static final int WRITERS = 4;
+
+    private static final int READERS = 4;
+
+    @Test
+    public void sequential() {
+        ConcurrentAVLTree<Long, Long> tree = new ConcurrentAVLTree<>();
+        for (long i = 0; i < 10_000; i++) {
+            Assert.assertEquals(Long.valueOf(i), tree.insert(i, i).getKey());
+        }
+
+        tree.checkConsistency();
+        Assert.assertTrue(tree.height() <= 20);
+
+        Node<Long, Long> node = tree.find(5L);
+        Assert.assertSame(node, tree.insert(5L, 0L));
+
+        for (long i = 0; i < 10_000; i = i + 2) {
+            Assert.assertEquals(Long.valueOf(i), tree.remove(i).getValue());
+        }
+
+        tree.checkConsistency();
+        Assert.assertNull(tree.remove(0L));
+
+        for (long i = 0; i < 10_000; i++) {
+            Assert.assertEquals(i % 2 != 0, tree.find(i) != null);
+        }
+    }
+
+    @Test
+    public void insertReturnsPublishedNode() {
+        ConcurrentAVLTree<Long, Long> tree = new ConcurrentAVLTree<>();
+        long[] keys = {10, 20, 30, 25, 27, 5, 7, 6, 26};
+        for (long key : keys) {
+            Assert.assertSame(tree.insert(key, key), tree.find(key));
+        }
+
+        tree.checkConsistency();
+    }
+
+    @Test
+    public void batches() throws Exception {
+        ConcurrentAVLTree<Long, Long> tree = new ConcurrentAVLTree<>();
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (long i = 0; i < 1_000; i++) {
+            batch.put(i, i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        Future<?> reader = executor.submit(() -> {
+            while (running.get()) {
+                PersistentAVLTree<Long, Long> snapshot = tree.snapshot();
+                boolean first = snapshot.find(0L) != null;
+
+                Assert.assertEquals(first, snapshot.find(999L) != null);
+            }
+        });
+
+        for (int round = 0; round < 200; round++) {
+            Assert.assertEquals(1_000, tree.insertAll(batch).size());
+            Assert.assertEquals(1_000, tree.size());
+            Assert.assertEquals(1_000,
+                                tree.removeAll(batch.keySet()).size());
+            Assert.assertEquals(0, tree.size());
+        }
+
+        running.set(false);
+        reader.get(1, TimeUnit.MINUTES);
+        executor.shutdown();
+
+        List<Node<Long, Long>> inserted = tree.insertAll(batch);
+        Assert.assertEquals(Long.valueOf(999), inserted.get(999).getKey());
+        Assert.assertTrue(tree.insertAll(batch).isEmpty());
+        tree.checkConsistency();
+    }
+
+    @Test
+    public void stress() throws Exception {
+        ConcurrentAVLTree<Long, Long> tree = new ConcurrentAVLTree<>();
+        for (long i = 0; i < STABLE; i++) {
+            tree.insert(i * 2, i);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor =
+            Executors.newFixedThreadPool(WRITERS + READERS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int w = 0; w < WRITERS; w++) {
+            long writer = w;
+            futures.add(executor.submit(() -> {
+                for (long i = 0; i < 20_000; i++) {
+                    long key = (i * WRITERS + writer) * 2 + 1;
+
+                    Assert.assertNotNull(tree.insert(key, key));
+                    if (i % 3 != 0) {
+                        Assert.assertEquals(Long.valueOf(key),
+                                            tree.remove(key).getKey());
+                    }
+                }
+            }));
+        }
+
+        for (int r = 0; r < READERS; r++) {
+            futures.add(executor.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (running.get()) {
+                    long key = random.nextInt(STABLE);
+                    Node<Long, Long> node = tree.find(key * 2);
+
+                    Assert.assertNotNull(node);
+                    Assert.assertEquals(Long.valueOf(key), node.getValue());
+                }
+            }));
+        }
+
+        for (int w = 0; w < WRITERS; w++) {
+            futures.get(w).get(1, TimeUnit.MINUTES);
+        }
+
+        running.set(false);
+        for (Future<?> future : futures) {
+            future.get(1, TimeUnit.MINUTES);
+        }
+
+        executor.shutdown();
+        tree.checkConsistency();
+
+        for (long i = 0; i < 20_000 * WRITERS; i++) {
+            long key = i * 2 + 1;
+            Assert.assertEquals((i / WRITERS) % 3 == 0, tree.find(key) != null);
+        }
+    }
+}
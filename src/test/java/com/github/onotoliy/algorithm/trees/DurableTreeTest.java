@@ -0,0 +1,216 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class DurableTreeTest {
+
+    @Test
+    public void recovery() throws IOException {
+        Path directory = Files.createTempDirectory("durable");
+        try {
+            Random random = new Random(25);
+            TreeMap<Long, String> expected = new TreeMap<>();
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.GROUP)) {
+                for (int i = 0; i < 5_000; i++) {
+                    long key = random.nextInt(1_000);
+                    if (random.nextInt(3) == 0) {
+                        tree.remove(key);
+                        expected.remove(key);
+                    } else {
+                        tree.insert(key, "v" + i);
+                        expected.putIfAbsent(key, "v" + i);
+                    }
+                }
+            }
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.GROUP)) {
+                assertContent(expected, tree);
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void checkpoint() throws IOException {
+        Path directory = Files.createTempDirectory("durable");
+        try {
+            TreeMap<Long, String> expected = new TreeMap<>();
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.NONE)) {
+                tree.setCheckpointSize(1_000);
+                for (long i = 0; i < 2_000; i++) {
+                    tree.insert(i, Long.toString(i));
+                    expected.put(i, Long.toString(i));
+                }
+
+                Assert.assertTrue(Files.exists(directory.resolve("checkpoint")));
+                Assert.assertTrue(Files.size(directory.resolve("wal")) < 1_000);
+
+                for (long i = 0; i < 2_000; i = i + 2) {
+                    tree.remove(i);
+                    expected.remove(i);
+                }
+
+                tree.checkpoint();
+                Assert.assertEquals(0, Files.size(directory.resolve("wal")));
+
+                tree.insert(-1L, "last");
+                expected.put(-1L, "last");
+            }
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.NONE)) {
+                assertContent(expected, tree);
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void tornTail() throws IOException {
+        Path directory = Files.createTempDirectory("durable");
+        try {
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.PERIODIC)) {
+                tree.insert(1L, "one");
+                tree.insert(2L, "two");
+            }
+
+            Path wal = directory.resolve("wal");
+            long length = Files.size(wal);
+            try (OutputStream out = Files.newOutputStream(wal,
+                StandardOpenOption.APPEND)) {
+                out.write(new byte[] {0, 0, 0, 9, 1, 2, 3});
+            }
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.PERIODIC)) {
+                Assert.assertEquals(2, tree.size());
+                Assert.assertEquals(length, Files.size(wal));
+
+                tree.insert(3L, "three");
+            }
+
+            byte[] data = Files.readAllBytes(wal);
+            data[data.length - 1] ^= 1;
+            Files.write(wal, data);
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.PERIODIC)) {
+                Assert.assertEquals(2, tree.size());
+                Assert.assertNull(tree.find(3L));
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void batches() throws IOException {
+        Path directory = Files.createTempDirectory("durable");
+        try {
+            Map<Long, String> entries = new TreeMap<>();
+            for (long i = 0; i < 1_000; i++) {
+                entries.put(i, "b" + i);
+            }
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.GROUP)) {
+                Assert.assertEquals(1_000, tree.insertAll(entries).size());
+                Assert.assertEquals(3, tree.removeAll(
+                    Arrays.asList(0L, 2L, 4L, -1L)).size());
+                Assert.assertEquals(Long.valueOf(1), tree.pollFirst().getKey());
+            }
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.GROUP)) {
+                Assert.assertEquals(996, tree.size());
+                Assert.assertEquals(Long.valueOf(3), tree.first().getKey());
+                Assert.assertEquals("b999", tree.find(999L).getValue());
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void concurrentWriters() throws Exception {
+        Path directory = Files.createTempDirectory("durable");
+        try {
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.GROUP)) {
+                List<Thread> threads = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    long base = t * 1_000L;
+                    threads.add(new Thread(() -> {
+                        for (long i = 0; i < 200; i++) {
+                            tree.insert(base + i, "t");
+                        }
+                    }));
+                }
+
+                for (Thread thread : threads) {
+                    thread.start();
+                }
+
+                for (Thread thread : threads) {
+                    thread.join();
+                }
+            }
+
+            try (DurableTree<Long, String> tree = open(directory,
+                SyncPolicy.GROUP)) {
+                Assert.assertEquals(800, tree.size());
+                Assert.assertNotNull(tree.find(3_199L));
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static DurableTree<Long, String> open(final Path directory,
+                                                  final SyncPolicy policy)
+        throws IOException {
+        return new DurableTree<>(directory, new AVLTree<>(), Codecs.LONG,
+            Codecs.STRING, policy);
+    }
+
+    private static void assertContent(final TreeMap<Long, String> expected,
+                                      final DurableTree<Long, String> tree) {
+        Assert.assertEquals(expected.size(), tree.size());
+        for (Map.Entry<Long, String> entry : expected.entrySet()) {
+            Assert.assertEquals(entry.getValue(),
+                tree.find(entry.getKey()).getValue());
+        }
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files
+                .sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class IntAVLTreeTest {
+
+    @Test
+    public void sequential() {
+        IntAVLTree<String> tree = new IntAVLTree<>();
+        for (int i = 0; i < 100_000; i++) {
+            Assert.assertEquals("v" + i, tree.insert(i, "v" + i));
+        }
+
+        tree.checkConsistency();
+        Assert.assertEquals(17, tree.height());
+        Assert.assertEquals("v5", tree.insert(5, "other"));
+
+        for (int i = 0; i < 100_000; i = i + 2) {
+            Assert.assertEquals("v" + i, tree.remove(i));
+        }
+
+        tree.checkConsistency();
+
+        for (int i = 0; i < 100_000; i++) {
+            Assert.assertEquals(i % 2 == 0 ? null : "v" + i, tree.find(i));
+        }
+    }
+
+    @Test
+    public void randomAgainstTreeMap() {
+        Random random = new Random(7);
+        IntAVLTree<Integer> tree = new IntAVLTree<>();
+        TreeMap<Integer, Integer> map = new TreeMap<>();
+
+        for (int i = 0; i < 200_000; i++) {
+            int key = random.nextInt(10_000) - 5_000;
+            if (random.nextBoolean()) {
+                Assert.assertEquals(map.computeIfAbsent(key, k -> k * 3),
+                                    tree.insert(key, key * 3));
+            } else {
+                Assert.assertEquals(map.remove(key), tree.remove(key));
+            }
+        }
+
+        tree.checkConsistency();
+
+        for (int key = -5_000; key < 5_000; key++) {
+            Assert.assertEquals(map.get(key), tree.find(key));
+        }
+
+        for (Integer key : map.keySet()) {
+            tree.remove(key);
+        }
+
+        Assert.assertEquals(0, tree.height());
+        Assert.assertNull(tree.find(0));
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MappedLongTreeTest {
+
+    @Test
+    public void writeAndOpen() throws IOException {
+        AVLTree<Long, byte[]> avlTree = new AVLTree<>();
+        for (long i = 0; i < 10_000; i++) {
+            avlTree.insert(i * 3, new byte[] {(byte) i, (byte) (i >> 8)});
+        }
+
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            MappedLongTreeWriter.write(file, 2, avlTree);
+
+            try (MappedLongTree tree = MappedLongTree.open(file)) {
+                tree.verify();
+
+                Assert.assertEquals(10_000, tree.size());
+                Assert.assertEquals(14, tree.height());
+
+                for (long i = 0; i < 10_000; i++) {
+                    Assert.assertArrayEquals(
+                        new byte[] {(byte) i, (byte) (i >> 8)},
+                        tree.find(i * 3));
+                    Assert.assertNull(tree.find(i * 3 + 1));
+                }
+
+                long index = tree.ceilingIndex(100);
+                Assert.assertEquals(102, tree.keyAt(index));
+                Assert.assertEquals(105, tree.keyAt(index + 1));
+                Assert.assertEquals(10_000, tree.ceilingIndex(30_000));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void longValues() throws IOException {
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            try (MappedLongTreeWriter writer =
+                     new MappedLongTreeWriter(file, Long.BYTES)) {
+                for (long i = -500; i < 500; i++) {
+                    writer.addLong(i, i * i);
+                }
+            }
+
+            try (MappedLongTree tree = MappedLongTree.open(file)) {
+                Assert.assertEquals(250_000L, tree.findLong(-500, -1L));
+                Assert.assertEquals(0L, tree.findLong(0, -1L));
+                Assert.assertEquals(-1L, tree.findLong(500, -1L));
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void lookups() throws IOException {
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            try (MappedLongTreeWriter writer =
+                     new MappedLongTreeWriter(file, Long.BYTES)) {
+                for (long i = 0; i < 100; i++) {
+                    writer.addLong(i * 10, i);
+                }
+            }
+
+            try (MappedLongTree tree = MappedLongTree.open(file)) {
+                ReadOnlyLongTree<byte[]> lookup = tree;
+
+                Assert.assertEquals(Long.valueOf(50),
+                                    lookup.floor(55).getKey());
+                Assert.assertEquals(Long.valueOf(50),
+                                    lookup.floor(50).getKey());
+                Assert.assertEquals(Long.valueOf(60),
+                                    lookup.ceiling(55).getKey());
+                Assert.assertEquals(Long.valueOf(990),
+                                    lookup.floor(5_000).getKey());
+                Assert.assertNull(lookup.floor(-1));
+                Assert.assertNull(lookup.ceiling(991));
+
+                List<Long> keys = new ArrayList<>();
+                Iterator<Map.Entry<Long, byte[]>> iterator =
+                    lookup.iterator(25, 60);
+                while (iterator.hasNext()) {
+                    keys.add(iterator.next().getKey());
+                }
+
+                Assert.assertEquals(Arrays.asList(30L, 40L, 50L), keys);
+                Assert.assertFalse(lookup.iterator(60, 25).hasNext());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void corruptedData() throws IOException {
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            try (MappedLongTreeWriter writer =
+                     new MappedLongTreeWriter(file, Long.BYTES)) {
+                writer.addLong(1, 1);
+                writer.addLong(2, 2);
+            }
+
+            try (FileChannel channel = FileChannel.open(
+                file, StandardOpenOption.WRITE)) {
+                channel.write(ByteBuffer.wrap(new byte[] {7}), 70);
+            }
+
+            try (MappedLongTree tree = MappedLongTree.open(file)) {
+                tree.verify();
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void failedWrite() throws IOException {
+        AVLTree<Long, byte[]> avlTree = new AVLTree<>();
+        for (long i = 0; i < 10_000; i++) {
+            avlTree.insert(i, new byte[] {(byte) i, (byte) (i >> 8)});
+        }
+
+        avlTree.insert(20_000L, new byte[] {1, 2, 3});
+
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            try {
+                MappedLongTreeWriter.write(file, 2, avlTree);
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertEquals("Value must be 2 bytes, got 3",
+                    e.getMessage());
+            }
+
+            try (MappedLongTree tree = MappedLongTree.open(file)) {
+                Assert.fail("Opened a partially written tree of "
+                    + tree.size() + " elements");
+            } catch (IOException e) {
+                Assert.assertNotNull(e.getMessage());
+            }
+
+            Assert.assertFalse(Files.exists(
+                file.resolveSibling(file.getFileName() + ".tmp")));
+
+            avlTree.remove(20_000L);
+            MappedLongTreeWriter.write(file, 2, avlTree);
+            try (MappedLongTreeWriter writer =
+                     new MappedLongTreeWriter(file, 2)) {
+                writer.add(1, new byte[] {1, 2});
+                writer.add(0, new byte[] {0, 0});
+                Assert.fail();
+            } catch (IllegalArgumentException e) {
+                Assert.assertNotNull(e.getMessage());
+            }
+
+            try (MappedLongTree tree = MappedLongTree.open(file)) {
+                tree.verify();
+                Assert.assertEquals(10_000, tree.size());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsortedKeys() throws IOException {
+        Path file = Files.createTempFile("tree", ".bin");
+        try (MappedLongTreeWriter writer =
+                 new MappedLongTreeWriter(file, Long.BYTES)) {
+            writer.addLong(2, 2);
+            writer.addLong(1, 1);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
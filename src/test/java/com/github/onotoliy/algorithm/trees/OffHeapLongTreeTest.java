@@ -0,0 +1,87 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OffHeapLongTreeTest {
+
+    @Test
+    public void longValues() {
+        try (OffHeapLongTree tree = new OffHeapLongTree(Long.BYTES, 4)) {
+            for (long i = 0; i < 100_000; i++) {
+                Assert.assertEquals(i * 2, tree.insertLong(i, i * 2));
+            }
+
+            tree.checkConsistency();
+            Assert.assertEquals(17, tree.height());
+            Assert.assertEquals(10L, tree.insertLong(5L, 0L));
+
+            for (long i = 0; i < 100_000; i = i + 2) {
+                Assert.assertEquals(i * 2, tree.removeLong(i, -1L));
+            }
+
+            tree.checkConsistency();
+
+            for (long i = 0; i < 100_000; i++) {
+                Assert.assertEquals(i % 2 == 0 ? -1L : i * 2,
+                                    tree.findLong(i, -1L));
+            }
+        }
+    }
+
+    @Test
+    public void byteValuesAgainstTreeMap() {
+        Random random = new Random(11);
+        TreeMap<Long, Byte> map = new TreeMap<>();
+
+        try (OffHeapLongTree tree = new OffHeapLongTree(3)) {
+            for (int i = 0; i < 100_000; i++) {
+                long key = random.nextInt(5_000);
+                byte value = (byte) key;
+
+                if (random.nextBoolean()) {
+                    map.putIfAbsent(key, value);
+                    tree.insert(key, new byte[] {value, 1, 2});
+                } else {
+                    Byte removed = map.remove(key);
+                    byte[] bytes = tree.remove(key);
+
+                    Assert.assertEquals(removed == null, bytes == null);
+                }
+            }
+
+            tree.checkConsistency();
+
+            byte[] target = new byte[3];
+            for (long key = 0; key < 5_000; key++) {
+                Byte value = map.get(key);
+
+                Assert.assertEquals(value != null, tree.find(key, target));
+                if (value != null) {
+                    Assert.assertArrayEquals(new byte[] {value, 1, 2},
+                                             tree.find(key));
+                }
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void wrongValueWidth() {
+        try (OffHeapLongTree tree = new OffHeapLongTree(4)) {
+            tree.insert(1L, new byte[] {1});
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void closed() {
+        OffHeapLongTree tree = new OffHeapLongTree(Long.BYTES);
+        tree.insertLong(1L, 1L);
+        tree.close();
+        tree.close();
+
+        tree.findLong(1L, 0L);
+    }
+}
@@ -0,0 +1,135 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class OrderStatisticAVLTreeTest {
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(5);
+        OrderStatisticAVLTree<Integer, Integer> tree =
+            new OrderStatisticAVLTree<>();
+        TreeSet<Integer> expected = new TreeSet<>();
+
+        Assert.assertEquals(0, tree.size());
+        Assert.assertEquals(0, tree.rank(10));
+
+        for (int i = 0; i < 20_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(3) == 0) {
+                tree.remove(key);
+                expected.remove(key);
+            } else {
+                tree.insert(key, key);
+                expected.add(key);
+            }
+
+            if (i % 1_000 == 0) {
+                tree.checkConsistency();
+            }
+        }
+
+        tree.checkConsistency();
+        Assert.assertEquals(expected.size(), tree.size());
+
+        List<Integer> sorted = new ArrayList<>(expected);
+        for (int i = 0; i < sorted.size(); i++) {
+            Assert.assertEquals(sorted.get(i), tree.select(i).getKey());
+        }
+
+        for (int key = -1; key <= 5_001; key++) {
+            Assert.assertEquals(expected.headSet(key).size(), tree.rank(key));
+        }
+
+        Assert.assertEquals(expected.subSet(1_000, 2_000).size(),
+            tree.countRange(1_000, 2_000));
+        Assert.assertEquals(0, tree.countRange(2_000, 1_000));
+    }
+
+    @Test
+    public void bulkOperations() {
+        Integer[] keys = new Integer[1_000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = i;
+        }
+
+        OrderStatisticAVLTree<Integer, Integer> tree =
+            new OrderStatisticAVLTree<>();
+        tree.load(keys, keys);
+
+        tree.checkConsistency();
+        Assert.assertEquals(1_000, tree.size());
+        Assert.assertEquals(Integer.valueOf(500), tree.select(500).getKey());
+
+        TreeMap<Integer, Integer> batch = new TreeMap<>();
+        for (int i = 1_000; i < 3_000; i++) {
+            batch.put(i, i);
+        }
+
+        tree.insertAll(batch);
+        tree.checkConsistency();
+        Assert.assertEquals(3_000, tree.size());
+
+        List<Integer> removed = new ArrayList<>(batch.keySet());
+        Collections.shuffle(removed, new Random(1));
+        tree.removeAll(removed.subList(0, 1_500));
+        tree.checkConsistency();
+        Assert.assertEquals(1_500, tree.size());
+        Assert.assertEquals(1_000, tree.countRange(0, 1_000));
+    }
+
+    @Test
+    public void exactSplits() {
+        OrderStatisticAVLTree<Integer, Integer> tree =
+            new OrderStatisticAVLTree<>();
+        for (int i = 0; i < 1_000; i++) {
+            tree.insert(i, i);
+        }
+
+        Spliterator<Node<Integer, Integer>> spliterator = tree.spliterator();
+        Assert.assertTrue(spliterator.hasCharacteristics(
+            Spliterator.SIZED | Spliterator.SUBSIZED));
+
+        Spliterator<Node<Integer, Integer>> prefix = spliterator.trySplit();
+        Spliterator<Node<Integer, Integer>> middle = spliterator.trySplit();
+        long prefixSize = prefix.getExactSizeIfKnown();
+        long middleSize = middle.getExactSizeIfKnown();
+        long restSize = spliterator.getExactSizeIfKnown();
+
+        Assert.assertEquals(1_000, prefixSize + middleSize + restSize);
+        Assert.assertEquals(prefixSize, count(prefix));
+        Assert.assertEquals(middleSize, count(middle));
+
+        Assert.assertTrue(spliterator.tryAdvance(node -> { }));
+        Assert.assertEquals(restSize - 1, spliterator.estimateSize());
+        Assert.assertEquals(restSize - 1, count(spliterator));
+        Assert.assertEquals(499_500, tree.stream().parallel()
+            .mapToInt(Node::getKey).sum());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void selectOutOfRange() {
+        OrderStatisticAVLTree<Integer, Integer> tree =
+            new OrderStatisticAVLTree<>();
+        tree.insert(1, 1);
+
+        tree.select(1);
+    }
+
+    private static long count(
+        final Spliterator<Node<Integer, Integer>> spliterator) {
+        long[] count = new long[1];
+        spliterator.forEachRemaining(node -> count[0]++);
+
+        return count[0];
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.onotoliy.algorithm.trees;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PersistentAVLTreeTest {
+
+    @Test
+    public void versions() {
+        PersistentAVLTree<Long, Long> empty = PersistentAVLTree.empty();
+        PersistentAVLTree<Long, Long> tree = empty;
+        for (long i = 0; i < 10_000; i++) {
+            tree = tree.insert(i, i);
+        }
+
+        tree.checkConsistency();
+        Assert.assertTrue(empty.isEmpty());
+        Assert.assertEquals(0, empty.height());
+        Assert.assertSame(tree, tree.insert(5L, 0L));
+        Assert.assertSame(tree, tree.remove(-1L));
+
+        PersistentAVLTree<Long, Long> removed = tree;
+        for (long i = 0; i < 10_000; i = i + 2) {
+            removed = removed.remove(i);
+        }
+
+        removed.checkConsistency();
+
+        for (long i = 0; i < 10_000; i++) {
+            Assert.assertEquals(Long.valueOf(i), tree.find(i).getValue());
+            Assert.assertEquals(i % 2 != 0, removed.find(i) != null);
+        }
+    }
+
+    @Test
+    public void sharesUntouchedSubtrees() {
+        PersistentAVLTree<Long, Long> tree = PersistentAVLTree.empty();
+        for (long i = 0; i < 1_023; i++) {
+            tree = tree.insert(i, i);
+        }
+
+        PersistentAVLTree<Long, Long> next = tree.insert(2_000L, 2_000L);
+
+        Assert.assertNotSame(tree.root(), next.root());
+        Assert.assertSame(tree.root().getLeft(), next.root().getLeft());
+        Assert.assertEquals(1, next.height() - tree.height());
+
+        next = tree.remove(1_022L);
+
+        Assert.assertSame(tree.root().getLeft(), next.root().getLeft());
+        Assert.assertNull(next.find(1_022L));
+        Assert.assertNotNull(tree.find(1_022L));
+    }
+
+    @Test
+    public void snapshot() {
+        ConcurrentAVLTree<Long, Long> concurrent = new ConcurrentAVLTree<>();
+        for (long i = 0; i < 100; i++) {
+            concurrent.insert(i, i);
+        }
+
+        PersistentAVLTree<Long, Long> snapshot = concurrent.snapshot();
+        for (long i = 0; i < 100; i++) {
+            concurrent.remove(i);
+        }
+
+        Assert.assertEquals(0, concurrent.height());
+        for (long i = 0; i < 100; i++) {
+            Assert.assertNotNull(snapshot.find(i));
+        }
+    }
+}
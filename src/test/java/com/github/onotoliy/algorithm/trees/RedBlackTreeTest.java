@@ -0,0 +1,144 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RedBlackTreeTest {
+
+    @Test
+    public void sequentialConsistency() {
+        RedBlackTree<Long, Long> tree = new RedBlackTree<>();
+        for (long i = 0; i < 10_000; i++) {
+            tree.insert(i, i);
+        }
+
+        tree.checkConsistency();
+        Assert.assertTrue(tree.height() <= 28);
+
+        for (long i = 0; i < 10_000; i = i + 2) {
+            tree.remove(i);
+        }
+
+        tree.checkConsistency();
+
+        for (long i = 0; i < 10_000; i++) {
+            Node<Long, Long> node = tree.find(i);
+            if (i % 2 == 0) {
+                Assert.assertNull(node);
+            } else {
+                Assert.assertEquals(Long.valueOf(i), node.getValue());
+            }
+        }
+    }
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(19);
+        RedBlackTree<Integer, Integer> tree = new RedBlackTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < 50_000; i++) {
+            int key = random.nextInt(5_000);
+            if (random.nextInt(5) < 2) {
+                Node<Integer, Integer> removed = tree.remove(key);
+                Integer value = expected.remove(key);
+
+                Assert.assertEquals(value,
+                    removed == null ? null : removed.getValue());
+            } else {
+                expected.putIfAbsent(key, i);
+                Assert.assertEquals(expected.get(key),
+                    tree.insert(key, i).getValue());
+            }
+
+            if (i % 1_000 == 0) {
+                tree.checkConsistency();
+            }
+        }
+
+        tree.checkConsistency();
+
+        Iterator<Node<Integer, Integer>> iterator = tree.iterator();
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            Node<Integer, Integer> node = iterator.next();
+
+            Assert.assertEquals(entry.getKey(), node.getKey());
+            Assert.assertEquals(entry.getValue(), node.getValue());
+        }
+
+        Assert.assertFalse(iterator.hasNext());
+
+        for (Integer key : expected.keySet()) {
+            Assert.assertNotNull(tree.remove(key));
+            tree.checkConsistency();
+        }
+
+        Assert.assertNull(tree.first());
+    }
+
+    @Test
+    public void rotationKeepsNodeIdentity() {
+        RedBlackTree<Long, Long> tree = new RedBlackTree<>();
+        List<Node<Long, Long>> nodes = new ArrayList<>();
+        for (long i = 0; i < 1_000; i++) {
+            nodes.add(tree.insert(i, i * 10));
+        }
+
+        for (long i = 0; i < 1_000; i = i + 3) {
+            tree.remove(i);
+        }
+
+        tree.checkConsistency();
+
+        for (long i = 1; i < 1_000; i = i + 3) {
+            Assert.assertSame(nodes.get((int) i), tree.find(i));
+            Assert.assertEquals(Long.valueOf(i * 10), tree.find(i).getValue());
+        }
+    }
+
+    @Test
+    public void load() {
+        for (int size = 0; size < 300; size++) {
+            Integer[] keys = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                keys[i] = i;
+            }
+
+            RedBlackTree<Integer, Integer> tree = new RedBlackTree<>();
+            tree.load(keys, keys);
+            tree.checkConsistency();
+
+            tree.insert(-1, -1);
+            tree.remove(size / 2);
+            tree.checkConsistency();
+
+            RedBlackTree<Integer, Integer> streamed = new RedBlackTree<>();
+            streamed.load(Arrays.stream(keys)
+                .map(key -> new AbstractMap.SimpleEntry<>(key, key)));
+            streamed.checkConsistency();
+        }
+    }
+
+    @Test
+    public void comparator() {
+        RedBlackTree<Long, Long> tree =
+            new RedBlackTree<>(Comparator.<Long>reverseOrder());
+        for (long i = 0; i < 100; i++) {
+            tree.insert(i, i);
+        }
+
+        tree.checkConsistency();
+        Assert.assertEquals(Long.valueOf(99), tree.first().getKey());
+        Assert.assertEquals(Long.valueOf(0), tree.last().getKey());
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SplayTreeTest {
+
+    @Test
+    public void randomOperations() {
+        Random random = new Random(20);
+        SplayTree<Integer, Integer> tree = new SplayTree<>();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(5_000);
+            int operation = random.nextInt(5);
+            if (operation < 2) {
+                Node<Integer, Integer> removed = tree.remove(key);
+                Integer value = expected.remove(key);
+
+                Assert.assertEquals(value,
+                    removed == null ? null : removed.getValue());
+            } else if (operation < 4) {
+                expected.putIfAbsent(key, i);
+                Assert.assertEquals(expected.get(key),
+                    tree.insert(key, i).getValue());
+            } else {
+                Node<Integer, Integer> node = tree.find(key);
+                Assert.assertEquals(expected.get(key),
+                    node == null ? null : node.getValue());
+            }
+        }
+
+        Iterator<Node<Integer, Integer>> iterator = tree.iterator();
+        for (Map.Entry<Integer, Integer> entry : expected.entrySet()) {
+            Node<Integer, Integer> node = iterator.next();
+
+            Assert.assertEquals(entry.getKey(), node.getKey());
+            Assert.assertEquals(entry.getValue(), node.getValue());
+        }
+
+        Assert.assertFalse(iterator.hasNext());
+
+        for (Integer key : expected.keySet()) {
+            Assert.assertNotNull(tree.remove(key));
+            Assert.assertNull(tree.find(key));
+        }
+
+        Assert.assertNull(tree.first());
+    }
+
+    @Test
+    public void accessMovesKeyToRoot() {
+        SplayTree<Long, Long> tree = new SplayTree<>();
+        for (long i = 0; i < 1_000; i++) {
+            tree.insert(i, i);
+            Assert.assertEquals(Long.valueOf(i), tree.getRoot().getKey());
+        }
+
+        tree.find(500L);
+        Assert.assertEquals(Long.valueOf(500), tree.getRoot().getKey());
+
+        tree.find(1_500L);
+        Assert.assertEquals(Long.valueOf(999), tree.getRoot().getKey());
+
+        tree.remove(500L);
+        Assert.assertEquals(Long.valueOf(499), tree.getRoot().getKey());
+    }
+
+    @Test
+    public void hotKeysStayShallow() {
+        SplayTree<Integer, Integer> tree = new SplayTree<>();
+        Random random = new Random(1);
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt();
+            tree.insert(key, key);
+        }
+
+        int[] hot = new int[8];
+        for (int i = 0; i < hot.length; i++) {
+            hot[i] = i * 1_000_003;
+            tree.insert(hot[i], hot[i]);
+        }
+
+        for (int round = 0; round < 10; round++) {
+            for (int key : hot) {
+                Assert.assertNotNull(tree.find(key));
+            }
+        }
+
+        for (int key : hot) {
+            Assert.assertTrue(depth(tree, key) < 2 * hot.length);
+        }
+    }
+
+    @Test
+    public void rotationKeepsNodeIdentity() {
+        SplayTree<Long, Long> tree = new SplayTree<>();
+        List<Node<Long, Long>> nodes = new ArrayList<>();
+        for (long i = 0; i < 1_000; i++) {
+            nodes.add(tree.insert((i * 7919) % 1_000, i));
+        }
+
+        for (Node<Long, Long> node : nodes) {
+            Assert.assertSame(node, tree.find(node.getKey()));
+        }
+    }
+
+    @Test
+    public void degenerateFind() {
+        SplayTree<Integer, Integer> tree = new SplayTree<>();
+        for (int i = 0; i < 100_000; i++) {
+            tree.insert(i, i);
+        }
+
+        Assert.assertEquals(Integer.valueOf(0), tree.find(0).getValue());
+        Assert.assertTrue(tree.height() < 100_000);
+    }
+
+    private static int depth(final SplayTree<Integer, Integer> tree,
+                             final int key) {
+        int depth = 0;
+        Node<Integer, Integer> node = tree.getRoot();
+        while (node.getKey() != key) {
+            node = key < node.getKey() ? node.getLeft() : node.getRight();
+            depth++;
+        }
+
+        return depth;
+    }
+}
@@ -0,0 +1,64 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class StringAVLTreeTest {
+
+    @Test
+    public void matchesNaturalOrder() {
+        String[] prefixes = {"", "a", "ab", "abc", "abcd", "abcde", "b\u0000",
+            "￿", "￿￿￿￿"};
+
+        Random random = new Random(17);
+        StringAVLTree<Integer> tree = new StringAVLTree<>();
+        TreeMap<String, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 20_000; i++) {
+            String key = prefixes[random.nextInt(prefixes.length)]
+                + random.nextInt(100);
+            if (random.nextInt(4) == 0) {
+                tree.remove(key);
+                expected.remove(key);
+            } else {
+                tree.insert(key, i);
+                expected.putIfAbsent(key, i);
+            }
+        }
+
+        tree.checkConsistency();
+        for (String prefix : prefixes) {
+            for (int i = 0; i < 100; i++) {
+                String key = prefix + i;
+                Node<String, Integer> node = tree.find(new String(key));
+
+                Assert.assertEquals(expected.get(key),
+                    node == null ? null : node.getValue());
+                Assert.assertEquals(expected.floorKey(key + "!"),
+                    tree.floor(key + "!").getKey());
+            }
+        }
+
+        String previous = null;
+        for (Node<String, Integer> node : tree) {
+            Assert.assertTrue(previous == null
+                || previous.compareTo(node.getKey()) < 0);
+            previous = node.getKey();
+        }
+    }
+
+    @Test
+    public void emptyRootKeepsPrefix() {
+        StringAVLTree<Integer> tree = new StringAVLTree<>();
+        tree.insert("zzzz", 1);
+        tree.insert("aaaa", 2);
+        tree.remove("zzzz");
+        tree.remove("aaaa");
+        tree.insert("mmmm", 3);
+
+        Assert.assertEquals(Integer.valueOf(3), tree.find("mmmm").getValue());
+        Assert.assertNull(tree.find("aaaa"));
+    }
+}
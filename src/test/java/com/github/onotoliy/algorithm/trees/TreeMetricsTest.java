@@ -0,0 +1,214 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TreeMetricsTest {
+
+    @Test
+    public void findDepth() {
+        BinaryTree<Integer, Integer> tree = new BinaryTree<>();
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setListener(metrics);
+
+        tree.find(1);
+        tree.insert(2, 2);
+        tree.insert(1, 1);
+        tree.insert(3, 3);
+        tree.insert(3, 3);
+        metrics.reset();
+
+        Assert.assertNotNull(tree.find(2));
+        Assert.assertNotNull(tree.find(3));
+        Assert.assertNull(tree.find(4));
+
+        Assert.assertEquals(3, metrics.getLookups());
+        Assert.assertEquals(2, metrics.getHits());
+        Assert.assertEquals(1, metrics.getMisses());
+        Assert.assertEquals(5, metrics.getComparisons());
+        Assert.assertEquals(5.0 / 3, metrics.getMeanDepth(), 1e-9);
+
+        long[] depths = metrics.getDepthHistogram();
+        Assert.assertEquals(TreeMetrics.BUCKETS, depths.length);
+        Assert.assertEquals(1, depths[1]);
+        Assert.assertEquals(2, depths[2]);
+    }
+
+    @Test
+    public void updates() {
+        AVLTree<Long, Long> tree = new AVLTree<>();
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setListener(metrics);
+
+        for (long i = 0; i < 1_000; i++) {
+            tree.insert(i, i);
+        }
+
+        tree.insert(0L, 0L);
+        Assert.assertEquals(1_001, metrics.getInserts());
+        Assert.assertEquals(1_000, metrics.getAllocatedNodes());
+        Assert.assertTrue(metrics.getRotations() > 0);
+        Assert.assertTrue(metrics.getRotations() < 1_000);
+        Assert.assertTrue(
+            maxComparisons(metrics) <= 2 * tree.height() + 1);
+
+        for (long i = 0; i < 1_000; i = i + 2) {
+            tree.remove(i);
+        }
+
+        tree.remove(-1L);
+        Assert.assertEquals(501, metrics.getRemoves());
+
+        long operations = 0;
+        for (long count : metrics.getRotationHistogram()) {
+            operations += count;
+        }
+
+        Assert.assertEquals(1_502, operations);
+    }
+
+    @Test
+    public void singleDescent() {
+        BinaryTree<Integer, Integer> tree = new BinaryTree<>();
+        tree.setListener(new TreeListener() {
+            @Override
+            public void onFind(final boolean hit, final int depth) {
+            }
+
+            @Override
+            public void onInsert(final boolean inserted, final int depth,
+                                 final int comparisons,
+                                 final int rotations) {
+                Assert.assertEquals(depth, comparisons);
+            }
+
+            @Override
+            public void onRemove(final boolean removed, final int depth,
+                                 final int comparisons,
+                                 final int rotations) {
+                Assert.assertEquals(depth, comparisons);
+            }
+
+            @Override
+            public void onAllocate(final int nodes) {
+            }
+        });
+
+        Random random = new Random(21);
+        for (int i = 0; i < 5_000; i++) {
+            int key = random.nextInt(500);
+            if (random.nextBoolean()) {
+                tree.insert(key, key);
+            } else {
+                tree.remove(key);
+            }
+        }
+
+        Assert.assertTrue(tree.height() > 1);
+    }
+
+    @Test
+    public void balancingTrees() {
+        Random random = new Random(22);
+        BinaryTree<Integer, Integer>[] trees = new BinaryTree[] {
+            new AVLTree<Integer, Integer>(),
+            new RedBlackTree<Integer, Integer>(),
+            new SplayTree<Integer, Integer>()
+        };
+
+        for (BinaryTree<Integer, Integer> tree : trees) {
+            TreeMetrics metrics = new TreeMetrics();
+            tree.setListener(metrics);
+
+            int removed = 0;
+            for (int i = 0; i < 10_000; i++) {
+                int key = random.nextInt(1_000);
+                if (random.nextBoolean()) {
+                    tree.insert(key, key);
+                } else if (tree.remove(key) != null) {
+                    removed++;
+                }
+
+                tree.find(random.nextInt(1_000));
+            }
+
+            Assert.assertEquals(tree.size(),
+                metrics.getAllocatedNodes() - removed);
+            Assert.assertEquals(10_000, metrics.getLookups());
+            Assert.assertTrue(metrics.getRotations() > 0);
+            Assert.assertTrue(metrics.getComparisons()
+                >= metrics.getMeanDepth() * 20_000);
+        }
+    }
+
+    @Test
+    public void load() {
+        AVLTree<Integer, Integer> tree = new AVLTree<>();
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setListener(metrics);
+
+        Integer[] keys = {5, 3, 1, 3};
+        tree.load(keys, keys);
+        Assert.assertEquals(3, metrics.getAllocatedNodes());
+        Assert.assertEquals(0, metrics.getInserts());
+    }
+
+    @Test
+    public void disabled() {
+        AVLTree<Integer, Integer> tree = new AVLTree<>();
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setListener(metrics);
+        tree.insert(1, 1);
+
+        tree.setListener(null);
+        tree.insert(2, 2);
+        tree.find(2);
+        tree.remove(1);
+
+        Assert.assertEquals(1, metrics.getInserts());
+        Assert.assertEquals(0, metrics.getLookups());
+        Assert.assertEquals(0, metrics.getRemoves());
+    }
+
+    @Test
+    public void jmx() throws Exception {
+        BinaryTree<Integer, Integer> tree = new BinaryTree<>();
+        TreeMetrics metrics = new TreeMetrics();
+        tree.setListener(metrics);
+        tree.insert(1, 1);
+        tree.find(1);
+        tree.find(2);
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = metrics.register("jmx test");
+        try {
+            Assert.assertEquals(2L, server.getAttribute(name, "Lookups"));
+            Assert.assertEquals(1L, server.getAttribute(name, "Misses"));
+            Assert.assertEquals(TreeMetrics.BUCKETS,
+                ((long[]) server.getAttribute(name, "DepthHistogram")).length);
+
+            server.invoke(name, "reset", null, null);
+            Assert.assertEquals(0L, server.getAttribute(name, "Lookups"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    private static int maxComparisons(final TreeMetrics metrics) {
+        long[] histogram = metrics.getComparisonHistogram();
+        int max = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            if (histogram[i] > 0) {
+                max = i;
+            }
+        }
+
+        return max;
+    }
+}
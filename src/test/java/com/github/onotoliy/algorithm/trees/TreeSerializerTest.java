@@ -0,0 +1,221 @@
+package com.github.onotoliy.algorithm.trees;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class TreeSerializerTest {
+
+    private final TreeSerializer<Long, String> serializer =
+        new TreeSerializer<>(Codecs.LONG, Codecs.STRING);
+
+    @Test
+    public void roundTrip() throws IOException {
+        Random random = new Random(24);
+        AVLTree<Long, String> tree = new AVLTree<>();
+        for (int i = 0; i < 10_000; i++) {
+            long key = random.nextLong();
+            tree.insert(key, Long.toString(key, 36));
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(tree, out);
+
+        AVLTree<Long, String> loaded = serializer.load(
+            new ByteArrayInputStream(out.toByteArray()), new AVLTree<>());
+        loaded.checkConsistency();
+        Assert.assertEquals(tree.size(), loaded.size());
+        Assert.assertTrue(loaded.height() <= 14);
+
+        Iterator<Node<Long, String>> expected = tree.iterator();
+        for (Node<Long, String> node : loaded) {
+            Node<Long, String> next = expected.next();
+
+            Assert.assertEquals(next.getKey(), node.getKey());
+            Assert.assertEquals(next.getValue(), node.getValue());
+        }
+
+        Assert.assertFalse(expected.hasNext());
+    }
+
+    @Test
+    public void stream() throws IOException {
+        BPlusTree<Long, String> tree = new BPlusTree<>();
+        for (long i = 0; i < 1_000; i++) {
+            tree.insert(i * 3, "v" + i);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(tree, out);
+
+        List<Map.Entry<Long, String>> entries = serializer
+            .read(new ByteArrayInputStream(out.toByteArray()))
+            .collect(Collectors.toList());
+
+        Assert.assertEquals(1_000, entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            Assert.assertEquals(Long.valueOf(i * 3L), entries.get(i).getKey());
+            Assert.assertEquals("v" + i, entries.get(i).getValue());
+        }
+    }
+
+    @Test
+    public void channel() throws IOException {
+        RedBlackTree<Long, String> tree = new RedBlackTree<>();
+        for (long i = -500; i < 500; i++) {
+            tree.insert(i, "");
+        }
+
+        Path file = Files.createTempFile("tree", ".bin");
+        try {
+            try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.WRITE)) {
+                serializer.write(tree, channel);
+            }
+
+            Assert.assertTrue(Files.size(file) < 4 * 1_000);
+
+            try (FileChannel channel = FileChannel.open(file)) {
+                RedBlackTree<Long, String> loaded =
+                    serializer.load(channel, new RedBlackTree<>());
+
+                loaded.checkConsistency();
+                Assert.assertEquals(1_000, loaded.size());
+                Assert.assertEquals(Long.valueOf(-500), loaded.first().getKey());
+                Assert.assertEquals(Long.valueOf(499), loaded.last().getKey());
+            }
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    public void codecs() throws IOException {
+        List<Long> longs = Arrays.asList(0L, -1L, 1L, 63L, -64L, 64L,
+            Long.MIN_VALUE, Long.MAX_VALUE);
+        List<Integer> ints = Arrays.asList(0, -1, Integer.MIN_VALUE,
+            Integer.MAX_VALUE);
+
+        BinaryTree<Long, Integer> tree = new BinaryTree<>();
+        for (int i = 0; i < longs.size(); i++) {
+            tree.insert(longs.get(i), ints.get(i % ints.size()));
+        }
+
+        TreeSerializer<Long, Integer> numbers =
+            new TreeSerializer<>(Codecs.LONG, Codecs.INTEGER);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        numbers.write(tree, out);
+
+        BinaryTree<Long, Integer> loaded = numbers.load(
+            new ByteArrayInputStream(out.toByteArray()), new BinaryTree<>());
+        for (int i = 0; i < longs.size(); i++) {
+            Assert.assertEquals(ints.get(i % ints.size()),
+                loaded.find(longs.get(i)).getValue());
+        }
+
+        TreeSerializer<String, byte[]> strings =
+            new TreeSerializer<>(Codecs.STRING, Codecs.BYTES);
+        AVLTree<String, byte[]> text = new AVLTree<>();
+        text.insert("", new byte[0]);
+        text.insert("ключ", new byte[] {1, 2, 3});
+
+        out = new ByteArrayOutputStream();
+        strings.write(text, out);
+
+        AVLTree<String, byte[]> loadedText = strings.load(
+            new ByteArrayInputStream(out.toByteArray()), new AVLTree<>());
+        Assert.assertEquals(0, loadedText.find("").getValue().length);
+        Assert.assertArrayEquals(new byte[] {1, 2, 3},
+            loadedText.find("ключ").getValue());
+    }
+
+    @Test
+    public void empty() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(new AVLTree<>(), out);
+
+        AVLTree<Long, String> loaded = serializer.load(
+            new ByteArrayInputStream(out.toByteArray()), new AVLTree<>());
+        Assert.assertEquals(0, loaded.size());
+        Assert.assertNull(loaded.first());
+    }
+
+    @Test
+    public void corrupted() throws IOException {
+        try {
+            serializer.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4}));
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Not a tree dump", e.getMessage());
+        }
+
+        AVLTree<Long, String> tree = new AVLTree<>();
+        for (long i = 0; i < 100; i++) {
+            tree.insert(i, "value");
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.write(tree, out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 1);
+
+        try {
+            serializer.load(new ByteArrayInputStream(truncated),
+                new AVLTree<>());
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Tree dump has a corrupted header/body",
+                e.getMessage());
+            Assert.assertTrue(e.getCause() instanceof EOFException);
+        }
+    }
+
+    @Test
+    public void oversizedHeader() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(0x54524545);
+        data.writeByte(1);
+        Codecs.writeVarLong(data, Integer.MAX_VALUE);
+        Codecs.LONG.write(1L, data);
+        Codecs.STRING.write("one", data);
+
+        AVLTree<Long, String> tree = new AVLTree<>();
+        tree.insert(7L, "seven");
+
+        try {
+            serializer.load(new ByteArrayInputStream(out.toByteArray()), tree);
+            Assert.fail();
+        } catch (IOException e) {
+            Assert.assertEquals("Tree dump has a corrupted header/body",
+                e.getMessage());
+        }
+
+        Assert.assertEquals(1, tree.size());
+        Assert.assertEquals("seven", tree.find(7L).getValue());
+
+        try {
+            serializer.read(new ByteArrayInputStream(out.toByteArray()))
+                .collect(Collectors.toList());
+            Assert.fail();
+        } catch (UncheckedIOException e) {
+            Assert.assertEquals("Tree dump has a corrupted header/body",
+                e.getCause().getMessage());
+        }
+    }
+}